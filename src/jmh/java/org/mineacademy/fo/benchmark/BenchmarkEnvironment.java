@@ -0,0 +1,229 @@
+package org.mineacademy.fo.benchmark;
+
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.mineacademy.fo.exception.FoException;
+import org.mineacademy.fo.plugin.SimplePlugin;
+
+import sun.reflect.ReflectionFactory;
+
+/**
+ * Lightweight stand-ins for the server, worlds and console so that
+ * benchmarks run without starting a Minecraft server
+ *
+ * Stubs answer only what the benchmarked code asks for, every other
+ * method returns null, zero or false.
+ */
+public final class BenchmarkEnvironment {
+
+	/**
+	 * The world all benchmarks use
+	 */
+	public static final String WORLD_NAME = "world";
+
+	/**
+	 * The stub world, see {@link #setup()}
+	 */
+	private static World world;
+
+	/**
+	 * The stub console, see {@link #setup()}
+	 */
+	private static ConsoleCommandSender console;
+
+	private BenchmarkEnvironment() {
+	}
+
+	/**
+	 * Install the stub server and plugin, does nothing when already installed
+	 */
+	public static synchronized void setup() {
+		if (world != null)
+			return;
+
+		final Logger logger = Logger.getLogger("Benchmark");
+
+		world = stub(World.class, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "getName":
+					return WORLD_NAME;
+				case "getMaxHeight":
+					return 256;
+				default:
+					return null;
+			}
+		});
+
+		console = stub(ConsoleCommandSender.class, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "getName":
+					return "CONSOLE";
+				case "hasPermission":
+				case "isOp":
+					return true;
+				default:
+					return null;
+			}
+		});
+
+		final Server server = stub(Server.class, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "getLogger":
+					return logger;
+				case "getName":
+					return "Benchmark";
+				case "getVersion":
+				case "getBukkitVersion":
+					return "1.15.2-R0.1-SNAPSHOT";
+				case "getWorld":
+					return WORLD_NAME.equals(args[0]) ? world : null;
+				case "getWorlds":
+					return Arrays.asList(world);
+				case "getOnlinePlayers":
+					return Collections.emptyList();
+				case "getConsoleSender":
+					return console;
+				case "isPrimaryThread":
+					return true;
+				default:
+					return null;
+			}
+		});
+
+		Bukkit.setServer(server);
+
+		setInstance(createPlugin(server));
+	}
+
+	/**
+	 * Return the stub world
+	 *
+	 * @return
+	 */
+	public static World getWorld() {
+		setup();
+
+		return world;
+	}
+
+	/**
+	 * Return the stub console
+	 *
+	 * @return
+	 */
+	public static ConsoleCommandSender getConsole() {
+		setup();
+
+		return console;
+	}
+
+	/*
+	 * Create the plugin using the initialization constructor of JavaPlugin, since its default
+	 * constructor requires the server class loader. Constructors and field initializers of
+	 * SimplePlugin do not run, which is fine as the plugin is never loaded or enabled.
+	 */
+	private static SimplePlugin createPlugin(final Server server) {
+		try {
+			final Constructor<?> initializer = JavaPlugin.class.getDeclaredConstructor(JavaPluginLoader.class, PluginDescriptionFile.class, File.class, File.class);
+			final Constructor<?> constructor = ReflectionFactory.getReflectionFactory().newConstructorForSerialization(BenchmarkPlugin.class, initializer);
+
+			constructor.setAccessible(true);
+
+			return (SimplePlugin) constructor.newInstance(new JavaPluginLoader(server), new PluginDescriptionFile("Benchmark", "1.0.0", BenchmarkPlugin.class.getName()),
+					new File("target/benchmark"), new File("target/benchmark.jar"));
+
+		} catch (final ReflectiveOperationException ex) {
+			throw new FoException(ex, "Failed to create the benchmark plugin");
+		}
+	}
+
+	/*
+	 * Set the plugin as the instance returned from SimplePlugin#getInstance
+	 */
+	private static void setInstance(final SimplePlugin plugin) {
+		try {
+			final Field instance = SimplePlugin.class.getDeclaredField("instance");
+
+			instance.setAccessible(true);
+			instance.set(null, plugin);
+
+		} catch (final ReflectiveOperationException ex) {
+			throw new FoException(ex, "Failed to set the benchmark plugin as the instance");
+		}
+	}
+
+	/*
+	 * Create a stub of the interface answering Object methods by identity
+	 * and everything else using the handler, defaulting primitives to zero
+	 */
+	private static <T> T stub(final Class<T> type, final InvocationHandler handler) {
+		return type.cast(Proxy.newProxyInstance(BenchmarkEnvironment.class.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+			if (method.getDeclaringClass() == Object.class)
+				switch (method.getName()) {
+					case "equals":
+						return proxy == args[0];
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					default:
+						return type.getSimpleName() + " stub";
+				}
+
+			final Object value = handler.invoke(proxy, method, args);
+
+			if (value != null || !method.getReturnType().isPrimitive())
+				return value;
+
+			final Class<?> returned = method.getReturnType();
+
+			if (returned == boolean.class)
+				return false;
+
+			if (returned == void.class)
+				return null;
+
+			if (returned == char.class)
+				return '\0';
+
+			if (returned == long.class)
+				return 0L;
+
+			if (returned == float.class)
+				return 0F;
+
+			if (returned == double.class)
+				return 0D;
+
+			if (returned == byte.class)
+				return (byte) 0;
+
+			if (returned == short.class)
+				return (short) 0;
+
+			return 0;
+		}));
+	}
+
+	/**
+	 * The plugin set as the instance, never enabled, see {@link BenchmarkEnvironment#createPlugin(Server)}
+	 */
+	private static final class BenchmarkPlugin extends SimplePlugin {
+
+		@Override
+		protected void onPluginStart() {
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package org.mineacademy.fo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mineacademy.fo.remain.CompMaterial;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for parsing materials from config values, both modern
+ * names and legacy names with data values
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompMaterialBenchmark {
+
+	private static final String[] NAMES = { "diamond sword", "STONE", "oak_planks", "WOOL:14", "STAINED_GLASS:3", "LOG:2" };
+
+	@Setup
+	public void setup() {
+		BenchmarkEnvironment.setup();
+	}
+
+	@Benchmark
+	public void fromString(final Blackhole blackhole) {
+		for (final String name : NAMES)
+			blackhole.consume(CompMaterial.fromString(name));
+	}
+}
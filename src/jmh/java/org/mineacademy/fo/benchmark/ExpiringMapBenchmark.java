@@ -0,0 +1,60 @@
+package org.mineacademy.fo.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.mineacademy.fo.collection.expiringmap.ExpiringMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link ExpiringMap} used as a cache
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpiringMapBenchmark {
+
+	private static final int KEYS = 1024;
+
+	private Map<String, Integer> map;
+	private String[] keys;
+	private int index;
+
+	@Setup
+	public void setup() {
+		BenchmarkEnvironment.setup();
+
+		map = ExpiringMap.builder().expiration(10, TimeUnit.MINUTES).build();
+		keys = new String[KEYS];
+
+		for (int i = 0; i < KEYS; i++) {
+			keys[i] = "player-" + i;
+
+			map.put(keys[i], i);
+		}
+	}
+
+	@Benchmark
+	public Integer put() {
+		final int i = index++ & (KEYS - 1);
+
+		return map.put(keys[i], i);
+	}
+
+	@Benchmark
+	public Integer get() {
+		return map.get(keys[index++ & (KEYS - 1)]);
+	}
+}
@@ -0,0 +1,59 @@
+package org.mineacademy.fo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.mineacademy.fo.region.Region;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for checking if a location is within a region,
+ * as done for every player movement in region plugins
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegionBenchmark {
+
+	private World world;
+	private Region region;
+	private Location inside;
+	private Location outside;
+
+	@Setup
+	public void setup() {
+		world = BenchmarkEnvironment.getWorld();
+
+		region = new Region(new Location(world, 120, 80, -40), new Location(world, -35, 20, 210));
+		inside = new Location(world, 10.5, 64, 100.5);
+		outside = new Location(world, 500.5, 64, 100.5);
+	}
+
+	@Benchmark
+	public boolean isWithinInside() {
+		return region.isWithin(inside);
+	}
+
+	@Benchmark
+	public boolean isWithinOutside() {
+		return region.isWithin(outside);
+	}
+
+	@Benchmark
+	public boolean isWithinBlock() {
+		return region.isWithin(world, 10, 64, 100);
+	}
+}
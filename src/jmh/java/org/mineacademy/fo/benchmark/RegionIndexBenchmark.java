@@ -0,0 +1,113 @@
+package org.mineacademy.fo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.mineacademy.fo.region.Region;
+import org.mineacademy.fo.region.RegionIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks finding the regions at a point using {@link RegionIndex}
+ * compared to checking every region, as done on each player move
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegionIndexBenchmark {
+
+	/**
+	 * How many points we query in turn
+	 */
+	private static final int POINTS = 1024;
+
+	/**
+	 * Regions are spread over this many blocks in each direction
+	 */
+	private static final int SPREAD = 4000;
+
+	@Param({ "100", "2000", "10000" })
+	private int regionCount;
+
+	private World world;
+	private List<Region> regions;
+	private RegionIndex<Region> index;
+	private int[] points;
+	private int point;
+
+	@Setup
+	public void setup() {
+		final Random random = new Random(42);
+
+		world = BenchmarkEnvironment.getWorld();
+		regions = new ArrayList<>();
+		index = new RegionIndex<>();
+
+		for (int i = 0; i < regionCount; i++) {
+			final int x = random.nextInt(SPREAD * 2) - SPREAD;
+			final int z = random.nextInt(SPREAD * 2) - SPREAD;
+			final int size = 8 + random.nextInt(120);
+
+			final Region region = new Region(new Location(world, x, 0, z), new Location(world, x + size, 255, z + size));
+
+			regions.add(region);
+			index.add(region);
+		}
+
+		points = new int[POINTS * 3];
+
+		for (int i = 0; i < POINTS; i++) {
+			points[i * 3] = random.nextInt(SPREAD * 2) - SPREAD;
+			points[i * 3 + 1] = 64;
+			points[i * 3 + 2] = random.nextInt(SPREAD * 2) - SPREAD;
+		}
+	}
+
+	@Benchmark
+	public Region linearScan() {
+		final int i = nextPoint();
+
+		for (final Region region : regions)
+			if (region.isWithin(world, points[i], points[i + 1], points[i + 2]))
+				return region;
+
+		return null;
+	}
+
+	@Benchmark
+	public Region indexFind() {
+		final int i = nextPoint();
+
+		return index.findAt(world, points[i], points[i + 1], points[i + 2]);
+	}
+
+	@Benchmark
+	public List<Region> indexIntersecting() {
+		final int i = nextPoint();
+
+		return index.getIntersecting(world, points[i] - 32, 0, points[i + 2] - 32, points[i] + 32, 255, points[i + 2] + 32);
+	}
+
+	private int nextPoint() {
+		point = (point + 1) & (POINTS - 1);
+
+		return point * 3;
+	}
+}
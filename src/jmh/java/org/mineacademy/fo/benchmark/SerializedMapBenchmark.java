@@ -0,0 +1,59 @@
+package org.mineacademy.fo.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.mineacademy.fo.collection.SerializedMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for converting {@link SerializedMap} from and to JSON,
+ * as done when saving data to databases
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializedMapBenchmark {
+
+	private SerializedMap map;
+	private String json;
+
+	@Setup
+	public void setup() {
+		BenchmarkEnvironment.setup();
+
+		map = SerializedMap.ofArray(
+				"Name", "kangarko",
+				"Kills", 1250,
+				"Deaths", 310,
+				"Rank", "Veteran",
+				"Online", true,
+				"Balance", 15230.75D,
+				"Friends", Arrays.asList("Notch", "jeb_", "Dinnerbone"),
+				"Settings", SerializedMap.ofArray("Chat", true, "Sounds", false, "Language", "en"));
+
+		json = map.toJson();
+	}
+
+	@Benchmark
+	public String toJson() {
+		return map.toJson();
+	}
+
+	@Benchmark
+	public SerializedMap fromJson() {
+		return SerializedMap.fromJson(json);
+	}
+}
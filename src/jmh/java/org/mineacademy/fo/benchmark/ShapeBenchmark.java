@@ -0,0 +1,115 @@
+package org.mineacademy.fo.benchmark;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.mineacademy.fo.BlockUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for generating spheres and circles, comparing the former
+ * set based generator with the location adapters and the visitors
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShapeBenchmark {
+
+	@Param({ "10", "30" })
+	private int radius;
+
+	@Param({ "false", "true" })
+	private boolean hollow;
+
+	private Location center;
+
+	@Setup
+	public void setup() {
+		final World world = BenchmarkEnvironment.getWorld();
+
+		center = new Location(world, 100, 64, -200);
+	}
+
+	@Benchmark
+	public Set<Location> sphereLegacy() {
+		return legacySphere(center, radius, hollow);
+	}
+
+	@Benchmark
+	public Set<Location> sphereLocations() {
+		return BlockUtil.getSphere(center, radius, hollow);
+	}
+
+	@Benchmark
+	public void sphereVisitor(final Blackhole blackhole) {
+		BlockUtil.visitSphere(100, 64, -200, radius, hollow, (x, y, z) -> blackhole.consume(x ^ y ^ z));
+	}
+
+	@Benchmark
+	public void sphereOctant(final Blackhole blackhole) {
+		BlockUtil.visitSphereOctant(radius, hollow, (x, y, z) -> blackhole.consume(x ^ y ^ z));
+	}
+
+	@Benchmark
+	public Set<Location> circleLocations() {
+		return BlockUtil.getCircle(center, radius, hollow);
+	}
+
+	@Benchmark
+	public void circleVisitor(final Blackhole blackhole) {
+		BlockUtil.visitCircle(100, 64, -200, radius, hollow, (x, y, z) -> blackhole.consume(x ^ y ^ z));
+	}
+
+	/*
+	 * The sphere generator as it was before the visitors, kept as the baseline
+	 */
+	private static Set<Location> legacySphere(final Location location, final int radius, final boolean hollow) {
+		final Set<Location> blocks = new HashSet<>();
+		final World world = location.getWorld();
+		final int X = location.getBlockX();
+		final int Y = location.getBlockY();
+		final int Z = location.getBlockZ();
+		final int radiusSquared = radius * radius;
+
+		for (int x = X - radius; x <= X + radius; x++)
+			for (int y = Y - radius; y <= Y + radius; y++)
+				for (int z = Z - radius; z <= Z + radius; z++)
+					if ((X - x) * (X - x) + (Y - y) * (Y - y) + (Z - z) * (Z - z) <= radiusSquared)
+						blocks.add(new Location(world, x, y, z));
+
+		if (!hollow)
+			return blocks;
+
+		final Set<Location> edge = new HashSet<>();
+
+		for (final Location point : blocks) {
+			final int x = point.getBlockX();
+			final int y = point.getBlockY();
+			final int z = point.getBlockZ();
+
+			if (!(blocks.contains(new Location(world, x + 1, y, z)) && blocks.contains(new Location(world, x - 1, y, z))
+					&& blocks.contains(new Location(world, x, y, z + 1)) && blocks.contains(new Location(world, x, y, z - 1))
+					&& blocks.contains(new Location(world, x, y + 1, z)) && blocks.contains(new Location(world, x, y - 1, z))))
+				edge.add(point);
+		}
+
+		return edge;
+	}
+}
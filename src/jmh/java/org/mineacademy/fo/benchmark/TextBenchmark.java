@@ -0,0 +1,75 @@
+package org.mineacademy.fo.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.command.CommandSender;
+import org.mineacademy.fo.ChatUtil;
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.Valid;
+import org.mineacademy.fo.model.Replacer;
+import org.mineacademy.fo.model.Variables;
+import org.mineacademy.fo.model.Variable.VariableScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for formatting and matching chat messages
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextBenchmark {
+
+	private static final String MESSAGE = "&8[&6Arena&8] &7Player &f{player} &7joined &c{arena} &7on &e{server_name} &7at {timestamp}";
+
+	private static final String LONG_MESSAGE = "&7Welcome to the server, &f{player}&7! Please read the rules at /rules and have fun playing with others.";
+
+	private CommandSender console;
+	private List<String> regexList;
+
+	@Setup
+	public void setup() {
+		BenchmarkEnvironment.setup();
+
+		console = BenchmarkEnvironment.getConsole();
+		regexList = Arrays.asList("(?i)fuck.*", "\\bidiot\\b", "buy (cheap )?ranks?", "discord\\.gg/\\w+", "\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}", "(.)\\1{5,}");
+	}
+
+	@Benchmark
+	public String colorize() {
+		return Common.colorize(MESSAGE);
+	}
+
+	@Benchmark
+	public String variablesReplace() {
+		return Variables.replace(VariableScope.FORMAT, MESSAGE, console);
+	}
+
+	@Benchmark
+	public String replacerReplaceAll() {
+		return Replacer.of(MESSAGE).replaceAll("player", "kangarko", "arena", "Castle", "server_name", "Lobby", "timestamp", "12:00");
+	}
+
+	@Benchmark
+	public double percentageSimilarity() {
+		return ChatUtil.percentageSimilarity(LONG_MESSAGE, MESSAGE);
+	}
+
+	@Benchmark
+	public boolean isInListRegex() {
+		return Valid.isInListRegex(LONG_MESSAGE, regexList);
+	}
+}
@@ -20,6 +20,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.block.Action;
 import org.bukkit.util.Vector;
 import org.mineacademy.fo.MinecraftVersion.V;
+import org.mineacademy.fo.model.BlockScanner;
 import org.mineacademy.fo.remain.CompMaterial;
 import org.mineacademy.fo.remain.Remain;
 
@@ -202,7 +203,8 @@ public final class BlockUtil {
 	/**
 	 * Get all locations within the given 3D spherical radius, hollow or not
 	 *
-	 * NOTE: Calling this operation causes performance penaulty (>100ms for 30 radius!), be careful.
+	 * NOTE: This creates a location for each point, prefer
+	 * {@link #visitSphere(int, int, int, int, boolean, CoordinateVisitor)} for large radiuses.
 	 *
 	 * @param location
 	 * @param radius
@@ -212,26 +214,8 @@ public final class BlockUtil {
 	public static Set<Location> getSphere(final Location location, final int radius, final boolean hollow) {
 		final Set<Location> blocks = new HashSet<>();
 		final World world = location.getWorld();
-		final int X = location.getBlockX();
-		final int Y = location.getBlockY();
-		final int Z = location.getBlockZ();
-		final int radiusSquared = radius * radius;
-
-		if (hollow) {
-			for (int x = X - radius; x <= X + radius; x++)
-				for (int y = Y - radius; y <= Y + radius; y++)
-					for (int z = Z - radius; z <= Z + radius; z++)
-						if ((X - x) * (X - x) + (Y - y) * (Y - y) + (Z - z) * (Z - z) <= radiusSquared)
-							blocks.add(new Location(world, x, y, z));
-
-			return makeHollow(blocks, true);
-		}
 
-		for (int x = X - radius; x <= X + radius; x++)
-			for (int y = Y - radius; y <= Y + radius; y++)
-				for (int z = Z - radius; z <= Z + radius; z++)
-					if ((X - x) * (X - x) + (Y - y) * (Y - y) + (Z - z) * (Z - z) <= radiusSquared)
-						blocks.add(new Location(world, x, y, z));
+		visitSphere(location.getBlockX(), location.getBlockY(), location.getBlockZ(), radius, hollow, (x, y, z) -> blocks.add(new Location(world, x, y, z)));
 
 		return blocks;
 	}
@@ -239,7 +223,8 @@ public final class BlockUtil {
 	/**
 	 * Get all locations within the given 2D circle radius, hollow or full circle
 	 *
-	 * NOTE: Calling this operation causes performance penaulty (>100ms for 30 radius!), be careful.
+	 * NOTE: This creates a location for each point, prefer
+	 * {@link #visitCircle(int, int, int, int, boolean, CoordinateVisitor)} for large radiuses.
 	 *
 	 * @param location
 	 * @param radius
@@ -250,77 +235,116 @@ public final class BlockUtil {
 		final Set<Location> blocks = new HashSet<>();
 		final World world = location.getWorld();
 
-		final int initialX = location.getBlockX();
-		final int initialY = location.getBlockY();
-		final int initialZ = location.getBlockZ();
-		final int radiusSquared = radius * radius;
-
-		if (hollow) {
-			for (int x = initialX - radius; x <= initialX + radius; x++)
-				for (int z = initialZ - radius; z <= initialZ + radius; z++)
-					if ((initialX - x) * (initialX - x) + (initialZ - z) * (initialZ - z) <= radiusSquared)
-						blocks.add(new Location(world, x, initialY, z));
-
-			return makeHollow(blocks, false);
-		}
-
-		for (int x = initialX - radius; x <= initialX + radius; x++)
-			for (int z = initialZ - radius; z <= initialZ + radius; z++)
-				if ((initialX - x) * (initialX - x) + (initialZ - z) * (initialZ - z) <= radiusSquared)
-					blocks.add(new Location(world, x, initialY, z));
+		visitCircle(location.getBlockX(), location.getBlockY(), location.getBlockZ(), radius, hollow, (x, y, z) -> blocks.add(new Location(world, x, y, z)));
 
 		return blocks;
 	}
 
 	/**
-	 * Creates a new list of outer location points from all given points
+	 * Visit block coordinates within the given 3D spherical radius, hollow or not,
+	 * each exactly once and without creating any objects.
 	 *
-	 * @param blocks
-	 * @param sphere
-	 * @return
+	 * A hollow sphere only has blocks with at least one side facing outside of the sphere.
+	 *
+	 * @param centerX
+	 * @param centerY
+	 * @param centerZ
+	 * @param radius
+	 * @param hollow
+	 * @param visitor
 	 */
-	private static Set<Location> makeHollow(final Set<Location> blocks, final boolean sphere) {
-		final Set<Location> edge = new HashSet<>();
+	public static void visitSphere(final int centerX, final int centerY, final int centerZ, final int radius, final boolean hollow, final CoordinateVisitor visitor) {
+		visitSphereOctant(radius, hollow, (dx, dy, dz) -> visitMirrored(centerX, centerY, centerZ, dx, dy, dz, visitor));
+	}
 
-		if (!sphere) {
-			for (final Location location : blocks) {
-				final World world = location.getWorld();
-				final int x = location.getBlockX();
-				final int y = location.getBlockY();
-				final int z = location.getBlockZ();
+	/**
+	 * Visit offsets from the center within the given 3D spherical radius that are
+	 * zero or positive, so one eighth of the sphere. Mirror each offset by its signs
+	 * to get the whole sphere, such as when drawing it with symmetric particles.
+	 *
+	 * @param radius
+	 * @param hollow
+	 * @param visitor
+	 */
+	public static void visitSphereOctant(final int radius, final boolean hollow, final CoordinateVisitor visitor) {
+		final int radiusSquared = radius * radius;
 
-				final Location front = new Location(world, x + 1, y, z);
-				final Location back = new Location(world, x - 1, y, z);
-				final Location left = new Location(world, x, y, z + 1);
-				final Location right = new Location(world, x, y, z - 1);
+		for (int dx = 0; dx <= radius; dx++)
+			for (int dy = 0; dy <= radius; dy++) {
+				final int height = getSphereHeight(dx, dy, radiusSquared);
 
-				if (!(blocks.contains(front) && blocks.contains(back) && blocks.contains(left) && blocks.contains(right)))
-					edge.add(location);
+				if (height < 0)
+					break;
 
+				for (int dz = hollow ? getShellStart(height, Math.min(getSphereHeight(dx + 1, dy, radiusSquared), getSphereHeight(dx, dy + 1, radiusSquared))) : 0; dz <= height; dz++)
+					visitor.visit(dx, dy, dz);
 			}
-			return edge;
+	}
+
+	/**
+	 * Visit block coordinates within the given 2D circle radius on the XZ plane,
+	 * hollow or full circle, each exactly once and without creating any objects.
+	 *
+	 * @param centerX
+	 * @param y
+	 * @param centerZ
+	 * @param radius
+	 * @param hollow
+	 * @param visitor
+	 */
+	public static void visitCircle(final int centerX, final int y, final int centerZ, final int radius, final boolean hollow, final CoordinateVisitor visitor) {
+		final int radiusSquared = radius * radius;
+
+		for (int dx = 0; dx <= radius; dx++) {
+			final int height = getSphereHeight(dx, 0, radiusSquared);
+
+			for (int dz = hollow ? getShellStart(height, getSphereHeight(dx + 1, 0, radiusSquared)) : 0; dz <= height; dz++)
+				visitMirrored(centerX, y, centerZ, dx, 0, dz, visitor);
 		}
+	}
 
-		for (final Location location : blocks) {
-			final World world = location.getWorld();
+	/*
+	 * Return the highest z offset within the sphere at the given x and y offset, or -1 if none
+	 */
+	private static int getSphereHeight(final int dx, final int dy, final int radiusSquared) {
+		final int rest = radiusSquared - dx * dx - dy * dy;
 
-			final int x = location.getBlockX();
-			final int y = location.getBlockY();
-			final int z = location.getBlockZ();
+		if (rest < 0)
+			return -1;
 
-			final Location front = new Location(world, x + 1, y, z);
-			final Location back = new Location(world, x - 1, y, z);
-			final Location left = new Location(world, x, y, z + 1);
-			final Location right = new Location(world, x, y, z - 1);
-			final Location top = new Location(world, x, y + 1, z);
-			final Location bottom = new Location(world, x, y - 1, z);
+		int root = (int) Math.sqrt(rest);
 
-			if (!(blocks.contains(front) && blocks.contains(back) && blocks.contains(left) && blocks.contains(right) && blocks.contains(top) && blocks.contains(bottom)))
-				edge.add(location);
-		}
+		// Correct rounding errors of the floating point root
+		while (root * root > rest)
+			root--;
+
+		while ((root + 1) * (root + 1) <= rest)
+			root++;
 
-		return edge;
+		return root;
+	}
+
+	/*
+	 * Return the lowest z offset of a hollow shape, blocks from there up to the height
+	 * face outside either above the height or past the lowest neighbour column height
+	 */
+	private static int getShellStart(final int height, final int neighbourHeight) {
+		return Math.min(neighbourHeight + 1, height);
+	}
 
+	/*
+	 * Visit the coordinates in all eight octants, skipping duplicates where an offset is zero
+	 */
+	private static void visitMirrored(final int centerX, final int centerY, final int centerZ, final int dx, final int dy, final int dz, final CoordinateVisitor visitor) {
+		for (int octant = 0; octant < 8; octant++) {
+			if ((octant & 1) != 0 && dx == 0 || (octant & 2) != 0 && dy == 0 || (octant & 4) != 0 && dz == 0)
+				continue;
+
+			visitor.visit(
+					centerX + ((octant & 1) == 0 ? dx : -dx),
+					centerY + ((octant & 2) == 0 ? dy : -dy),
+					centerZ + ((octant & 4) == 0 ? dz : -dz));
+		}
 	}
 
 	// ------------------------------------------------------------------------------------------------------------
@@ -330,6 +354,8 @@ public final class BlockUtil {
 	/**
 	 * Returns all blocks within the two cuboid bounds (may take a while)
 	 *
+	 * For large areas, use {@link BlockScanner} to read blocks off the main thread
+	 *
 	 * @param primary
 	 * @param secondary
 	 * @return
@@ -746,6 +772,22 @@ public final class BlockUtil {
 		return (int) (max.getY() - min.getY() + 1.0D);
 	}
 
+	/**
+	 * Receives block coordinates from shape generators
+	 */
+	@FunctionalInterface
+	public interface CoordinateVisitor {
+
+		/**
+		 * Called for each block
+		 *
+		 * @param x
+		 * @param y
+		 * @param z
+		 */
+		void visit(int x, int y, int z);
+	}
+
 	@RequiredArgsConstructor
 	private final static class VectorHelper {
 
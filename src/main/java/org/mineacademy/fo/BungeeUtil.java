@@ -28,6 +28,11 @@ import lombok.NonNull;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class BungeeUtil {
 
+	/**
+	 * Prints debug messages about sent BungeeCord messages
+	 */
+	private static final Debugger.Section BUNGEE_DEBUG = Debugger.section("bungee");
+
 	/**
 	 * The current position of writing the data based on the
 	 * {@link BungeeAction#getContent()}
@@ -64,7 +69,7 @@ public final class BungeeUtil {
 	public static <T> void tellBungee(String channel, BungeeAction action, T... datas) {
 		Valid.checkBoolean(datas.length == action.getContent().length, "Data count != valid values count in " + action + "! Given data: " + datas.length + " vs " + action.getContent().length);
 
-		Debugger.put("bungee", "Server '" + SimpleSettings.BUNGEE_SERVER_NAME + "' sent bungee message [" + channel + ", " + action + "]: ");
+		BUNGEE_DEBUG.put("Server '" + SimpleSettings.BUNGEE_SERVER_NAME + "' sent bungee message [" + channel + ", " + action + "]: ");
 		final ByteArrayDataOutput out = ByteStreams.newDataOutput();
 
 		out.writeUTF(SimpleSettings.BUNGEE_SERVER_NAME);
@@ -76,34 +81,34 @@ public final class BungeeUtil {
 			Valid.checkNotNull(data, "Bungee object in array is null! Array: " + Common.join(datas, ", ", (Stringer<T>) t -> t == null ? "null" : t.toString() + "(" + t.getClass().getSimpleName() + ")"));
 
 			if (data instanceof Integer) {
-				Debugger.put("bungee", data.toString() + ", ");
+				BUNGEE_DEBUG.put(data.toString() + ", ");
 
 				moveHead(action, Integer.class);
 				out.writeInt((Integer) data);
 
 			} else if (data instanceof Double) {
-				Debugger.put("bungee", data.toString() + ", ");
+				BUNGEE_DEBUG.put(data.toString() + ", ");
 
 				moveHead(action, Double.class);
 				out.writeDouble((Double) data);
 			}
 
 			else if (data instanceof Long) {
-				Debugger.put("bungee", data.toString() + ", ");
+				BUNGEE_DEBUG.put(data.toString() + ", ");
 
 				moveHead(action, Long.class);
 				out.writeLong((Long) data);
 			}
 
 			else if (data instanceof Boolean) {
-				Debugger.put("bungee", data.toString() + ", ");
+				BUNGEE_DEBUG.put(data.toString() + ", ");
 
 				moveHead(action, Boolean.class);
 				out.writeBoolean((Boolean) data);
 			}
 
 			else if (data instanceof String) {
-				Debugger.put("bungee", data.toString() + ", ");
+				BUNGEE_DEBUG.put(data.toString() + ", ");
 
 				moveHead(action, String.class);
 				out.writeUTF((String) data);
@@ -113,7 +118,7 @@ public final class BungeeUtil {
 				throw new FoException("Unknown type of data: " + data + " (" + data.getClass().getSimpleName() + ")");
 		}
 
-		Debugger.push("bungee");
+		BUNGEE_DEBUG.push();
 		getThroughWhomSendMessage().sendPluginMessage(SimplePlugin.getInstance(), channel, out.toByteArray());
 
 		actionHead = 0;
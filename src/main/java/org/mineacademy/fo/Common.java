@@ -45,7 +45,10 @@ import org.mineacademy.fo.collection.SerializedMap;
 import org.mineacademy.fo.collection.StrictList;
 import org.mineacademy.fo.collection.StrictMap;
 import org.mineacademy.fo.constants.FoConstants;
+import org.mineacademy.fo.debug.CacheRegistry;
 import org.mineacademy.fo.debug.Debugger;
+import org.mineacademy.fo.debug.LogWriter;
+import org.mineacademy.fo.debug.TickProfiler;
 import org.mineacademy.fo.exception.FoException;
 import org.mineacademy.fo.exception.RegexTimeoutException;
 import org.mineacademy.fo.model.DiscordSender;
@@ -89,7 +92,7 @@ public final class Common {
 	 * instead, we only send this message once per X seconds. This cache holds the last times when we
 	 * sent that message so we know how long to wait before the next one.
 	 */
-	private static final Map<String, Long> TIMED_TELL_CACHE = new HashMap<>();
+	private static final Map<String, Long> TIMED_TELL_CACHE = CacheRegistry.register("timed tell", new HashMap<>());
 
 	/**
 	 * See {@link #TIMED_TELL_CACHE}, but this is for sending messages to your console
@@ -1260,7 +1263,7 @@ public final class Common {
 			return matcher != null ? matcher.find() : false;
 
 		} catch (final RegexTimeoutException ex) {
-			FileUtil.writeFormatted(FoConstants.File.ERRORS, null, "Matching timed out (bad regex?) (plugin ver. " + SimplePlugin.getVersion() + ")! \nString checked: " + ex.getCheckedMessage() + "\nRegex: " + (matcher != null ? matcher.pattern().pattern() : "null") + "");
+			LogWriter.writeFormatted(FoConstants.File.ERRORS, null, "Matching timed out (bad regex?) (plugin ver. " + SimplePlugin.getVersion() + ")! \nString checked: " + ex.getCheckedMessage() + "\nRegex: " + (matcher != null ? matcher.pattern().pattern() : "null") + "");
 
 			logFramed(false,
 					"&cRegex check took too long! (allowed: " + SimpleSettings.REGEX_TIMEOUT + "ms)",
@@ -1289,7 +1292,7 @@ public final class Common {
 			return pattern.matcher(new TimedCharSequence(strippedMessage, timeout));
 
 		} catch (final RegexTimeoutException ex) {
-			FileUtil.writeFormatted(FoConstants.File.ERRORS, null, "Regex check timed out (bad regex?) (plugin ver. " + SimplePlugin.getVersion() + ")! \nString checked: " + ex.getCheckedMessage() + "\nRegex: " + pattern.pattern() + "");
+			LogWriter.writeFormatted(FoConstants.File.ERRORS, null, "Regex check timed out (bad regex?) (plugin ver. " + SimplePlugin.getVersion() + ")! \nString checked: " + ex.getCheckedMessage() + "\nRegex: " + pattern.pattern() + "");
 
 			throwError(ex,
 					"&cChecking a message took too long! (limit: " + SimpleSettings.REGEX_TIMEOUT + ")",
@@ -2076,13 +2079,15 @@ public final class Common {
 	 * @param task
 	 * @return the task or null
 	 */
-	public static BukkitTask runLater(final int delayTicks, final Runnable task) {
+	public static BukkitTask runLater(final int delayTicks, Runnable task) {
 		final BukkitScheduler scheduler = Bukkit.getScheduler();
 		final JavaPlugin instance = SimplePlugin.getInstance();
 
+		task = TickProfiler.wrap(task, false);
+
 		return runIfDisabled(task) ? null
-				: delayTicks == 0 ? task instanceof BukkitRunnable ? ((BukkitRunnable) task).runTask(instance) : scheduler.runTask(instance, task)
-						: task instanceof BukkitRunnable ? ((BukkitRunnable) task).runTaskLater(instance, delayTicks) : scheduler.runTaskLater(instance, task, delayTicks);
+				: delayTicks == 0 ? task instanceof BukkitRunnable ? ((BukkitRunnable) task).runTask(instance) : TickProfiler.schedule(task, profiled -> scheduler.runTask(instance, profiled))
+						: task instanceof BukkitRunnable ? ((BukkitRunnable) task).runTaskLater(instance, delayTicks) : TickProfiler.schedule(task, profiled -> scheduler.runTaskLater(instance, profiled, delayTicks));
 	}
 
 	/**
@@ -2108,15 +2113,17 @@ public final class Common {
 	 * @param task
 	 * @return the task or null
 	 */
-	public static BukkitTask runLaterAsync(final int delayTicks, final Runnable task) {
+	public static BukkitTask runLaterAsync(final int delayTicks, Runnable task) {
 		final BukkitScheduler scheduler = Bukkit.getScheduler();
 		final JavaPlugin instance = SimplePlugin.getInstance();
 
+		task = TickProfiler.wrap(task, true);
+
 		return runIfDisabled(task) ? null
 				: delayTicks == 0 ? task instanceof BukkitRunnable ? ((BukkitRunnable) task).runTaskAsynchronously(instance)
-						: scheduler.runTaskAsynchronously(instance, task)
+						: TickProfiler.schedule(task, profiled -> scheduler.runTaskAsynchronously(instance, profiled))
 						: task instanceof BukkitRunnable ? ((BukkitRunnable) task).runTaskLaterAsynchronously(instance, delayTicks)
-								: scheduler.runTaskLaterAsynchronously(instance, task, delayTicks);
+								: TickProfiler.schedule(task, profiled -> scheduler.runTaskLaterAsynchronously(instance, profiled, delayTicks));
 	}
 
 	/**
@@ -2138,10 +2145,12 @@ public final class Common {
 	 * @param task the task
 	 * @return the bukkit task or null if error
 	 */
-	public static BukkitTask runTimer(final int delayTicks, final int repeatTicks, final Runnable task) {
+	public static BukkitTask runTimer(final int delayTicks, final int repeatTicks, Runnable task) {
+		task = TickProfiler.wrap(task, false);
+
 		return runIfDisabled(task) ? null
 				: task instanceof BukkitRunnable ? ((BukkitRunnable) task).runTaskTimer(SimplePlugin.getInstance(), delayTicks, repeatTicks)
-						: Bukkit.getScheduler().runTaskTimer(SimplePlugin.getInstance(), task, delayTicks, repeatTicks);
+						: TickProfiler.schedule(task, profiled -> Bukkit.getScheduler().runTaskTimer(SimplePlugin.getInstance(), profiled, delayTicks, repeatTicks));
 	}
 
 	/**
@@ -2163,10 +2172,12 @@ public final class Common {
 	 * @param task
 	 * @return
 	 */
-	public static BukkitTask runTimerAsync(final int delayTicks, final int repeatTicks, final Runnable task) {
+	public static BukkitTask runTimerAsync(final int delayTicks, final int repeatTicks, Runnable task) {
+		task = TickProfiler.wrap(task, true);
+
 		return runIfDisabled(task) ? null
 				: task instanceof BukkitRunnable ? ((BukkitRunnable) task).runTaskTimerAsynchronously(SimplePlugin.getInstance(), delayTicks, repeatTicks)
-						: Bukkit.getScheduler().runTaskTimerAsynchronously(SimplePlugin.getInstance(), task, delayTicks, repeatTicks);
+						: TickProfiler.schedule(task, profiled -> Bukkit.getScheduler().runTaskTimerAsynchronously(SimplePlugin.getInstance(), profiled, delayTicks, repeatTicks));
 	}
 
 	// Check our plugin instance if it's enabled
@@ -2202,7 +2213,7 @@ public final class Common {
 	 * @param listener
 	 */
 	public static void registerEvents(final Listener listener) {
-		Bukkit.getPluginManager().registerEvents(listener, SimplePlugin.getInstance());
+		TickProfiler.registerEvents(listener, SimplePlugin.getInstance());
 	}
 
 	/**
@@ -22,11 +22,12 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.ProjectileHitEvent;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.mineacademy.fo.EntityUtil.HitListener;
 import org.mineacademy.fo.collection.expiringmap.ExpiringMap;
+import org.mineacademy.fo.debug.CacheRegistry;
 import org.mineacademy.fo.exception.FoException;
 import org.mineacademy.fo.model.HookManager;
+import org.mineacademy.fo.model.Ticker;
 import org.mineacademy.fo.remain.Remain;
 
 import lombok.AccessLevel;
@@ -125,7 +126,7 @@ public final class EntityUtil {
 	// ----------------------------------------------------------------------------------------------------
 
 	/**
-	 * Runs a timer task with the tick period of 1 and will trigger your hit listener
+	 * Runs a {@link Ticker} task with the tick period of 1 and will trigger your hit listener
 	 * when the given entity isOnGround. If the entity gets removed before it hits
 	 * the ground, nothing is called
 	 *
@@ -152,7 +153,7 @@ public final class EntityUtil {
 	}
 
 	/**
-	 * Runs a timer task with the tick period of 1 and will trigger your hit listener
+	 * Runs a {@link Ticker} task with the tick period of 1 and will trigger your hit listener
 	 * when the given entity isOnGround. If the entity gets removed before it hits
 	 * the ground, nothing is called
 	 *
@@ -172,40 +173,34 @@ public final class EntityUtil {
 		if (isProjectile && hitGroundListener != null)
 			HitTracking.addFlyingProjectile((Projectile) entity, event -> hitGroundListener.run());
 
-		Common.runTimer(1, new BukkitRunnable() {
+		Ticker.runTimer(1, handle -> {
 
-			private int elapsedTicks = 0;
+			// Cancel after the given timeout to save performance
+			if (handle.getRuns() > timeoutTicks + 1) {
+				handle.cancel();
 
-			@Override
-			public void run() {
-
-				// Cancel after the given timeout to save performance
-				if (elapsedTicks++ > timeoutTicks) {
-					cancel();
-
-					return;
-				}
+				return;
+			}
 
-				// Cancel when invalid
-				if (entity == null || entity.isDead() || !entity.isValid()) {
-					if (entity instanceof FallingBlock && !isProjectile && hitGroundListener != null)
-						hitGroundListener.run();
+			// Cancel when invalid
+			if (entity == null || entity.isDead() || !entity.isValid()) {
+				if (entity instanceof FallingBlock && !isProjectile && hitGroundListener != null)
+					hitGroundListener.run();
 
-					cancel();
+				handle.cancel();
 
-					return;
-				}
+				return;
+			}
 
-				// Run the hit listener
-				if (entity.isOnGround()) {
-					if (!isProjectile && hitGroundListener != null)
-						hitGroundListener.run();
+			// Run the hit listener
+			if (entity.isOnGround()) {
+				if (!isProjectile && hitGroundListener != null)
+					hitGroundListener.run();
 
-					cancel();
+				handle.cancel();
 
-				} else if (flyListener != null)
-					flyListener.run();
-			}
+			} else if (flyListener != null)
+				flyListener.run();
 		});
 	}
 
@@ -244,7 +239,7 @@ class HitTracking implements Listener {
 	 * List of flying projectiles with code to run on impact,
 	 * stop tracking after 30 seconds to prevent overloading the map
 	 */
-	private static ExpiringMap<UUID, HitListener> flyingProjectiles = ExpiringMap.builder().expiration(30, TimeUnit.SECONDS).build();
+	private static ExpiringMap<UUID, HitListener> flyingProjectiles = CacheRegistry.register("flying projectiles", ExpiringMap.builder().expiration(30, TimeUnit.SECONDS).build());
 
 	/**
 	 * Invoke the hit listener when the registered projectile hits something
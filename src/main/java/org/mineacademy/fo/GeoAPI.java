@@ -10,6 +10,7 @@ import java.net.URL;
 import java.net.URLConnection;
 
 import org.mineacademy.fo.collection.StrictMap;
+import org.mineacademy.fo.debug.CacheRegistry;
 
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -25,7 +26,7 @@ public final class GeoAPI {
 	/**
 	 * The cached responses per IP addresses
 	 */
-	private static final StrictMap<String, GeoResponse> cache = new StrictMap<>();
+	private static final StrictMap<String, GeoResponse> cache = CacheRegistry.register("geo lookups", new StrictMap<>());
 
 	/**
 	 * Returns a {@link GeoResponse} with geographic data for the given IP address
@@ -15,6 +15,11 @@ import org.mineacademy.fo.plugin.SimplePlugin;
  */
 public abstract class BungeeListener implements Listener, PluginMessageListener {
 
+	/**
+	 * Prints debug messages about received BungeeCord messages
+	 */
+	private static final Debugger.Section BUNGEE_DEBUG = Debugger.section("bungee");
+
 	/**
 	 * Create a new bungee listener
 	 *
@@ -31,7 +36,7 @@ public abstract class BungeeListener implements Listener, PluginMessageListener
 		if (tag.equals(SimplePlugin.getBungee().getChannel())) {
 			final IncomingMessage message = new IncomingMessage(data);
 
-			Debugger.debug("bungee", "Channel " + message.getChannel() + " received " + message.getAction() + " message from " + message.getServerName() + " server.");
+			BUNGEE_DEBUG.debug(() -> "Channel " + message.getChannel() + " received " + message.getAction() + " message from " + message.getServerName() + " server.");
 			onMessageReceived(player, message);
 		}
 	}
@@ -19,6 +19,11 @@ import lombok.Getter;
  */
 public final class IncomingMessage extends Message {
 
+	/**
+	 * Prints debug messages about forwarded BungeeCord messages
+	 */
+	private static final Debugger.Section BUNGEE_DEBUG = Debugger.section("bungee");
+
 	/**
 	 * The raw byte array to read from
 	 */
@@ -151,6 +156,6 @@ public final class IncomingMessage extends Message {
 	public void forward(Player player) {
 		player.sendPluginMessage(SimplePlugin.getInstance(), getChannel(), data);
 
-		Debugger.debug("bungee", "Forwarding data on " + getChannel() + " channel from " + getAction() + " as " + player.getName() + " player to BungeeCord.");
+		BUNGEE_DEBUG.debug(() -> "Forwarding data on " + getChannel() + " channel from " + getAction() + " as " + player.getName() + " player to BungeeCord.");
 	}
 }
\ No newline at end of file
@@ -23,6 +23,11 @@ import com.google.common.io.ByteStreams;
  */
 public final class OutgoingMessage extends Message {
 
+	/**
+	 * Prints debug messages about sent BungeeCord messages
+	 */
+	private static final Debugger.Section BUNGEE_DEBUG = Debugger.section("bungee");
+
 	/**
 	 * The pending queue to write the message
 	 */
@@ -139,7 +144,7 @@ public final class OutgoingMessage extends Message {
 	public void send(Player player) {
 		player.sendPluginMessage(SimplePlugin.getInstance(), getChannel(), compileData());
 
-		Debugger.debug("bungee", "Sending data on " + getChannel() + " channel from " + getAction() + " as " + player.getName() + " player to BungeeCord.");
+		BUNGEE_DEBUG.debug(() -> "Sending data on " + getChannel() + " channel from " + getAction() + " as " + player.getName() + " player to BungeeCord.");
 	}
 
 	/**
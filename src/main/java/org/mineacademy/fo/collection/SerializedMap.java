@@ -3,7 +3,9 @@ package org.mineacademy.fo.collection;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -687,6 +689,22 @@ public final class SerializedMap extends StrictCollection {
 		return gson.toJson(serialize());
 	}
 
+	/**
+	 * Takes a snapshot of this map with each value converted to JSON,
+	 * you can later compare snapshots to find out which keys changed
+	 *
+	 * @return
+	 */
+	public Snapshot snapshot() {
+		final Map<String, String> values = new LinkedHashMap<>();
+
+		for (final Entry<String, Object> entry : map.entrySet())
+			if (entry.getValue() != null)
+				values.put(entry.getKey(), gson.toJson(SerializeUtil.serialize(entry.getValue())));
+
+		return new Snapshot(values);
+	}
+
 	@Override
 	public String toString() {
 		return serialize().toString();
@@ -773,4 +791,104 @@ public final class SerializedMap extends StrictCollection {
 
 		return serializedMap;
 	}
+
+	// ----------------------------------------------------------------------------------------------------
+	// Snapshots
+	// ----------------------------------------------------------------------------------------------------
+
+	/**
+	 * An immutable copy of a map where each value is stored as JSON, see {@link SerializedMap#snapshot()}
+	 */
+	public static final class Snapshot {
+
+		/**
+		 * Keys and their values as JSON
+		 */
+		private final Map<String, String> values;
+
+		/**
+		 * The whole map as JSON, built on demand
+		 */
+		private String json;
+
+		private Snapshot(final Map<String, String> values) {
+			this.values = Collections.unmodifiableMap(values);
+		}
+
+		/**
+		 * Return the keys in this snapshot
+		 *
+		 * @return
+		 */
+		public Set<String> getKeys() {
+			return values.keySet();
+		}
+
+		/**
+		 * Return the value of the given key as JSON, or null if not set
+		 *
+		 * @param key
+		 * @return
+		 */
+		public String getJson(final String key) {
+			return values.get(key);
+		}
+
+		/**
+		 * Return true if the snapshot contains no keys
+		 *
+		 * @return
+		 */
+		public boolean isEmpty() {
+			return values.isEmpty();
+		}
+
+		/**
+		 * Return keys that were added, removed or have a different value compared
+		 * to the previous snapshot. An empty set means nothing changed.
+		 *
+		 * @param previous
+		 * @return
+		 */
+		public Set<String> getChangedKeys(final Snapshot previous) {
+			final Set<String> changed = new HashSet<>();
+
+			for (final Map.Entry<String, String> entry : values.entrySet())
+				if (!entry.getValue().equals(previous.values.get(entry.getKey())))
+					changed.add(entry.getKey());
+
+			for (final String key : previous.values.keySet())
+				if (!values.containsKey(key))
+					changed.add(key);
+
+			return changed;
+		}
+
+		/**
+		 * Return the whole snapshot as JSON, same as {@link SerializedMap#toJson()}
+		 *
+		 * @return
+		 */
+		public String toJson() {
+			if (json == null) {
+				final StringBuilder builder = new StringBuilder("{");
+
+				for (final Map.Entry<String, String> entry : values.entrySet()) {
+					if (builder.length() > 1)
+						builder.append(',');
+
+					builder.append(gson.toJson(entry.getKey())).append(':').append(entry.getValue());
+				}
+
+				json = builder.append('}').toString();
+			}
+
+			return json;
+		}
+
+		@Override
+		public String toString() {
+			return toJson();
+		}
+	}
 }
@@ -0,0 +1,40 @@
+package org.mineacademy.fo.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.debug.CacheRegistry;
+
+/**
+ * A simple predefined command showing how many entries our caches hold
+ * and roughly how much memory they take using /{label} caches
+ */
+public final class CacheCommand extends SimpleSubCommand {
+
+	public CacheCommand() {
+		super("caches");
+
+		setDescription("Show how much memory caches take.");
+	}
+
+	@Override
+	protected void onCommand() {
+		final List<String> report = CacheRegistry.getReport();
+
+		tellNoPrefix("&8" + Common.chatLine());
+		tellNoPrefix("&6Cache footprint &7(estimated)");
+
+		if (report.isEmpty())
+			tellNoPrefix("&7No caches registered.");
+		else
+			tellNoPrefix(report.toArray(new String[report.size()]));
+
+		tellNoPrefix("&8" + Common.chatLine());
+	}
+
+	@Override
+	protected List<String> tabComplete() {
+		return new ArrayList<>();
+	}
+}
@@ -0,0 +1,66 @@
+package org.mineacademy.fo.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.database.QueryStatistics;
+import org.mineacademy.fo.database.SimpleDatabase;
+
+import lombok.NonNull;
+
+/**
+ * A simple predefined command showing how long database statements take
+ * using /{label} db|database [reset]
+ *
+ * Register one for each database you want to inspect.
+ */
+public final class DatabaseCommand extends SimpleSubCommand {
+
+	/**
+	 * How many statement shapes to show
+	 */
+	private static final int SHAPES_SHOWN = 8;
+
+	/**
+	 * The database to show timings for
+	 */
+	private final SimpleDatabase database;
+
+	public DatabaseCommand(@NonNull final SimpleDatabase database) {
+		this("db|database", database);
+	}
+
+	public DatabaseCommand(final String label, @NonNull final SimpleDatabase database) {
+		super(label);
+
+		this.database = database;
+
+		setDescription("Show database statement timings.");
+		setUsage("[reset]");
+	}
+
+	@Override
+	protected void onCommand() {
+		final QueryStatistics statistics = database.getQueryStatistics();
+
+		if (args.length > 0 && "reset".equalsIgnoreCase(args[0])) {
+			statistics.reset();
+
+			returnTell("Database statement timings have been reset.");
+		}
+
+		final List<String> report = statistics.getReport(SHAPES_SHOWN);
+		report.add(0, "&7Pool: &f" + database.getPoolStatus());
+
+		tellNoPrefix("&8" + Common.chatLine());
+		tellNoPrefix("&6Database statement timings");
+		tellNoPrefix(report.toArray(new String[report.size()]));
+		tellNoPrefix("&8" + Common.chatLine());
+	}
+
+	@Override
+	protected List<String> tabComplete() {
+		return args.length == 1 ? completeLastWord("reset") : new ArrayList<>();
+	}
+}
@@ -0,0 +1,65 @@
+package org.mineacademy.fo.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.debug.TickProfiler;
+
+/**
+ * A simple predefined command showing which tasks and listeners took
+ * the most time during the last minute using /{label} profile [on|off|reset]
+ */
+public final class ProfileCommand extends SimpleSubCommand {
+
+	/**
+	 * How many tasks and listeners to show
+	 */
+	private static final int ENTRIES_SHOWN = 10;
+
+	public ProfileCommand() {
+		super("profile");
+
+		setDescription("Show which tasks and listeners take the most time.");
+		setUsage("[on|off|reset]");
+	}
+
+	@Override
+	protected void onCommand() {
+		final String param = args.length > 0 ? args[0].toLowerCase() : "";
+
+		if ("on".equals(param) || "off".equals(param)) {
+			TickProfiler.setEnabled("on".equals(param));
+
+			returnTell("Profiling is now " + ("on".equals(param) ? "&aenabled&7." : "&cdisabled&7."));
+		}
+
+		if ("reset".equals(param)) {
+			TickProfiler.reset();
+
+			returnTell("Profiling results have been reset.");
+		}
+
+		checkBoolean(param.isEmpty(), "Usage: /{label} {sublabel} [on|off|reset]");
+
+		final List<String> report = TickProfiler.getReport(ENTRIES_SHOWN);
+
+		tellNoPrefix("&8" + Common.chatLine());
+		tellNoPrefix("&6Top tasks and listeners in the last minute" + (TickProfiler.isEnabled() ? "" : " &c(profiling disabled)"));
+
+		if (report.isEmpty())
+			tellNoPrefix("&7Nothing measured yet.");
+		else
+			tellNoPrefix(report.toArray(new String[report.size()]));
+
+		if (!TickProfiler.isMeasuringBukkitRunnables())
+			tellNoPrefix("&7BukkitRunnables are not measured on this server version.");
+
+		tellNoPrefix("&8" + Common.chatLine());
+	}
+
+	@Override
+	protected List<String> tabComplete() {
+		return args.length == 1 ? completeLastWord("on", "off", "reset") : new ArrayList<>();
+	}
+}
@@ -25,6 +25,7 @@ import org.mineacademy.fo.TabUtil;
 import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.collection.StrictList;
 import org.mineacademy.fo.collection.expiringmap.ExpiringMap;
+import org.mineacademy.fo.debug.CacheRegistry;
 import org.mineacademy.fo.exception.CommandException;
 import org.mineacademy.fo.exception.FoException;
 import org.mineacademy.fo.exception.InvalidCommandArgException;
@@ -65,7 +66,7 @@ public abstract class SimpleCommand extends Command {
 	 * You can set the cooldown time before executing the command again. This map
 	 * stores the player uuid and his last execution of the command.
 	 */
-	private final ExpiringMap<UUID, Long> cooldownMap = ExpiringMap.builder().expiration(30, TimeUnit.MINUTES).build();
+	private final ExpiringMap<UUID, Long> cooldownMap = CacheRegistry.register("command cooldowns", ExpiringMap.builder().expiration(30, TimeUnit.MINUTES).build());
 
 	/**
 	 * The command label, eg. boss for /boss
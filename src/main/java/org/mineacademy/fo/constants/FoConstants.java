@@ -26,6 +26,11 @@ public final class FoConstants {
 		 */
 		public static final String DEBUG = "debug.log";
 
+		/**
+		 * The slow-queries.log file to log slow database queries to
+		 */
+		public static final String SLOW_QUERIES = "slow-queries.log";
+
 		/**
 		 * The data.db file (uses YAML) for saving various data
 		 */
@@ -0,0 +1,254 @@
+package org.mineacademy.fo.database;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.mineacademy.fo.collection.SerializedMap;
+import org.mineacademy.fo.collection.expiringmap.ExpiringMap;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A size and time limited cache of data loaded by {@link SimpleFlatDatabase},
+ * least recently used entries are evicted first
+ *
+ * Data is kept parsed and copied on each hit, so nested maps and lists
+ * changed by the caller never leak into the cache.
+ *
+ * Each unique ID has a generation that changes when its data is invalidated,
+ * loads capture it before reading and are not cached if it changed meanwhile.
+ */
+final class DataCache {
+
+	/**
+	 * Cached data by unique ID in access order
+	 */
+	private final LinkedHashMap<UUID, CachedData> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+	/**
+	 * The generation of each unique ID invalidated recently, loads do not take
+	 * nearly as long so older ones are forgotten
+	 */
+	private final Map<UUID, Long> generations = ExpiringMap.builder().expiration(1, TimeUnit.HOURS).build();
+
+	/**
+	 * The last generation given out, so that a forgotten one is never reused
+	 */
+	private long lastGeneration = 0;
+
+	/**
+	 * How many entries to keep at most
+	 */
+	private final int maximumSize;
+
+	/**
+	 * How long entries stay valid after they were cached
+	 */
+	private final long ttlMillis;
+
+	/**
+	 * How many times cached data was returned
+	 */
+	@Getter
+	private volatile long hits = 0;
+
+	/**
+	 * How many times no valid data was cached
+	 */
+	@Getter
+	private volatile long misses = 0;
+
+	/**
+	 * How many entries were removed because the cache was full or they expired
+	 */
+	@Getter
+	private volatile long evictions = 0;
+
+	/**
+	 * Create a new cache
+	 *
+	 * @param maximumSize
+	 * @param ttlMillis
+	 */
+	DataCache(final int maximumSize, final long ttlMillis) {
+		this.maximumSize = Math.max(1, maximumSize);
+		this.ttlMillis = ttlMillis;
+	}
+
+	/**
+	 * Return a copy of the cached data, or null if not cached or expired
+	 *
+	 * @param uuid
+	 * @return
+	 */
+	SerializedMap get(final UUID uuid) {
+		final Map<String, Object> values;
+
+		synchronized (this) {
+			final CachedData cached = entries.get(uuid);
+
+			if (cached == null) {
+				misses++;
+
+				return null;
+			}
+
+			if (isExpired(cached, System.currentTimeMillis())) {
+				entries.remove(uuid);
+
+				evictions++;
+				misses++;
+
+				return null;
+			}
+
+			hits++;
+			values = cached.values;
+		}
+
+		return SerializedMap.of(copy(values));
+	}
+
+	/**
+	 * Return the current generation of the given unique ID, capture it before
+	 * reading the data and pass it to {@link #put(UUID, SerializedMap, long)}
+	 *
+	 * @param uuid
+	 * @return
+	 */
+	synchronized long getGeneration(final UUID uuid) {
+		final Long generation = generations.get(uuid);
+
+		return generation != null ? generation : 0;
+	}
+
+	/**
+	 * Cache a copy of the data as it was loaded, evicting the least recently used entries if full
+	 *
+	 * Nothing is cached if the data was invalidated since the generation was captured
+	 *
+	 * @param uuid
+	 * @param data
+	 * @param generation
+	 */
+	void put(final UUID uuid, final SerializedMap data, final long generation) {
+		final Map<String, Object> values = copy(data.asMap());
+
+		synchronized (this) {
+			if (generation != getGeneration(uuid))
+				return;
+
+			entries.put(uuid, new CachedData(values, System.currentTimeMillis()));
+			evictOverflow();
+		}
+	}
+
+	/*
+	 * Remove entries over the maximum size
+	 */
+	private void evictOverflow() {
+		if (entries.size() <= maximumSize)
+			return;
+
+		final long now = System.currentTimeMillis();
+
+		// Drop expired entries first, then the least recently used ones
+		for (final Iterator<CachedData> it = entries.values().iterator(); it.hasNext() && entries.size() > maximumSize;) {
+			final CachedData cached = it.next();
+
+			if (isExpired(cached, now)) {
+				it.remove();
+
+				evictions++;
+			}
+		}
+
+		for (final Iterator<UUID> it = entries.keySet().iterator(); it.hasNext() && entries.size() > maximumSize;) {
+			it.next();
+			it.remove();
+
+			evictions++;
+		}
+	}
+
+	/**
+	 * Remove the data for the given unique ID and start its new generation,
+	 * so that loads already reading the old data do not cache it
+	 *
+	 * @param uuid
+	 */
+	synchronized void invalidate(final UUID uuid) {
+		entries.remove(uuid);
+		generations.put(uuid, ++lastGeneration);
+	}
+
+	/**
+	 * Return how many entries are cached, including expired ones not yet removed
+	 *
+	 * @return
+	 */
+	synchronized int size() {
+		return entries.size();
+	}
+
+	/*
+	 * Copy the nested maps and lists parsed from JSON, other values are immutable
+	 */
+	@SuppressWarnings("unchecked")
+	private static <V> V copy(final V value) {
+		if (value instanceof Map) {
+			final Map<String, Object> copied = new LinkedHashMap<>();
+
+			for (final Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet())
+				copied.put(entry.getKey(), copy(entry.getValue()));
+
+			return (V) copied;
+		}
+
+		if (value instanceof List) {
+			final List<Object> copied = new ArrayList<>();
+
+			for (final Object element : (List<Object>) value)
+				copied.add(copy(element));
+
+			return (V) copied;
+		}
+
+		return value;
+	}
+
+	/*
+	 * Is the cached data too old?
+	 */
+	private boolean isExpired(final CachedData cached, final long now) {
+		return ttlMillis > 0 && now - cached.cachedAt > ttlMillis;
+	}
+
+	/**
+	 * The cached data and when it was cached
+	 */
+	@RequiredArgsConstructor
+	private static final class CachedData {
+
+		/**
+		 * The parsed data, never given out directly
+		 */
+		private final Map<String, Object> values;
+
+		/**
+		 * When the data was cached
+		 */
+		private final long cachedAt;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "DataCache{size=" + entries.size() + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "}";
+	}
+}
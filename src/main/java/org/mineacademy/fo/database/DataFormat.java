@@ -0,0 +1,121 @@
+package org.mineacademy.fo.database;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.mineacademy.fo.exception.FoException;
+
+/**
+ * How {@link SimpleFlatDatabase} stores the data column
+ *
+ * Reading always detects the format automatically, so you can switch the
+ * format at any time and existing rows are converted on their next save.
+ */
+public enum DataFormat {
+
+	/**
+	 * Plain JSON encoded as UTF-8, readable with any SQL client
+	 */
+	JSON,
+
+	/**
+	 * JSON compressed with deflate, prefixed with {@link #DEFLATE_HEADER}
+	 */
+	DEFLATE;
+
+	/**
+	 * The bytes every compressed value starts with. JSON always
+	 * starts with a bracket so this cannot be confused with it.
+	 */
+	private static final byte[] DEFLATE_HEADER = { 0, 'F', 'D', 1 };
+
+	/**
+	 * Convert the JSON into bytes of this format
+	 *
+	 * @param json
+	 * @return
+	 */
+	public byte[] encode(final String json) {
+		final byte[] raw = json.getBytes(StandardCharsets.UTF_8);
+
+		if (this == JSON)
+			return raw;
+
+		final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+		try {
+			deflater.setInput(raw);
+			deflater.finish();
+
+			final ByteArrayOutputStream output = new ByteArrayOutputStream(raw.length / 4 + DEFLATE_HEADER.length + 16);
+			final byte[] buffer = new byte[4096];
+
+			output.write(DEFLATE_HEADER, 0, DEFLATE_HEADER.length);
+
+			while (!deflater.finished())
+				output.write(buffer, 0, deflater.deflate(buffer));
+
+			return output.toByteArray();
+
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Convert the stored bytes in any format back to JSON
+	 *
+	 * @param data the bytes, or null
+	 * @return the JSON, or "{}" if the data is null or empty
+	 */
+	public static String decode(final byte[] data) {
+		if (data == null || data.length == 0)
+			return "{}";
+
+		if (!isCompressed(data))
+			return new String(data, StandardCharsets.UTF_8);
+
+		final Inflater inflater = new Inflater();
+
+		try {
+			inflater.setInput(data, DEFLATE_HEADER.length, data.length - DEFLATE_HEADER.length);
+
+			final ByteArrayOutputStream output = new ByteArrayOutputStream(data.length * 4);
+			final byte[] buffer = new byte[4096];
+
+			while (!inflater.finished()) {
+				final int read = inflater.inflate(buffer);
+
+				if (read == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+					throw new FoException("Compressed data is truncated (" + data.length + " bytes)");
+
+				output.write(buffer, 0, read);
+			}
+
+			return new String(output.toByteArray(), StandardCharsets.UTF_8);
+
+		} catch (final DataFormatException ex) {
+			throw new FoException(ex, "Compressed data is corrupted (" + data.length + " bytes)");
+
+		} finally {
+			inflater.end();
+		}
+	}
+
+	/*
+	 * Does the data start with our compression header?
+	 */
+	private static boolean isCompressed(final byte[] data) {
+		if (data.length < DEFLATE_HEADER.length)
+			return false;
+
+		for (int i = 0; i < DEFLATE_HEADER.length; i++)
+			if (data[i] != DEFLATE_HEADER[i])
+				return false;
+
+		return true;
+	}
+}
@@ -0,0 +1,102 @@
+package org.mineacademy.fo.database;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Stores the data of a {@link SimpleFlatDatabase} somewhere else than in SQL,
+ * connect the database using {@link SimpleFlatDatabase#connect(FlatStorage)}.
+ *
+ * The database takes care of queueing, batching and caching saves, so
+ * implementations only need to read and write rows. Methods may be called
+ * from different threads, but writes always come from one thread.
+ *
+ * See {@link LocalFlatStorage} for a fast embedded implementation.
+ */
+public interface FlatStorage {
+
+	/**
+	 * Open the storage, called once when the database connects
+	 *
+	 * @throws IOException
+	 */
+	void open() throws IOException;
+
+	/**
+	 * Return true if the storage is open
+	 *
+	 * @return
+	 */
+	boolean isOpen();
+
+	/**
+	 * Return the data as JSON for the given unique IDs, leaving out those not stored
+	 *
+	 * @param uniqueIds
+	 * @return
+	 * @throws IOException
+	 */
+	Map<UUID, String> load(Collection<UUID> uniqueIds) throws IOException;
+
+	/**
+	 * Write the given rows, all of them should be persisted or none
+	 *
+	 * @param rows
+	 * @throws IOException
+	 */
+	void write(List<Row> rows) throws IOException;
+
+	/**
+	 * Remove at most the given amount of rows last updated before the threshold
+	 *
+	 * @param threshold the time in milliseconds
+	 * @param limit
+	 * @return how many rows were removed, if less than the limit we assume none are left
+	 * @throws IOException
+	 */
+	int removeOlderThan(long threshold, int limit) throws IOException;
+
+	/**
+	 * Close the storage, called after all pending saves have been written
+	 *
+	 * @throws IOException
+	 */
+	void close() throws IOException;
+
+	/**
+	 * Represents a row to write
+	 */
+	@Getter
+	@RequiredArgsConstructor
+	final class Row {
+
+		/**
+		 * The unique ID of the row
+		 */
+		private final UUID uniqueId;
+
+		/**
+		 * The last known name
+		 */
+		private final String name;
+
+		/**
+		 * The data as JSON, or null to remove the row
+		 */
+		@Nullable
+		private final String json;
+
+		/**
+		 * When the save was called
+		 */
+		private final long updated;
+	}
+}
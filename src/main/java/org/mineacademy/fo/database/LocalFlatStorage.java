@@ -0,0 +1,815 @@
+package org.mineacademy.fo.database;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.MathUtil;
+import org.mineacademy.fo.Valid;
+import org.mineacademy.fo.collection.expiringmap.NamedThreadFactory;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A {@link FlatStorage} keeping rows in a single local file, for servers without MySQL
+ *
+ * Every save is appended to the end of the file and an in-memory index remembers
+ * where the latest version of each row starts, so loading a row is a single read.
+ * Outdated versions are removed by rewriting the file in the background once they
+ * take more space than the live rows. Each record has a checksum, a record torn
+ * by a crash is discarded when the file is opened.
+ *
+ * The file must only be used by one server at a time.
+ */
+public final class LocalFlatStorage implements FlatStorage {
+
+	/**
+	 * The bytes the file starts with, "FOLS"
+	 */
+	private static final int MAGIC = 0x464F4C53;
+
+	/**
+	 * The file format version
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * The size of the file header, magic and version
+	 */
+	private static final int FILE_HEADER_SIZE = 8;
+
+	/**
+	 * The size of each record header, payload length and checksum
+	 */
+	private static final int RECORD_HEADER_SIZE = 8;
+
+	/**
+	 * Records larger than this are considered corrupted
+	 */
+	private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+	/**
+	 * Record types
+	 */
+	private static final byte TYPE_PUT = 1;
+	private static final byte TYPE_REMOVE = 2;
+
+	/**
+	 * Only compact when at least this many bytes are outdated
+	 */
+	private static final long MIN_COMPACT_GARBAGE = 1024 * 1024;
+
+	/**
+	 * How often to check if the file needs compacting when not syncing periodically
+	 */
+	private static final long HOUSEKEEPING_INTERVAL_MILLIS = 5000;
+
+	/**
+	 * The file with rows
+	 */
+	@Getter
+	private final File file;
+
+	/**
+	 * The format data is written in
+	 */
+	private final DataFormat format;
+
+	/**
+	 * How often to sync writes to the disk, or 0 to sync after each write
+	 */
+	private final long syncIntervalMillis;
+
+	/**
+	 * Where the latest record for each unique ID is stored
+	 */
+	private final Map<UUID, Location> index = new HashMap<>();
+
+	/**
+	 * Reads share the lock, writes and compaction need it exclusively
+	 */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Only one compaction may run at a time
+	 */
+	private final Object compactLock = new Object();
+
+	/**
+	 * The open file, or null if closed
+	 */
+	private volatile FileChannel channel;
+
+	/**
+	 * Is the storage open? Only changed by {@link #open()} and {@link #close()},
+	 * the channel is replaced while compacting
+	 */
+	private volatile boolean open = false;
+
+	/**
+	 * Syncs and compacts the file in the background
+	 */
+	private ScheduledExecutorService housekeeper;
+
+	/**
+	 * The size of the file, new records are written here
+	 */
+	private long size;
+
+	/**
+	 * How many bytes the records in the index take
+	 */
+	private long liveBytes;
+
+	/**
+	 * Were records written and not synced yet?
+	 */
+	private boolean dirty = false;
+
+	/**
+	 * How many times the file was compacted
+	 */
+	@Getter
+	private volatile long compactions = 0;
+
+	/**
+	 * Create a new storage in the given file, compressing data and syncing after each write
+	 *
+	 * @param file
+	 */
+	public LocalFlatStorage(final File file) {
+		this(file, DataFormat.DEFLATE, 0);
+	}
+
+	/**
+	 * Create a new storage in the given file
+	 *
+	 * @param file
+	 * @param format how to write the data
+	 * @param syncIntervalMillis how often to sync writes to the disk, 0 to sync after each write.
+	 * 		  Higher values are faster but the last writes may be lost if the machine crashes.
+	 */
+	public LocalFlatStorage(@NonNull final File file, @NonNull final DataFormat format, final long syncIntervalMillis) {
+		Valid.checkBoolean(syncIntervalMillis >= 0, "Sync interval cannot be negative");
+
+		this.file = file;
+		this.format = format;
+		this.syncIntervalMillis = syncIntervalMillis;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Opening and closing
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * @see org.mineacademy.fo.database.FlatStorage#open()
+	 */
+	@Override
+	public void open() throws IOException {
+		lock.writeLock().lock();
+
+		try {
+			Valid.checkBoolean(channel == null, "Storage " + file + " is already open");
+
+			final File parent = file.getAbsoluteFile().getParentFile();
+
+			if (parent != null && !parent.exists())
+				parent.mkdirs();
+
+			final long startTime = System.nanoTime();
+
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+			try {
+				if (channel.size() == 0) {
+					writeHeader(channel);
+
+					size = FILE_HEADER_SIZE;
+
+				} else {
+					checkHeader();
+					replay();
+				}
+
+			} catch (final IOException | RuntimeException ex) {
+				channel.close();
+				channel = null;
+
+				throw ex;
+			}
+
+			SimpleDatabase.MYSQL_DEBUG.debug(() -> "Opened " + file + " with " + index.size() + " rows in " + MathUtil.formatTwoDigits((System.nanoTime() - startTime) / 1_000_000D) + " ms");
+
+			final long interval = syncIntervalMillis > 0 ? syncIntervalMillis : HOUSEKEEPING_INTERVAL_MILLIS;
+
+			housekeeper = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("Foundation Local Storage %d"));
+			housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval, TimeUnit.MILLISECONDS);
+
+			open = true;
+
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @see org.mineacademy.fo.database.FlatStorage#isOpen()
+	 */
+	@Override
+	public boolean isOpen() {
+		return open;
+	}
+
+	/**
+	 * @see org.mineacademy.fo.database.FlatStorage#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		lock.writeLock().lock();
+
+		try {
+			open = false;
+
+			if (housekeeper != null) {
+				housekeeper.shutdownNow();
+				housekeeper = null;
+			}
+
+			if (channel != null) {
+				channel.force(true);
+				channel.close();
+				channel = null;
+			}
+
+			index.clear();
+			liveBytes = 0;
+			size = 0;
+
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*
+	 * Check the file is ours and in a version we can read
+	 */
+	private void checkHeader() throws IOException {
+		final ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+		readFully(header, 0);
+
+		if (header.getInt(0) != MAGIC)
+			throw new IOException(file + " is not a local storage file");
+
+		if (header.getInt(4) > VERSION)
+			throw new IOException(file + " has version " + header.getInt(4) + " which is newer than supported " + VERSION);
+	}
+
+	/*
+	 * Read all records to build the index, cutting off a torn or corrupted end of the file
+	 */
+	private void replay() throws IOException {
+		final long fileSize = channel.size();
+		final CRC32 checksum = new CRC32();
+
+		long position = FILE_HEADER_SIZE;
+		channel.position(position);
+
+		// Do not close, that would close the channel as well
+		final DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024));
+
+		while (position + RECORD_HEADER_SIZE <= fileSize) {
+			final int length;
+			final int expectedChecksum;
+			final byte[] payload;
+
+			try {
+				length = input.readInt();
+				expectedChecksum = input.readInt();
+
+				if (length <= 0 || length > MAX_RECORD_SIZE || position + RECORD_HEADER_SIZE + length > fileSize)
+					break;
+
+				payload = new byte[length];
+				input.readFully(payload);
+
+			} catch (final EOFException ex) {
+				break;
+			}
+
+			checksum.reset();
+			checksum.update(payload);
+
+			if ((int) checksum.getValue() != expectedChecksum)
+				break;
+
+			final ByteBuffer buffer = ByteBuffer.wrap(payload);
+			final byte type = buffer.get();
+			final UUID uniqueId = new UUID(buffer.getLong(), buffer.getLong());
+			final long updated = buffer.getLong();
+			final int recordSize = RECORD_HEADER_SIZE + length;
+
+			if (type == TYPE_PUT)
+				track(uniqueId, new Location(position, recordSize, updated));
+
+			else
+				track(uniqueId, null);
+
+			position += recordSize;
+		}
+
+		if (position < fileSize) {
+			Common.log("Discarding " + (fileSize - position) + " corrupted bytes at the end of " + file + ", the last saves before a crash may have been lost.");
+
+			channel.truncate(position);
+			channel.force(true);
+		}
+
+		size = position;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Reading and writing
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * @see org.mineacademy.fo.database.FlatStorage#load(java.util.Collection)
+	 */
+	@Override
+	public Map<UUID, String> load(final Collection<UUID> uniqueIds) throws IOException {
+		final Map<UUID, String> rows = new HashMap<>();
+
+		lock.readLock().lock();
+
+		try {
+			checkOpen();
+
+			for (final UUID uniqueId : uniqueIds) {
+				final Location location = index.get(uniqueId);
+
+				if (location != null)
+					rows.put(uniqueId, readData(location));
+			}
+
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		return rows;
+	}
+
+	/*
+	 * Read the data of the record at the given location
+	 */
+	private String readData(final Location location) throws IOException {
+		final ByteBuffer record = ByteBuffer.allocate(location.size);
+		readFully(record, location.offset);
+
+		// Skip the headers, type, unique ID, updated time and name
+		record.position(RECORD_HEADER_SIZE + 1 + 16 + 8);
+
+		final int nameLength = record.getShort();
+		record.position(record.position() + nameLength);
+
+		final byte[] data = new byte[record.getInt()];
+		record.get(data);
+
+		return DataFormat.decode(data);
+	}
+
+	/**
+	 * @see org.mineacademy.fo.database.FlatStorage#write(java.util.List)
+	 */
+	@Override
+	public void write(final List<Row> rows) throws IOException {
+		if (rows.isEmpty())
+			return;
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows.size() * 512);
+		final DataOutputStream output = new DataOutputStream(bytes);
+		final CRC32 checksum = new CRC32();
+		final int[] sizes = new int[rows.size()];
+
+		for (int i = 0; i < rows.size(); i++) {
+			final byte[] payload = encode(rows.get(i));
+
+			checksum.reset();
+			checksum.update(payload);
+
+			output.writeInt(payload.length);
+			output.writeInt((int) checksum.getValue());
+			output.write(payload);
+
+			sizes[i] = RECORD_HEADER_SIZE + payload.length;
+		}
+
+		lock.writeLock().lock();
+
+		try {
+			checkOpen();
+
+			final ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+			long position = size;
+
+			while (buffer.hasRemaining())
+				position += channel.write(buffer, position);
+
+			if (syncIntervalMillis == 0)
+				channel.force(false);
+			else
+				dirty = true;
+
+			// Only update the index once everything is written
+			long offset = size;
+
+			for (int i = 0; i < rows.size(); i++) {
+				final Row row = rows.get(i);
+
+				track(row.getUniqueId(), row.getJson() != null ? new Location(offset, sizes[i], row.getUpdated()) : null);
+				offset += sizes[i];
+			}
+
+			size = position;
+
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*
+	 * Convert the row into the record payload
+	 */
+	private byte[] encode(final Row row) throws IOException {
+		final byte[] name = row.getJson() != null && row.getName() != null ? row.getName().getBytes(StandardCharsets.UTF_8) : new byte[0];
+		final byte[] data = row.getJson() != null ? format.encode(row.getJson()) : new byte[0];
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 + 16 + 8 + 2 + name.length + 4 + data.length);
+		final DataOutputStream output = new DataOutputStream(bytes);
+
+		output.writeByte(row.getJson() != null ? TYPE_PUT : TYPE_REMOVE);
+		output.writeLong(row.getUniqueId().getMostSignificantBits());
+		output.writeLong(row.getUniqueId().getLeastSignificantBits());
+		output.writeLong(row.getUpdated());
+
+		if (row.getJson() != null) {
+			output.writeShort(Math.min(name.length, Short.MAX_VALUE));
+			output.write(name, 0, Math.min(name.length, Short.MAX_VALUE));
+			output.writeInt(data.length);
+			output.write(data);
+		}
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * @see org.mineacademy.fo.database.FlatStorage#removeOlderThan(long, int)
+	 */
+	@Override
+	public int removeOlderThan(final long threshold, final int limit) throws IOException {
+		lock.writeLock().lock();
+
+		try {
+			checkOpen();
+
+			final List<Row> removals = new ArrayList<>();
+			final long now = System.currentTimeMillis();
+
+			for (final Map.Entry<UUID, Location> entry : index.entrySet()) {
+				if (removals.size() >= limit)
+					break;
+
+				if (entry.getValue().updated < threshold)
+					removals.add(new Row(entry.getKey(), null, null, now));
+			}
+
+			write(removals);
+
+			return removals.size();
+
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/*
+	 * Update the index with the latest record for the unique ID, or null if it was removed
+	 */
+	private void track(final UUID uniqueId, final Location location) {
+		final Location previous = location != null ? index.put(uniqueId, location) : index.remove(uniqueId);
+
+		if (previous != null)
+			liveBytes -= previous.size;
+
+		if (location != null)
+			liveBytes += location.size;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Maintenance
+	// ------------------------------------------------------------------------------------------------------------
+
+	/*
+	 * Sync pending writes and compact the file if needed, called periodically
+	 */
+	private void housekeep() {
+		try {
+			final boolean needsCompacting;
+
+			lock.writeLock().lock();
+
+			try {
+				if (!open)
+					return;
+
+				if (dirty) {
+					channel.force(false);
+
+					dirty = false;
+				}
+
+				final long garbage = size - FILE_HEADER_SIZE - liveBytes;
+
+				needsCompacting = garbage >= MIN_COMPACT_GARBAGE && garbage > liveBytes;
+
+			} finally {
+				lock.writeLock().unlock();
+			}
+
+			if (needsCompacting)
+				compact();
+
+		} catch (final Throwable t) {
+			Common.error(t, "Failed to maintain local storage " + file);
+		}
+	}
+
+	/**
+	 * Rewrite the file with only the latest record for each unique ID.
+	 *
+	 * Live records are copied while loads continue and saves wait. Only copying
+	 * the records saved meanwhile and swapping the files blocks loads as well.
+	 *
+	 * @throws IOException
+	 */
+	public void compact() throws IOException {
+		synchronized (compactLock) {
+			final long startTime = System.nanoTime();
+			final File temporary = new File(file.getPath() + ".compact");
+
+			try (FileChannel output = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				final Map<UUID, Location> moved = new HashMap<>();
+				final long snapshotSize;
+				long position = FILE_HEADER_SIZE;
+
+				writeHeader(output);
+
+				lock.readLock().lock();
+
+				try {
+					checkOpen();
+
+					snapshotSize = size;
+
+					// Copy in file order so that reading is sequential
+					final List<Map.Entry<UUID, Location>> entries = new ArrayList<>(index.entrySet());
+					entries.sort((first, second) -> Long.compare(first.getValue().offset, second.getValue().offset));
+
+					for (final Map.Entry<UUID, Location> entry : entries) {
+						final Location location = entry.getValue();
+
+						transfer(location.offset, location.size, output);
+
+						moved.put(entry.getKey(), new Location(position, location.size, location.updated));
+						position += location.size;
+					}
+
+				} finally {
+					lock.readLock().unlock();
+				}
+
+				lock.writeLock().lock();
+
+				try {
+					checkOpen();
+
+					final long oldSize = size;
+					final long tailStart = position;
+
+					// Copy all records written meanwhile as they are, so removals replay too
+					transfer(snapshotSize, oldSize - snapshotSize, output);
+
+					output.force(true);
+					output.close();
+
+					// Rows not saved meanwhile are where we copied them, the rest moved with the tail
+					final Map<UUID, Location> compacted = new HashMap<>(index.size());
+
+					for (final Map.Entry<UUID, Location> entry : index.entrySet()) {
+						final Location location = entry.getValue();
+						final Location newLocation = location.offset < snapshotSize ? moved.get(entry.getKey()) : new Location(tailStart + location.offset - snapshotSize, location.size, location.updated);
+
+						if (newLocation == null)
+							throw new IOException("Storage " + file + " was reopened while compacting");
+
+						compacted.put(entry.getKey(), newLocation);
+					}
+
+					replaceFile(temporary);
+
+					index.clear();
+					index.putAll(compacted);
+
+					size = tailStart + oldSize - snapshotSize;
+					dirty = false;
+					compactions++;
+
+					final long newSize = size;
+
+					SimpleDatabase.MYSQL_DEBUG.debug(() -> "Compacted " + file + " from " + oldSize / 1024 + " kB to " + newSize / 1024 + " kB in " + MathUtil.formatTwoDigits((System.nanoTime() - startTime) / 1_000_000D) + " ms");
+
+				} finally {
+					lock.writeLock().unlock();
+				}
+
+			} catch (final IOException | RuntimeException ex) {
+				temporary.delete();
+
+				throw ex;
+			}
+		}
+	}
+
+	/*
+	 * Copy the bytes at the given position of our file to the end of the output
+	 */
+	private void transfer(final long position, final long length, final FileChannel output) throws IOException {
+		long copied = 0;
+
+		while (copied < length)
+			copied += channel.transferTo(position + copied, length - copied, output);
+	}
+
+	/*
+	 * Replace our file with the compacted one, keeping the old channel open until the new one is
+	 */
+	private void replaceFile(final File temporary) throws IOException {
+		final FileChannel previous = channel;
+
+		try {
+			moveOver(temporary);
+
+		} catch (final IOException ex) {
+
+			// Some systems cannot replace an open file, close it first and reopen what is there afterwards
+			previous.close();
+
+			try {
+				moveOver(temporary);
+
+			} finally {
+				channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+			}
+
+			return;
+		}
+
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+		previous.close();
+	}
+
+	/*
+	 * Move the file over ours, atomically if supported
+	 */
+	private void moveOver(final File temporary) throws IOException {
+		try {
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		} catch (final AtomicMoveNotSupportedException ex) {
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Utility
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Return how many rows are stored
+	 *
+	 * @return
+	 */
+	public int getRows() {
+		lock.readLock().lock();
+
+		try {
+			return index.size();
+
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Return the size of the file in bytes
+	 *
+	 * @return
+	 */
+	public long getFileSize() {
+		lock.readLock().lock();
+
+		try {
+			return size;
+
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/*
+	 * Throw an error if the storage is not open
+	 */
+	private void checkOpen() throws IOException {
+		if (!open)
+			throw new IOException("Storage " + file + " is not open");
+	}
+
+	/*
+	 * Fill the buffer from the file at the given position
+	 */
+	private void readFully(final ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			final int read = channel.read(buffer, position);
+
+			if (read < 0)
+				throw new EOFException("Unexpected end of " + file + " at " + position);
+
+			position += read;
+		}
+	}
+
+	/*
+	 * Write our file header at the start of the channel
+	 */
+	private static void writeHeader(final FileChannel channel) throws IOException {
+		final ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+
+		header.putInt(MAGIC).putInt(VERSION).flip();
+
+		long position = 0;
+
+		while (header.hasRemaining())
+			position += channel.write(header, position);
+	}
+
+	@Override
+	public String toString() {
+		return "LocalFlatStorage{file=" + file + ", rows=" + index.size() + ", size=" + size + "}";
+	}
+
+	/**
+	 * Where the latest record for a unique ID is stored
+	 */
+	@RequiredArgsConstructor
+	private static final class Location {
+
+		/**
+		 * Where the record starts in the file
+		 */
+		private final long offset;
+
+		/**
+		 * The size of the record including its header
+		 */
+		private final int size;
+
+		/**
+		 * When the row was saved
+		 */
+		private final long updated;
+	}
+}
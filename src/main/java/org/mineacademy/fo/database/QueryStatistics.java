@@ -0,0 +1,272 @@
+package org.mineacademy.fo.database;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.mineacademy.fo.MathUtil;
+import org.mineacademy.fo.constants.FoConstants;
+import org.mineacademy.fo.debug.LatencyHistogram;
+import org.mineacademy.fo.debug.LogWriter;
+import org.mineacademy.fo.plugin.SimplePlugin;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Timings of all statements run through a {@link SimpleDatabase}
+ *
+ * Statements are grouped by their shape, the SQL with literals and
+ * parameter lists replaced, and each shape has its own {@link LatencyHistogram}.
+ * How long we waited for a connection from the pool is tracked separately.
+ * Statements slower than the threshold are written to
+ * {@link FoConstants.File#SLOW_QUERIES} together with their parameters.
+ */
+public final class QueryStatistics {
+
+	/**
+	 * How many different shapes we track, others are counted together
+	 */
+	private static final int MAX_SHAPES = 256;
+
+	/**
+	 * The shape for statements over {@link #MAX_SHAPES}
+	 */
+	private static final String OTHER_SHAPE = "(other statements)";
+
+	/**
+	 * Patterns used to normalize SQL into shapes
+	 */
+	private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+	private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+	private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	/**
+	 * Histograms by statement shape
+	 */
+	private final Map<String, LatencyHistogram> shapes = new ConcurrentHashMap<>();
+
+	/**
+	 * Shapes by the original SQL
+	 */
+	private final Map<String, String> normalizedSql = new ConcurrentHashMap<>();
+
+	/**
+	 * How long we waited for a connection from the pool
+	 */
+	@Getter
+	private final LatencyHistogram connectionWait = new LatencyHistogram();
+
+	/**
+	 * Statements taking longer than this many milliseconds are logged, -1 to disable
+	 */
+	@Getter
+	private volatile long slowThresholdMillis;
+
+	/**
+	 * How many slow statements were logged, recorded from many threads at once
+	 */
+	private final AtomicLong slowStatements = new AtomicLong();
+
+	/**
+	 * Create new statistics
+	 *
+	 * @param slowThresholdMillis statements taking longer than this are logged, -1 to disable
+	 */
+	QueryStatistics(final long slowThresholdMillis) {
+		this.slowThresholdMillis = slowThresholdMillis;
+	}
+
+	/**
+	 * Set the threshold for logging slow statements, -1 to disable
+	 *
+	 * @param slowThresholdMillis
+	 */
+	void setSlowThresholdMillis(final long slowThresholdMillis) {
+		this.slowThresholdMillis = slowThresholdMillis;
+	}
+
+	/**
+	 * Record how long we waited to borrow a connection
+	 *
+	 * @param nanos
+	 */
+	void recordWait(final long nanos) {
+		connectionWait.record(nanos);
+	}
+
+	/**
+	 * Record how long a statement took, logging it if it was slow
+	 *
+	 * @param sql the SQL, or null if not known
+	 * @param nanos
+	 * @param params the bound parameters, or null
+	 * @param paramCount how many of the parameters were bound
+	 * @param batchSize how many rows were executed in a batch, 0 if not a batch
+	 */
+	void record(final String sql, final long nanos, final Object[] params, final int paramCount, final int batchSize) {
+		final String shape = sql != null ? normalize(sql) : OTHER_SHAPE;
+		LatencyHistogram histogram = shapes.get(shape);
+
+		if (histogram == null)
+			histogram = shapes.size() < MAX_SHAPES ? shapes.computeIfAbsent(shape, key -> new LatencyHistogram()) : shapes.computeIfAbsent(OTHER_SHAPE, key -> new LatencyHistogram());
+
+		histogram.record(nanos);
+
+		final long threshold = slowThresholdMillis;
+
+		if (threshold >= 0 && nanos / 1_000_000 > threshold) {
+			slowStatements.incrementAndGet();
+
+			logSlow(sql, nanos, params, paramCount, batchSize);
+		}
+	}
+
+	/*
+	 * Write the slow statement to the log in the background
+	 */
+	private void logSlow(final String sql, final long nanos, final Object[] params, final int paramCount, final int batchSize) {
+		if (!SimplePlugin.hasInstance())
+			return;
+
+		final String line = MathUtil.formatTwoDigits(nanos / 1_000_000D) + " ms"
+				+ (batchSize > 0 ? " (batch of " + batchSize + ")" : "")
+				+ " | " + (sql != null ? WHITESPACE.matcher(sql).replaceAll(" ").trim() : "unknown")
+				+ (params != null && paramCount > 0 ? " | params: " + formatParams(params, paramCount) : "");
+
+		LogWriter.writeFormatted(FoConstants.File.SLOW_QUERIES, null, line);
+	}
+
+	/*
+	 * Return the parameters readable, shortening long values
+	 */
+	private static String formatParams(final Object[] params, final int count) {
+		final List<String> formatted = new ArrayList<>(count);
+
+		for (int i = 0; i < count && i < params.length; i++) {
+			final Object param = params[i];
+
+			if (param instanceof byte[])
+				formatted.add("<" + ((byte[]) param).length + " bytes>");
+
+			else if (param instanceof String && ((String) param).length() > 100)
+				formatted.add("'" + ((String) param).substring(0, 100) + "...'");
+
+			else if (param instanceof String)
+				formatted.add("'" + param + "'");
+
+			else
+				formatted.add(String.valueOf(param));
+		}
+
+		return formatted.toString();
+	}
+
+	/**
+	 * Return the shape of the SQL, with literals replaced by ? and lists
+	 * of parameters collapsed so that they do not create separate shapes
+	 *
+	 * @param sql
+	 * @return
+	 */
+	public String normalize(final String sql) {
+		String shape = normalizedSql.get(sql);
+
+		if (shape == null) {
+			shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+			shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+			shape = PARAMETER_LIST.matcher(shape).replaceAll("(?...)");
+			shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+
+			// Prevent dynamic SQL from growing the cache forever
+			if (normalizedSql.size() >= 1024)
+				normalizedSql.clear();
+
+			normalizedSql.put(sql, shape);
+		}
+
+		return shape;
+	}
+
+	/**
+	 * Return how many slow statements were logged
+	 *
+	 * @return
+	 */
+	public long getSlowStatements() {
+		return slowStatements.get();
+	}
+
+	/**
+	 * Return the timings of all statement shapes, those taking the most time in total first
+	 *
+	 * @return
+	 */
+	public List<ShapeTimings> getShapes() {
+		final List<ShapeTimings> list = new ArrayList<>();
+
+		for (final Map.Entry<String, LatencyHistogram> entry : shapes.entrySet())
+			list.add(new ShapeTimings(entry.getKey(), entry.getValue()));
+
+		list.sort((first, second) -> Double.compare(second.getHistogram().getTotalMillis(), first.getHistogram().getTotalMillis()));
+
+		return list;
+	}
+
+	/**
+	 * Return readable lines with connection waiting and the given amount of shapes
+	 * taking the most time in total
+	 *
+	 * @param limit
+	 * @return
+	 */
+	public List<String> getReport(final int limit) {
+		final List<String> lines = new ArrayList<>();
+		final List<ShapeTimings> shapes = getShapes();
+
+		lines.add("Connection wait: " + connectionWait);
+		lines.add("Slow statements logged: " + slowStatements.get() + (slowThresholdMillis >= 0 ? " (over " + slowThresholdMillis + " ms)" : " (disabled)"));
+
+		for (int i = 0; i < Math.min(limit, shapes.size()); i++) {
+			final ShapeTimings shape = shapes.get(i);
+
+			lines.addAll(Arrays.asList(
+					"#" + (i + 1) + " " + shape.getSql(),
+					"   total=" + MathUtil.formatTwoDigits(shape.getHistogram().getTotalMillis()) + " ms " + shape.getHistogram()));
+		}
+
+		return lines;
+	}
+
+	/**
+	 * Forget all recorded timings
+	 */
+	public void reset() {
+		shapes.clear();
+		connectionWait.reset();
+		slowStatements.set(0);
+	}
+
+	/**
+	 * Represents the timings of one statement shape
+	 */
+	@Getter
+	@RequiredArgsConstructor
+	public static final class ShapeTimings {
+
+		/**
+		 * The normalized SQL
+		 */
+		private final String sql;
+
+		/**
+		 * How long the statements took
+		 */
+		private final LatencyHistogram histogram;
+	}
+}
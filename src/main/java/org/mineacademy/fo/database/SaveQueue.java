@@ -0,0 +1,436 @@
+package org.mineacademy.fo.database;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.collection.SerializedMap;
+import org.mineacademy.fo.collection.expiringmap.NamedThreadFactory;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A write-behind queue for {@link SimpleFlatDatabase} saves
+ *
+ * Saves for the same unique ID are collapsed into the latest snapshot, and
+ * a single worker thread hands them to the writer in batches.
+ */
+final class SaveQueue {
+
+	/**
+	 * Pending saves in the order they were first queued
+	 */
+	private final Map<UUID, Entry> pending = new LinkedHashMap<>();
+
+	/**
+	 * Saves currently being written by the worker
+	 */
+	private final Map<UUID, Entry> inFlight = new HashMap<>();
+
+	/**
+	 * Guards all state below
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+	private final Condition drained = lock.newCondition();
+
+	/**
+	 * How many different unique IDs may wait before {@link #offer(Entry)} blocks
+	 */
+	private final int capacity;
+
+	/**
+	 * How many saves to write at once
+	 */
+	private final int batchSize;
+
+	/**
+	 * How long to wait after the first save arrives so that more saves can join the batch
+	 */
+	private final long delayMillis;
+
+	/**
+	 * The function writing a batch into the database
+	 */
+	private final Consumer<List<Entry>> writer;
+
+	/**
+	 * The worker thread
+	 */
+	private final Thread worker;
+
+	/**
+	 * Was the queue shut down? The worker stops once everything is written
+	 */
+	private boolean stopped = false;
+
+	/**
+	 * Is the worker writing a batch right now?
+	 */
+	private boolean writing = false;
+
+	/**
+	 * Was a flush requested, skipping the batching delay?
+	 */
+	private boolean flushRequested = false;
+
+	/**
+	 * How many saves were merged into an already pending one
+	 */
+	@Getter
+	private long coalesced = 0;
+
+	/**
+	 * How many saves were handed to the writer
+	 */
+	@Getter
+	private long written = 0;
+
+	/**
+	 * Create and start a new save queue
+	 *
+	 * @param capacity
+	 * @param batchSize
+	 * @param delayMillis
+	 * @param writer
+	 */
+	SaveQueue(final int capacity, final int batchSize, final long delayMillis, final Consumer<List<Entry>> writer) {
+		this.capacity = Math.max(1, capacity);
+		this.batchSize = Math.max(1, batchSize);
+		this.delayMillis = delayMillis;
+		this.writer = writer;
+
+		this.worker = new NamedThreadFactory("Foundation Save Queue %d").newThread(this::work);
+		this.worker.start();
+	}
+
+	/**
+	 * Queue the save, replacing any pending save for the same unique ID
+	 * and carrying over its changed keys. Blocks while the queue is full.
+	 *
+	 * @param entry
+	 */
+	void offer(final Entry entry) {
+		lock.lock();
+
+		try {
+			if (!stopped) {
+				final Entry previous = pending.get(entry.getUniqueId());
+
+				if (previous != null) {
+					entry.mergeChanges(previous);
+
+					pending.put(entry.getUniqueId(), entry);
+					coalesced++;
+
+					return;
+				}
+
+				while (pending.size() >= capacity && !stopped)
+					notFull.awaitUninterruptibly();
+
+				if (!stopped) {
+					pending.put(entry.getUniqueId(), entry);
+
+					// Wake the worker when it waits for the first save or the batch is full, not while it collects one
+					if (pending.size() == 1 || pending.size() >= batchSize)
+						notEmpty.signal();
+
+					return;
+				}
+			}
+
+		} finally {
+			lock.unlock();
+		}
+
+		// Saved while closing, write it ourselves as the worker may be gone
+		writer.accept(Collections.singletonList(entry));
+	}
+
+	/**
+	 * Return the latest save not yet written for the given unique ID, or null
+	 *
+	 * @param uuid
+	 * @return
+	 */
+	Entry peek(final UUID uuid) {
+		lock.lock();
+
+		try {
+			final Entry entry = pending.get(uuid);
+
+			return entry != null ? entry : inFlight.get(uuid);
+
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Block until everything queued so far has been written
+	 */
+	void flush() {
+		lock.lock();
+
+		try {
+			flushRequested = true;
+			notEmpty.signal();
+
+			while (!pending.isEmpty() || writing)
+				drained.awaitUninterruptibly();
+
+		} finally {
+			flushRequested = false;
+
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Stop the worker once everything queued so far has been written,
+	 * waiting for it at most the given time
+	 *
+	 * @param timeoutMillis
+	 */
+	void shutdown(final long timeoutMillis) {
+		lock.lock();
+
+		try {
+			stopped = true;
+			notEmpty.signalAll();
+
+		} finally {
+			lock.unlock();
+		}
+
+		try {
+			worker.join(timeoutMillis);
+
+		} catch (final InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (worker.isAlive())
+			Common.log("&cSave queue did not finish writing within " + timeoutMillis + " ms, " + size() + " saves are still pending.");
+	}
+
+	/**
+	 * Return how many saves wait to be written
+	 *
+	 * @return
+	 */
+	int size() {
+		lock.lock();
+
+		try {
+			return pending.size();
+
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/*
+	 * The worker loop
+	 */
+	private void work() {
+		while (true) {
+			final List<Entry> batch = new ArrayList<>(batchSize);
+
+			lock.lock();
+
+			try {
+				while (pending.isEmpty() && !stopped)
+					notEmpty.awaitUninterruptibly();
+
+				// Shut down and everything is written
+				if (pending.isEmpty()) {
+					drained.signalAll();
+
+					return;
+				}
+
+				// Give other saves a chance to join this batch, until the delay passes or it is full
+				for (long remaining = TimeUnit.MILLISECONDS.toNanos(delayMillis); !flushRequested && !stopped && remaining > 0 && pending.size() < batchSize;)
+					remaining = notEmpty.awaitNanos(remaining);
+
+				for (final Iterator<Entry> it = pending.values().iterator(); it.hasNext() && batch.size() < batchSize;) {
+					final Entry entry = it.next();
+
+					batch.add(entry);
+					inFlight.put(entry.getUniqueId(), entry);
+					it.remove();
+				}
+
+				writing = true;
+				notFull.signalAll();
+
+			} catch (final InterruptedException ex) {
+				// Continue, we only stop once shut down
+
+			} finally {
+				lock.unlock();
+			}
+
+			try {
+				if (!batch.isEmpty())
+					writer.accept(batch);
+
+			} catch (final Throwable t) {
+				Common.error(t, "Failed to write " + batch.size() + " queued saves!");
+
+			} finally {
+				lock.lock();
+
+				try {
+					for (final Entry entry : batch)
+						inFlight.remove(entry.getUniqueId(), entry);
+
+					written += batch.size();
+					writing = false;
+
+					if (pending.isEmpty())
+						drained.signalAll();
+
+				} finally {
+					lock.unlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Represents a snapshot waiting to be saved
+	 */
+	@Getter
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	static final class Entry {
+
+		/**
+		 * The unique ID of the row
+		 */
+		private final UUID uniqueId;
+
+		/**
+		 * The last known name
+		 */
+		private final String name;
+
+		/**
+		 * The data, or null to delete the row
+		 */
+		private final SerializedMap.Snapshot snapshot;
+
+		/**
+		 * When the save was called
+		 */
+		private final long updated;
+
+		/**
+		 * Keys changed since the base save, or null to write the whole row
+		 */
+		private Set<String> changedKeys;
+
+		/**
+		 * The save the changed keys are relative to, cleared once written
+		 */
+		@Getter(AccessLevel.NONE)
+		private volatile Entry base;
+
+		/**
+		 * Did writing this save fail?
+		 */
+		@Getter(AccessLevel.NONE)
+		private volatile boolean failed;
+
+		/**
+		 * Create a save writing the whole row
+		 *
+		 * @param uniqueId
+		 * @param name
+		 * @param snapshot the data, or null to delete the row
+		 * @param updated
+		 */
+		static Entry full(final UUID uniqueId, final String name, final SerializedMap.Snapshot snapshot, final long updated) {
+			return new Entry(uniqueId, name, snapshot, updated);
+		}
+
+		/**
+		 * Create a save only writing keys changed since the given base save
+		 *
+		 * @param uniqueId
+		 * @param name
+		 * @param snapshot
+		 * @param updated
+		 * @param base
+		 * @param changedKeys
+		 */
+		static Entry delta(final UUID uniqueId, final String name, final SerializedMap.Snapshot snapshot, final long updated, final Entry base, final Set<String> changedKeys) {
+			final Entry entry = new Entry(uniqueId, name, snapshot, updated);
+
+			entry.base = base;
+			entry.changedKeys = changedKeys;
+
+			return entry;
+		}
+
+		/**
+		 * Return the data as JSON, or null to delete the row
+		 *
+		 * @return
+		 */
+		String getJson() {
+			return snapshot != null ? snapshot.toJson() : null;
+		}
+
+		/**
+		 * Can we only write the changed keys? False if the base save failed.
+		 *
+		 * @return
+		 */
+		boolean isDelta() {
+			final Entry base = this.base;
+
+			return changedKeys != null && base != null && !base.failed;
+		}
+
+		/**
+		 * Mark this save as written, or as failed so that saves based on it write the whole row
+		 *
+		 * @param success
+		 */
+		void complete(final boolean success) {
+			failed = !success;
+			base = null;
+		}
+
+		/*
+		 * Take over the changes of a pending save this one replaces
+		 */
+		private void mergeChanges(final Entry previous) {
+			if (changedKeys == null || previous.changedKeys == null) {
+				changedKeys = null;
+				base = null;
+
+			} else {
+				changedKeys.addAll(previous.changedKeys);
+				base = previous.base;
+			}
+		}
+	}
+}
@@ -0,0 +1,813 @@
+package org.mineacademy.fo.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.mineacademy.fo.collection.expiringmap.NamedThreadFactory;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * A small bounded JDBC connection pool used by {@link SimpleDatabase}
+ *
+ * Connections are handed out as proxies, calling close() on them returns
+ * the connection back to the pool instead of closing it. Idle connections
+ * are validated before being borrowed and evicted when they have been idle
+ * or alive for too long.
+ *
+ * Each connection also keeps its most recently used prepared statements open,
+ * so preparing the same SQL again on it is free.
+ *
+ * All statements created from borrowed connections are timed into the
+ * {@link QueryStatistics} given to the pool, as is waiting for a connection.
+ */
+public final class SimpleConnectionPool {
+
+	/**
+	 * Connections idle for less than this are considered alive without pinging them
+	 */
+	private static final long ALIVE_BYPASS_MILLIS = 500;
+
+	/**
+	 * How often we run the eviction of idle and expired connections
+	 */
+	private static final long HOUSEKEEPING_PERIOD_MILLIS = 30_000;
+
+	/**
+	 * The connecting URL, user and password
+	 */
+	private final String url, user, password;
+
+	/**
+	 * The maximum amount of connections open at the same time
+	 */
+	@Getter
+	private final int maximumSize;
+
+	/**
+	 * How long to wait for a free connection before failing
+	 */
+	private final long borrowTimeoutMillis;
+
+	/**
+	 * How long may a connection stay unused in the pool before we close it
+	 */
+	private final long idleTimeoutMillis;
+
+	/**
+	 * How long may a connection live in total before we close it
+	 */
+	private final long maxLifetimeMillis;
+
+	/**
+	 * The timeout in seconds for {@link Connection#isValid(int)} checks
+	 */
+	private final int validationTimeoutSeconds;
+
+	/**
+	 * How many prepared statements to keep open for each connection, 0 to disable
+	 */
+	private final int statementCacheSize;
+
+	/**
+	 * Where we record how long statements and waiting for connections took
+	 */
+	@Getter
+	private final QueryStatistics statistics;
+
+	/**
+	 * Prepared statement cache statistics
+	 */
+	private final AtomicLong statementCacheHits = new AtomicLong(), statementCacheMisses = new AtomicLong();
+
+	/**
+	 * One permit for each connection we can lend
+	 */
+	private final Semaphore permits;
+
+	/**
+	 * Connections ready to be borrowed, most recently used first
+	 */
+	private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+
+	/**
+	 * The amount of physical connections currently open
+	 */
+	private final AtomicInteger totalConnections = new AtomicInteger();
+
+	/**
+	 * Closes idle and expired connections periodically
+	 */
+	private final ScheduledExecutorService housekeeper;
+
+	/**
+	 * Was this pool shut down?
+	 */
+	@Getter
+	private volatile boolean closed = false;
+
+	/**
+	 * Create a new connection pool, opening one connection right away
+	 * so that wrong credentials are reported immediately
+	 *
+	 * @param url
+	 * @param user
+	 * @param password
+	 * @param maximumSize
+	 * @param borrowTimeoutMillis
+	 * @param idleTimeoutMillis
+	 * @param maxLifetimeMillis
+	 * @param validationTimeoutSeconds
+	 * @param statementCacheSize
+	 * @param statistics
+	 * @throws SQLException
+	 */
+	SimpleConnectionPool(@NonNull final String url, final String user, final String password, final int maximumSize, final long borrowTimeoutMillis, final long idleTimeoutMillis,
+			final long maxLifetimeMillis, final int validationTimeoutSeconds, final int statementCacheSize, @NonNull final QueryStatistics statistics) throws SQLException {
+
+		if (maximumSize < 1)
+			throw new IllegalArgumentException("Connection pool must allow at least 1 connection, got " + maximumSize);
+
+		this.url = url;
+		this.user = user;
+		this.password = password;
+		this.maximumSize = maximumSize;
+		this.borrowTimeoutMillis = borrowTimeoutMillis;
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.maxLifetimeMillis = maxLifetimeMillis;
+		this.validationTimeoutSeconds = validationTimeoutSeconds;
+		this.statementCacheSize = statementCacheSize;
+		this.statistics = statistics;
+		this.permits = new Semaphore(maximumSize, true);
+
+		// Fail early
+		idle.offerFirst(openConnection());
+
+		this.housekeeper = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("Foundation Pool Housekeeper %d"));
+		this.housekeeper.scheduleWithFixedDelay(this::evictIdle, HOUSEKEEPING_PERIOD_MILLIS, HOUSEKEEPING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	// --------------------------------------------------------------------
+	// Borrowing
+	// --------------------------------------------------------------------
+
+	/**
+	 * Borrow a connection from the pool, waiting up to the borrow timeout
+	 * for one to become available.
+	 *
+	 * Always close the returned connection to give it back to the pool.
+	 *
+	 * @return
+	 * @throws SQLException
+	 */
+	public Connection getConnection() throws SQLException {
+		if (closed)
+			throw new SQLException("Connection pool is closed");
+
+		final long start = System.nanoTime();
+
+		try {
+			if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS))
+				throw new SQLTimeoutException("Timed out after " + borrowTimeoutMillis + " ms waiting for a database connection (" + getActiveConnections() + "/" + maximumSize + " in use)");
+
+		} catch (final InterruptedException ex) {
+			Thread.currentThread().interrupt();
+
+			throw new SQLException("Interrupted while waiting for a database connection", ex);
+		}
+
+		try {
+			PooledConnection pooled;
+
+			while ((pooled = idle.pollFirst()) != null) {
+				if (isUsable(pooled)) {
+					statistics.recordWait(System.nanoTime() - start);
+
+					return pooled.lease();
+				}
+
+				pooled.closePhysically();
+			}
+
+			final Connection connection = openConnection().lease();
+			statistics.recordWait(System.nanoTime() - start);
+
+			return connection;
+
+		} catch (final SQLException | RuntimeException ex) {
+			permits.release();
+
+			throw ex;
+		}
+	}
+
+	/*
+	 * Return the connection back to the idle queue, or close it if it can no longer be used
+	 */
+	private void release(final PooledConnection pooled) {
+		try {
+			if (closed || pooled.broken || pooled.isExpired())
+				pooled.closePhysically();
+
+			else {
+				pooled.lastUsed = System.currentTimeMillis();
+
+				idle.offerFirst(pooled);
+			}
+
+		} finally {
+			permits.release();
+		}
+	}
+
+	/*
+	 * Open a new physical connection
+	 */
+	private PooledConnection openConnection() throws SQLException {
+		final Connection connection = DriverManager.getConnection(url, user, password);
+
+		totalConnections.incrementAndGet();
+		SimpleDatabase.MYSQL_DEBUG.debug(() -> "Opened new pooled connection (" + totalConnections.get() + "/" + maximumSize + ")");
+
+		return new PooledConnection(connection);
+	}
+
+	/*
+	 * Return true if the idle connection may be lent
+	 */
+	private boolean isUsable(final PooledConnection pooled) {
+		if (pooled.isExpired())
+			return false;
+
+		if (System.currentTimeMillis() - pooled.lastUsed < ALIVE_BYPASS_MILLIS)
+			return true;
+
+		try {
+			return !pooled.connection.isClosed() && pooled.connection.isValid(validationTimeoutSeconds);
+
+		} catch (final SQLException ex) {
+			return false;
+		}
+	}
+
+	// --------------------------------------------------------------------
+	// Housekeeping
+	// --------------------------------------------------------------------
+
+	/*
+	 * Close connections that have been idle or alive for too long
+	 */
+	private void evictIdle() {
+		final long now = System.currentTimeMillis();
+
+		for (final Iterator<PooledConnection> it = idle.descendingIterator(); it.hasNext();) {
+			final PooledConnection pooled = it.next();
+
+			if ((now - pooled.lastUsed > idleTimeoutMillis || pooled.isExpired()) && idle.remove(pooled))
+				pooled.closePhysically();
+		}
+	}
+
+	/**
+	 * Close the pool and all idle connections. Connections currently
+	 * borrowed are closed once they are returned.
+	 */
+	public void close() {
+		closed = true;
+
+		if (housekeeper != null)
+			housekeeper.shutdownNow();
+
+		PooledConnection pooled;
+
+		while ((pooled = idle.pollFirst()) != null)
+			pooled.closePhysically();
+	}
+
+	// --------------------------------------------------------------------
+	// Statistics
+	// --------------------------------------------------------------------
+
+	/**
+	 * Return how many connections are currently borrowed
+	 *
+	 * @return
+	 */
+	public int getActiveConnections() {
+		return maximumSize - permits.availablePermits();
+	}
+
+	/**
+	 * Return how many connections wait in the pool
+	 *
+	 * @return
+	 */
+	public int getIdleConnections() {
+		return idle.size();
+	}
+
+	/**
+	 * Return how many physical connections are open
+	 *
+	 * @return
+	 */
+	public int getTotalConnections() {
+		return totalConnections.get();
+	}
+
+	/**
+	 * Return how many threads are waiting to borrow a connection
+	 *
+	 * @return
+	 */
+	public int getWaitingThreads() {
+		return permits.getQueueLength();
+	}
+
+	/**
+	 * Return how many prepared statements were reused from the cache
+	 *
+	 * @return
+	 */
+	public long getStatementCacheHits() {
+		return statementCacheHits.get();
+	}
+
+	/**
+	 * Return how many prepared statements had to be prepared anew
+	 *
+	 * @return
+	 */
+	public long getStatementCacheMisses() {
+		return statementCacheMisses.get();
+	}
+
+	@Override
+	public String toString() {
+		return "ConnectionPool{active=" + getActiveConnections() + ", idle=" + getIdleConnections() + ", total=" + getTotalConnections() + ", max=" + maximumSize + ", waiting=" + getWaitingThreads() + "}";
+	}
+
+	// --------------------------------------------------------------------
+	// Statements
+	// --------------------------------------------------------------------
+
+	/**
+	 * Wrap the given statement so that closing it also closes (returns to the pool)
+	 * the connection it was borrowed with
+	 *
+	 * @param statement
+	 * @param connection
+	 * @return
+	 */
+	static PreparedStatement closingConnection(final PreparedStatement statement, final Connection connection) {
+		return (PreparedStatement) Proxy.newProxyInstance(SimpleConnectionPool.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+			if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+				try {
+					statement.close();
+
+				} finally {
+					connection.close();
+				}
+
+				return null;
+			}
+
+			try {
+				return method.invoke(statement, args);
+
+			} catch (final InvocationTargetException ex) {
+				throw ex.getCause();
+			}
+		});
+	}
+
+	/**
+	 * Represents a physical connection held by the pool
+	 */
+	private final class PooledConnection implements InvocationHandler {
+
+		/**
+		 * The real connection
+		 */
+		private final Connection connection;
+
+		/**
+		 * When the connection was opened
+		 */
+		private final long created = System.currentTimeMillis();
+
+		/**
+		 * When the connection was last returned to the pool
+		 */
+		private volatile long lastUsed = created;
+
+		/**
+		 * Set when the driver reports a connection-level error
+		 */
+		private volatile boolean broken = false;
+
+		/**
+		 * The proxy of the current lease, or null if idle
+		 */
+		private volatile Connection leased;
+
+		/**
+		 * Prepared statements by their SQL, least recently used first.
+		 * Only accessed by the thread holding the lease.
+		 */
+		private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<String, CachedStatement>(16, 0.75F, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, CachedStatement> eldest) {
+				if (size() <= statementCacheSize)
+					return false;
+
+				eldest.getValue().evict();
+				return true;
+			}
+		};
+
+		private PooledConnection(final Connection connection) {
+			this.connection = connection;
+		}
+
+		/*
+		 * Create a new proxy for the borrower
+		 */
+		private Connection lease() {
+			leased = (Connection) Proxy.newProxyInstance(SimpleConnectionPool.class.getClassLoader(), new Class<?>[] { Connection.class }, this);
+
+			return leased;
+		}
+
+		@Override
+		public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+			final String name = method.getName();
+			final boolean isCurrentLease = proxy == leased;
+
+			if ("close".equals(name)) {
+				if (isCurrentLease) {
+					leased = null;
+
+					try {
+						if (!connection.getAutoCommit()) {
+							connection.rollback();
+							connection.setAutoCommit(true);
+						}
+
+					} catch (final SQLException | RuntimeException ex) {
+						// Could not reset the connection, do not lend it again
+						broken = true;
+
+					} finally {
+						release(this);
+					}
+				}
+
+				return null;
+			}
+
+			if ("isClosed".equals(name))
+				return !isCurrentLease || connection.isClosed();
+
+			if ("equals".equals(name))
+				return proxy == args[0];
+
+			if ("hashCode".equals(name))
+				return System.identityHashCode(proxy);
+
+			if (!isCurrentLease)
+				throw new SQLException("Connection has already been returned to the pool");
+
+			try {
+				if ("prepareStatement".equals(name) && args.length == 1 && statementCacheSize > 0)
+					return timed(this, prepareCached((String) args[0]), PreparedStatement.class, (String) args[0]);
+
+			} catch (final SQLException ex) {
+				checkBroken(ex);
+
+				throw ex;
+			}
+
+			try {
+				final Object result = method.invoke(connection, args);
+
+				if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType()))
+					return timed(this, (Statement) result, method.getReturnType(), args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null);
+
+				return result;
+
+			} catch (final InvocationTargetException ex) {
+				throw checkBroken(ex.getCause());
+			}
+		}
+
+		/*
+		 * Mark the connection broken if the error is a connection-level one,
+		 * SQLState class 08, returning the error to rethrow
+		 */
+		private Throwable checkBroken(final Throwable throwable) {
+			if (throwable instanceof SQLException) {
+				final String state = ((SQLException) throwable).getSQLState();
+
+				if (state != null && state.startsWith("08"))
+					broken = true;
+			}
+
+			return throwable;
+		}
+
+		/*
+		 * Return a cached statement for the SQL, or prepare and cache a new one
+		 */
+		private PreparedStatement prepareCached(final String sql) throws SQLException {
+			CachedStatement cached = statements.get(sql);
+
+			if (cached != null && !cached.inUse) {
+				statementCacheHits.incrementAndGet();
+
+				return cached.checkout();
+			}
+
+			statementCacheMisses.incrementAndGet();
+
+			final PreparedStatement statement = connection.prepareStatement(sql);
+
+			// The same SQL is already in use within this lease, do not cache the second one
+			if (cached != null)
+				return statement;
+
+			cached = new CachedStatement(this, statement);
+			statements.put(sql, cached);
+
+			return cached.checkout();
+		}
+
+		/*
+		 * Has this connection outlived its maximum lifetime?
+		 */
+		private boolean isExpired() {
+			return maxLifetimeMillis > 0 && System.currentTimeMillis() - created > maxLifetimeMillis;
+		}
+
+		/*
+		 * Close the real connection
+		 */
+		private void closePhysically() {
+			totalConnections.decrementAndGet();
+			statements.clear();
+
+			try {
+				connection.close();
+
+			} catch (final SQLException ex) {
+				// Already dead
+			}
+		}
+	}
+
+	/*
+	 * Wrap the statement so that its executions are timed
+	 */
+	private Statement timed(final PooledConnection owner, final Statement statement, final Class<?> type, final String sql) {
+		return (Statement) Proxy.newProxyInstance(SimpleConnectionPool.class.getClassLoader(), new Class<?>[] { type }, new TimedStatement(owner, statement, sql));
+	}
+
+	/**
+	 * Represents a statement whose executions are recorded into
+	 * {@link QueryStatistics}, remembering bound parameters for the slow query log
+	 */
+	private final class TimedStatement implements InvocationHandler {
+
+		/**
+		 * The connection the statement belongs to
+		 */
+		private final PooledConnection owner;
+
+		/**
+		 * The statement we delegate to
+		 */
+		private final Statement statement;
+
+		/**
+		 * The prepared SQL, or null for plain statements
+		 */
+		private final String sql;
+
+		/**
+		 * Bound parameters by their index starting at 0, only for prepared statements
+		 */
+		private Object[] parameters;
+
+		/**
+		 * The highest bound parameter index
+		 */
+		private int parameterCount = 0;
+
+		/**
+		 * How many rows were added to the batch
+		 */
+		private int batchSize = 0;
+
+		private TimedStatement(final PooledConnection owner, final Statement statement, final String sql) {
+			this.owner = owner;
+			this.statement = statement;
+			this.sql = sql;
+		}
+
+		@Override
+		public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+			final String name = method.getName();
+
+			if ("equals".equals(name) && args != null && args.length == 1)
+				return proxy == args[0];
+
+			if ("hashCode".equals(name) && args == null)
+				return System.identityHashCode(proxy);
+
+			if (name.startsWith("execute")) {
+				final long start = System.nanoTime();
+				final Object result = invokeStatement(method, args);
+				final boolean batch = "executeBatch".equals(name) || "executeLargeBatch".equals(name);
+
+				statistics.record(args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql, System.nanoTime() - start, batch ? null : parameters, parameterCount, batch ? batchSize : 0);
+
+				if (batch)
+					batchSize = 0;
+
+				return result;
+			}
+
+			if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer && statement instanceof PreparedStatement)
+				bind((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+
+			else if ("clearParameters".equals(name)) {
+				parameters = null;
+				parameterCount = 0;
+			}
+
+			else if ("addBatch".equals(name))
+				batchSize++;
+
+			else if ("clearBatch".equals(name))
+				batchSize = 0;
+
+			return invokeStatement(method, args);
+		}
+
+		/*
+		 * Remember the parameter at the given index starting at 1
+		 */
+		private void bind(final int index, final Object value) {
+			if (index < 1)
+				return;
+
+			if (parameters == null)
+				parameters = new Object[Math.max(index, 8)];
+
+			else if (parameters.length < index)
+				parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+
+			parameters[index - 1] = value;
+			parameterCount = Math.max(parameterCount, index);
+		}
+
+		private Object invokeStatement(final Method method, final Object[] args) throws Throwable {
+			try {
+				return method.invoke(statement, args);
+
+			} catch (final InvocationTargetException ex) {
+				throw owner.checkBroken(ex.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Represents a prepared statement kept open for reuse, closing
+	 * the statements we hand out only clears it for the next use
+	 */
+	private static final class CachedStatement implements InvocationHandler {
+
+		/**
+		 * The connection the statement belongs to
+		 */
+		private final PooledConnection owner;
+
+		/**
+		 * The real statement
+		 */
+		private final PreparedStatement statement;
+
+		/**
+		 * The proxy currently handed out, or null
+		 */
+		private PreparedStatement checkedOut;
+
+		/**
+		 * Is the statement handed out right now?
+		 */
+		private boolean inUse = false;
+
+		/**
+		 * Was the statement removed from the cache while in use?
+		 */
+		private boolean evicted = false;
+
+		private CachedStatement(final PooledConnection owner, final PreparedStatement statement) {
+			this.owner = owner;
+			this.statement = statement;
+		}
+
+		/*
+		 * Hand out the statement
+		 */
+		private PreparedStatement checkout() {
+			inUse = true;
+			checkedOut = (PreparedStatement) Proxy.newProxyInstance(SimpleConnectionPool.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, this);
+
+			return checkedOut;
+		}
+
+		/*
+		 * Remove from cache, closing now or once given back
+		 */
+		private void evict() {
+			evicted = true;
+
+			if (!inUse)
+				closeQuietly();
+		}
+
+		@Override
+		public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+			final String name = method.getName();
+			final boolean isCurrent = proxy == checkedOut;
+
+			if ("close".equals(name) && method.getParameterCount() == 0) {
+				if (isCurrent) {
+					checkedOut = null;
+					inUse = false;
+
+					if (evicted)
+						closeQuietly();
+
+					else {
+						statement.clearParameters();
+						statement.clearBatch();
+					}
+				}
+
+				return null;
+			}
+
+			if ("isClosed".equals(name))
+				return !isCurrent || statement.isClosed();
+
+			if ("equals".equals(name))
+				return proxy == args[0];
+
+			if ("hashCode".equals(name))
+				return System.identityHashCode(proxy);
+
+			if (!isCurrent)
+				throw new SQLException("Statement has already been closed");
+
+			try {
+				return method.invoke(statement, args);
+
+			} catch (final InvocationTargetException ex) {
+				throw owner.checkBroken(ex.getCause());
+			}
+		}
+
+		private void closeQuietly() {
+			try {
+				statement.close();
+
+			} catch (final SQLException ex) {
+				// Connection gone
+			}
+		}
+	}
+}
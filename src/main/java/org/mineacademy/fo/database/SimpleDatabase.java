@@ -1,17 +1,35 @@
 package org.mineacademy.fo.database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.util.Map;
 import java.util.Map.Entry;
-
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetFactory;
+import javax.sql.rowset.RowSetProvider;
+
+import org.bukkit.Bukkit;
 import org.mineacademy.fo.Common;
+import org.mineacademy.fo.MathUtil;
 import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.collection.StrictMap;
+import org.mineacademy.fo.collection.expiringmap.NamedThreadFactory;
 import org.mineacademy.fo.debug.Debugger;
+import org.mineacademy.fo.settings.SimpleSettings;
 
+import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -22,14 +40,56 @@ import lombok.RequiredArgsConstructor;
  * You can also override {@link #onConnected()} to run your code after the
  * connection has been established.
  *
+ * Queries are executed using a bounded pool of connections, see {@link SimpleConnectionPool},
+ * so that independent queries from different threads can run in parallel.
+ * You can override {@link #getMaximumPoolSize()} and other pool settings below.
+ *
+ * All statements are timed, see {@link #getQueryStatistics()}.
+ *
  * To use this class you must know the MySQL command syntax!
  */
 public class SimpleDatabase {
 
 	/**
-	 * The established connection, or null if none
+	 * The factory for disconnected result sets returned from {@link #query(String)}
+	 */
+	private static RowSetFactory rowSetFactory;
+
+	/**
+	 * Prints debug messages about database operations, shared by the database classes
+	 */
+	static final Debugger.Section MYSQL_DEBUG = Debugger.section("mysql");
+
+	/**
+	 * The connection pool, or null if not connected
+	 */
+	private volatile SimpleConnectionPool pool;
+
+	/**
+	 * Timings of statements, kept across reconnects
+	 */
+	private volatile QueryStatistics queryStatistics;
+
+	/**
+	 * Runs the given task on the main server thread, right away if we are already on it.
+	 * Use it to pass callbacks from {@link #queryAsync(String, ResultSetMapper)} to Bukkit.
+	 */
+	protected static final Executor MAIN_THREAD = task -> {
+		if (Bukkit.isPrimaryThread())
+			task.run();
+		else
+			Common.runLater(0, task);
+	};
+
+	/**
+	 * The executor running async queries, or null if not connected
 	 */
-	private Connection connection;
+	private volatile ExecutorService asyncExecutor;
+
+	/**
+	 * The SQL dialect of the connected database
+	 */
+	private volatile Dialect dialect = Dialect.OTHER;
 
 	/**
 	 * The last credentials from the connect function, or null if never called
@@ -41,6 +101,11 @@ public class SimpleDatabase {
 	 */
 	private final StrictMap<String, String> sqlVariables = new StrictMap<>();
 
+	/**
+	 * SQL with {} variables replaced, by the original SQL
+	 */
+	private final Map<String, String> resolvedSql = new ConcurrentHashMap<>();
+
 	// --------------------------------------------------------------------
 	// Connecting
 	// --------------------------------------------------------------------
@@ -86,7 +151,7 @@ public class SimpleDatabase {
 	 * @param autoReconnect
 	 */
 	public final void connect(final String host, final int port, final String database, final String user, final String password, final String table, final boolean autoReconnect) {
-		connect("jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=false&autoReconnect=" + autoReconnect, user, password, table);
+		connect("jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=false&autoReconnect=" + autoReconnect + "&useServerPrepStmts=true&rewriteBatchedStatements=true", user, password, table);
 	}
 
 	/**
@@ -111,9 +176,23 @@ public class SimpleDatabase {
 	 */
 	public final void connect(final String url, final String user, final String password, final String table) {
 		this.lastCredentials = new LastCredentials(url, user, password, table);
+		this.resolvedSql.clear();
 
 		try {
-			this.connection = DriverManager.getConnection(url, user, password);
+			if (this.pool != null)
+				this.pool.close();
+
+			// Settings may have been reloaded since
+			getQueryStatistics().setSlowThresholdMillis(getSlowQueryThresholdMillis());
+
+			this.pool = new SimpleConnectionPool(url, user, password, getMaximumPoolSize(),
+					getConnectionTimeoutMillis(), getIdleTimeoutMillis(), getMaxLifetimeMillis(), getValidationTimeoutSeconds(), getStatementCacheSize(), getQueryStatistics());
+
+			try (Connection connection = this.pool.getConnection()) {
+				this.dialect = Dialect.fromProductName(connection.getMetaData().getDatabaseProductName());
+			}
+
+			startAsyncExecutor();
 
 			onConnected();
 
@@ -127,13 +206,12 @@ public class SimpleDatabase {
 		}
 	}
 
-	/**
-	 * Attempts to connect using last known credentials. Fails gracefully if those are not provided
-	 * i.e. connect function was never called
+	/*
+	 * Start the threads running async queries, if not running already
 	 */
-	private final void connectUsingLastCredentials() {
-		if (lastCredentials != null)
-			connect(lastCredentials.url, lastCredentials.user, lastCredentials.password, lastCredentials.table);
+	final void startAsyncExecutor() {
+		if (this.asyncExecutor == null)
+			this.asyncExecutor = Executors.newFixedThreadPool(Math.max(1, getAsyncThreads()), new NamedThreadFactory("Foundation Database %d"));
 	}
 
 	/**
@@ -143,23 +221,147 @@ public class SimpleDatabase {
 	protected void onConnected() {
 	}
 
+	/**
+	 * Called automatically when {@link #close()} is called, after
+	 * async queries finished and before the connections are closed
+	 */
+	protected void onClose() {
+	}
+
+	// --------------------------------------------------------------------
+	// Pool settings
+	// --------------------------------------------------------------------
+
+	/**
+	 * How many connections may be open at the same time?
+	 *
+	 * Default: 10
+	 *
+	 * @return
+	 */
+	protected int getMaximumPoolSize() {
+		return 10;
+	}
+
+	/**
+	 * How long to wait for a free connection before the query fails?
+	 *
+	 * Default: 30 seconds
+	 *
+	 * @return
+	 */
+	protected long getConnectionTimeoutMillis() {
+		return TimeUnit.SECONDS.toMillis(30);
+	}
+
+	/**
+	 * How long may an unused connection stay open in the pool?
+	 *
+	 * Default: 10 minutes
+	 *
+	 * @return
+	 */
+	protected long getIdleTimeoutMillis() {
+		return TimeUnit.MINUTES.toMillis(10);
+	}
+
+	/**
+	 * How long may a connection be used before we replace it with a new one?
+	 * Keep this below the wait_timeout of your MySQL server. Set to 0 to disable.
+	 *
+	 * Default: 30 minutes
+	 *
+	 * @return
+	 */
+	protected long getMaxLifetimeMillis() {
+		return TimeUnit.MINUTES.toMillis(30);
+	}
+
+	/**
+	 * How long to wait for a connection to respond when checking it is alive?
+	 *
+	 * Default: 5 seconds
+	 *
+	 * @return
+	 */
+	protected int getValidationTimeoutSeconds() {
+		return 5;
+	}
+
+	/**
+	 * How many prepared statements should each pooled connection keep open
+	 * for reuse? Set to 0 to disable.
+	 *
+	 * Default: 64
+	 *
+	 * @return
+	 */
+	protected int getStatementCacheSize() {
+		return 64;
+	}
+
+	/**
+	 * How many threads run queries from {@link #queryAsync(String, ResultSetMapper)}
+	 * and {@link #updateAsync(String)}?
+	 *
+	 * Default: the maximum pool size, so that no thread waits for a connection
+	 *
+	 * @return
+	 */
+	protected int getAsyncThreads() {
+		return getMaximumPoolSize();
+	}
+
+	/**
+	 * How many rows to fetch at once when using {@link #scan(String, Object...)}
+	 *
+	 * Default: 1000
+	 *
+	 * @return
+	 */
+	protected int getScanFetchSize() {
+		return 1000;
+	}
+
+	/**
+	 * Statements taking longer than this many milliseconds are written
+	 * to slow-queries.log together with their parameters. Set to -1 to disable.
+	 *
+	 * Default: the lag threshold from settings, but at least 200ms
+	 *
+	 * @return
+	 */
+	protected long getSlowQueryThresholdMillis() {
+		return SimpleSettings.LAG_THRESHOLD_MILLIS == -1 ? -1 : MathUtil.atLeast(SimpleSettings.LAG_THRESHOLD_MILLIS, 200);
+	}
+
 	// --------------------------------------------------------------------
 	// Disconnecting
 	// --------------------------------------------------------------------
 
 	/**
-	 * Attempts to close the connection, if not null
+	 * Attempts to close the connection pool, if not null,
+	 * waiting a few seconds for running async queries to finish first
 	 */
 	protected final void close() {
-		if (connection != null)
-			synchronized (connection) {
-				try {
-					connection.close();
+		if (asyncExecutor != null) {
+			asyncExecutor.shutdown();
 
-				} catch (final SQLException e) {
-					Common.error(e, "Error closing MySQL connection!");
-				}
+			try {
+				if (!asyncExecutor.awaitTermination(10, TimeUnit.SECONDS))
+					Common.log("Some database tasks did not finish in 10 seconds and were abandoned.");
+
+			} catch (final InterruptedException ex) {
+				Thread.currentThread().interrupt();
 			}
+
+			asyncExecutor = null;
+		}
+
+		onClose();
+
+		if (pool != null)
+			pool.close();
 	}
 
 	// --------------------------------------------------------------------
@@ -169,30 +371,45 @@ public class SimpleDatabase {
 	/**
 	 * Attempts to execute a new update query
 	 *
+	 * Use ? in the SQL for each parameter, they are bound safely to a prepared
+	 * statement that is cached and reused for the same SQL
+	 *
 	 * Make sure you called connect() first otherwise an error will be thrown
 	 *
 	 * @param sql
+	 * @param params
 	 */
-	protected final void update(String sql) {
+	protected final void update(String sql, final Object... params) {
 		checkEstablished();
 
-		synchronized (connection) {
-			if (!isConnected())
-				connectUsingLastCredentials();
+		sql = replaceVariables(sql);
 
-			sql = replaceVariables(sql);
-			Valid.checkBoolean(!sql.contains("{table}"), "Table not set! Either use connect() method that specifies it or call addVariable(table, 'yourtablename') in your constructor!");
+		try {
+			executeUpdate(sql, params);
 
-			Debugger.debug("mysql", "Updating MySQL with: " + sql);
+		} catch (final SQLException e) {
+			Common.error(e, "Error on updating MySQL with: " + sql);
+		}
+	}
 
-			try {
-				final Statement statement = connection.createStatement();
+	/*
+	 * Run the update query with variables already replaced, returning the affected row count
+	 */
+	private int executeUpdate(final String sql, final Object... params) throws SQLException {
+		Valid.checkBoolean(!sql.contains("{table}"), "Table not set! Either use connect() method that specifies it or call addVariable(table, 'yourtablename') in your constructor!");
 
-				statement.executeUpdate(sql);
-				statement.close();
+		MYSQL_DEBUG.debug(() -> "Updating MySQL with: " + sql);
 
-			} catch (final SQLException e) {
-				Common.error(e, "Error on updating MySQL with: " + sql);
+		try (Connection connection = pool.getConnection()) {
+			if (params.length == 0)
+				try (Statement statement = connection.createStatement()) {
+					return statement.executeUpdate(sql);
+				}
+
+			try (PreparedStatement statement = connection.prepareStatement(sql)) {
+				bind(statement, params);
+
+				return statement.executeUpdate();
 			}
 		}
 	}
@@ -200,63 +417,140 @@ public class SimpleDatabase {
 	/**
 	 * Attempts to execute a new query
 	 *
+	 * Use ? in the SQL for each parameter, they are bound safely to a prepared
+	 * statement that is cached and reused for the same SQL
+	 *
+	 * The result set is fully read and disconnected so that the connection
+	 * can go back to the pool right away, you still should close it after use.
+	 * It only reads binary columns with getBytes, use {@link #prepareStatement(String)}
+	 * to read BLOB or text columns as bytes.
+	 *
 	 * Make sure you called connect() first otherwise an error will be thrown
 	 *
 	 * @param sql
+	 * @param params
 	 * @return
 	 */
-	protected final ResultSet query(String sql) {
+	protected final ResultSet query(String sql, final Object... params) {
 		checkEstablished();
 
-		synchronized (connection) {
-			if (!isConnected())
-				connectUsingLastCredentials();
+		sql = replaceVariables(sql);
 
-			sql = replaceVariables(sql);
+		try {
+			return executeQuery(sql, resultSet -> {
+				final CachedRowSet cached = getRowSetFactory().createCachedRowSet();
+				cached.populate(resultSet);
 
-			Debugger.debug("mysql", "Querying MySQL with: " + sql);
+				return cached;
+			}, params);
 
-			try {
-				final Statement statement = connection.createStatement();
-				final ResultSet resultSet = statement.executeQuery(sql);
+		} catch (final SQLException e) {
+			Common.error(e, "Error on querying MySQL with: " + sql);
+		}
 
-				return resultSet;
+		return null;
+	}
+
+	/*
+	 * Run the query with variables already replaced, mapping the result set before it is closed
+	 */
+	private <R> R executeQuery(final String sql, final ResultSetMapper<R> mapper, final Object... params) throws SQLException {
+		MYSQL_DEBUG.debug(() -> "Querying MySQL with: " + sql);
 
-			} catch (final SQLException e) {
-				Common.error(e, "Error on querying MySQL with: " + sql);
+		try (Connection connection = pool.getConnection()) {
+			if (params.length == 0)
+				try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+					return mapper.map(resultSet);
+				}
+
+			try (PreparedStatement statement = connection.prepareStatement(sql)) {
+				bind(statement, params);
+
+				try (ResultSet resultSet = statement.executeQuery()) {
+					return mapper.map(resultSet);
+				}
 			}
 		}
+	}
 
-		return null;
+	/**
+	 * Prepare a scan iterating over the rows of the query one by one,
+	 * use it instead of {@link #query(String, Object...)} when the result
+	 * could be too large to fit into memory
+	 *
+	 * Make sure you called connect() first otherwise an error will be thrown
+	 *
+	 * @param sql
+	 * @param params
+	 * @return
+	 */
+	protected final TableScan scan(final String sql, final Object... params) {
+		checkEstablished();
+
+		return new TableScan(this, replaceVariables(sql), params);
+	}
+
+	/**
+	 * Sets the given parameters to the statement in order. Unique IDs and
+	 * enumerations are stored as strings.
+	 *
+	 * @param statement
+	 * @param params
+	 * @throws SQLException
+	 */
+	protected static final void bind(final PreparedStatement statement, final Object... params) throws SQLException {
+		for (int i = 0; i < params.length; i++) {
+			final Object param = params[i];
+
+			if (param == null)
+				statement.setNull(i + 1, Types.NULL);
+
+			else if (param instanceof UUID)
+				statement.setString(i + 1, param.toString());
+
+			else if (param instanceof Enum)
+				statement.setString(i + 1, ((Enum<?>) param).name());
+
+			else
+				statement.setObject(i + 1, param);
+		}
 	}
 
 	/**
 	 * Attempts to return a prepared statement
 	 *
+	 * The statement holds a connection from the pool until you close it,
+	 * so always close it after use.
+	 *
 	 * Make sure you called connect() first otherwise an error will be thrown
 	 *
 	 * @param sql
 	 * @return
 	 * @throws SQLException
 	 */
-	protected final java.sql.PreparedStatement prepareStatement(String sql) throws SQLException {
+	protected final PreparedStatement prepareStatement(final String sql) throws SQLException {
 		checkEstablished();
 
-		synchronized (connection) {
-			if (!isConnected())
-				connectUsingLastCredentials();
+		final String resolved = replaceVariables(sql);
+
+		MYSQL_DEBUG.debug(() -> "Preparing statement: " + resolved);
 
-			sql = replaceVariables(sql);
+		final Connection connection = pool.getConnection();
+
+		try {
+			return SimpleConnectionPool.closingConnection(connection.prepareStatement(resolved), connection);
 
-			Debugger.debug("mysql", "Preparing statement: " + sql);
+		} catch (final SQLException | RuntimeException ex) {
+			connection.close();
 
-			return connection.prepareStatement(sql);
+			throw ex;
 		}
 	}
 
 	/**
 	 * Is the connection established, open and valid?
-	 * Performs a blocking ping request to the database
+	 * Performs a blocking ping request to the database if there
+	 * is no recently used connection in the pool
 	 *
 	 * @return whether the connection driver was set
 	 */
@@ -264,14 +558,145 @@ public class SimpleDatabase {
 		if (!isLoaded())
 			return false;
 
-		synchronized (connection) {
+		try (Connection connection = pool.getConnection()) {
+			return !connection.isClosed();
+
+		} catch (final SQLException ex) {
+			return false;
+		}
+	}
+
+	// --------------------------------------------------------------------
+	// Async querying
+	// --------------------------------------------------------------------
+
+	/**
+	 * Executes the update query on the database thread pool
+	 *
+	 * The future completes with the affected row count on the database thread,
+	 * use {@link CompletableFuture#thenAcceptAsync(java.util.function.Consumer, Executor)}
+	 * with {@link #MAIN_THREAD} to continue on the main thread. Errors are logged
+	 * and complete the future exceptionally.
+	 *
+	 * @param sql
+	 * @param params
+	 * @return
+	 */
+	protected final CompletableFuture<Integer> updateAsync(final String sql, final Object... params) {
+		checkEstablished();
+
+		final String replaced = replaceVariables(sql);
+
+		return supplyAsync(() -> executeUpdate(replaced, params), "Error on updating MySQL with: " + replaced);
+	}
+
+	/**
+	 * Executes the query on the database thread pool and converts the result
+	 * using the mapper, also on the database thread, so the result set never
+	 * leaves it and is closed automatically afterwards
+	 *
+	 * The future completes with the mapped value on the database thread,
+	 * use {@link CompletableFuture#thenAcceptAsync(java.util.function.Consumer, Executor)}
+	 * with {@link #MAIN_THREAD} to continue on the main thread. Errors are logged
+	 * and complete the future exceptionally.
+	 *
+	 * @param <R>
+	 * @param sql
+	 * @param mapper
+	 * @param params
+	 * @return
+	 */
+	protected final <R> CompletableFuture<R> queryAsync(final String sql, @NonNull final ResultSetMapper<R> mapper, final Object... params) {
+		checkEstablished();
+
+		final String replaced = replaceVariables(sql);
+
+		return supplyAsync(() -> executeQuery(replaced, mapper, params), "Error on querying MySQL with: " + replaced);
+	}
+
+	/**
+	 * Runs your own database work on the database thread pool, see
+	 * {@link #queryAsync(String, ResultSetMapper)}
+	 *
+	 * @param <R>
+	 * @param task
+	 * @param errorMessage
+	 * @return
+	 */
+	protected final <R> CompletableFuture<R> supplyAsync(@NonNull final SqlSupplier<R> task, final String errorMessage) {
+		checkEstablished();
+
+		final CompletableFuture<R> future = new CompletableFuture<>();
+		final ExecutorService executor = asyncExecutor;
+
+		Valid.checkNotNull(executor, "Database is closed, cannot run async queries");
+
+		executor.execute(() -> {
 			try {
-				return connection != null && !connection.isClosed() && connection.isValid(0);
+				future.complete(task.get());
 
-			} catch (final SQLException ex) {
-				return false;
+			} catch (final Throwable t) {
+				Common.error(t, errorMessage);
+
+				future.completeExceptionally(t);
 			}
-		}
+		});
+
+		return future;
+	}
+
+	/**
+	 * Return the connection pool, or null if not connected
+	 *
+	 * @return
+	 */
+	protected final SimpleConnectionPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Return the timings of statements run through this database
+	 *
+	 * @return
+	 */
+	public final QueryStatistics getQueryStatistics() {
+		if (queryStatistics == null)
+			synchronized (this) {
+				if (queryStatistics == null)
+					queryStatistics = new QueryStatistics(getSlowQueryThresholdMillis());
+			}
+
+		return queryStatistics;
+	}
+
+	/**
+	 * Return a short summary of the connection pool, such as for commands
+	 *
+	 * @return
+	 */
+	public final String getPoolStatus() {
+		final SimpleConnectionPool pool = this.pool;
+
+		return pool != null ? pool.toString() + " statements cached: " + pool.getStatementCacheHits() + " hits, " + pool.getStatementCacheMisses() + " misses" : "not connected";
+	}
+
+	/**
+	 * Return the SQL dialect of the database we are connected to
+	 *
+	 * @return
+	 */
+	protected final Dialect getDialect() {
+		return dialect;
+	}
+
+	/*
+	 * Return the factory making disconnected result sets
+	 */
+	private static RowSetFactory getRowSetFactory() throws SQLException {
+		if (rowSetFactory == null)
+			rowSetFactory = RowSetProvider.newFactory();
+
+		return rowSetFactory;
 	}
 
 	// --------------------------------------------------------------------
@@ -301,8 +726,8 @@ public class SimpleDatabase {
 	 *
 	 * @return
 	 */
-	public final boolean isLoaded() {
-		return connection != null;
+	public boolean isLoaded() {
+		return pool != null && !pool.isClosed();
 	}
 
 	// --------------------------------------------------------------------
@@ -318,20 +743,119 @@ public class SimpleDatabase {
 	 */
 	protected final void addVariable(final String name, final String value) {
 		sqlVariables.put(name, value);
+		resolvedSql.clear();
 	}
 
 	/**
 	 * Replace the {table} and {@link #sqlVariables} in the sql query
 	 *
+	 * The result is cached for the same SQL, so prefer constant SQL
+	 * with ? parameters over concatenating values into it
+	 *
 	 * @param sql
 	 * @return
 	 */
-	private final String replaceVariables(String sql) {
+	protected final String replaceVariables(final String sql) {
+		String resolved = resolvedSql.get(sql);
+
+		if (resolved == null) {
+			resolved = sql;
+
+			for (final Entry<String, String> entry : sqlVariables.entrySet())
+				resolved = resolved.replace("{" + entry.getKey() + "}", entry.getValue());
 
-		for (final Entry<String, String> entry : sqlVariables.entrySet())
-			sql = sql.replace("{" + entry.getKey() + "}", entry.getValue());
+			resolved = resolved.replace("{table}", getTable());
 
-		return sql.replace("{table}", getTable());
+			// Prevent dynamic SQL from growing the cache forever
+			if (resolvedSql.size() >= 512)
+				resolvedSql.clear();
+
+			resolvedSql.put(sql, resolved);
+		}
+
+		return resolved;
+	}
+
+	/**
+	 * Converts a result set into a value, see {@link SimpleDatabase#queryAsync(String, ResultSetMapper)}
+	 *
+	 * @param <R>
+	 */
+	@FunctionalInterface
+	public interface ResultSetMapper<R> {
+
+		/**
+		 * Convert the result set, it is closed after this method returns
+		 *
+		 * @param resultSet
+		 * @return
+		 * @throws SQLException
+		 */
+		R map(ResultSet resultSet) throws SQLException;
+	}
+
+	/**
+	 * A database task returning a value, see {@link SimpleDatabase#supplyAsync(SqlSupplier, String)}
+	 *
+	 * @param <R>
+	 */
+	@FunctionalInterface
+	public interface SqlSupplier<R> {
+
+		/**
+		 * Run the task
+		 *
+		 * @return
+		 * @throws SQLException
+		 */
+		R get() throws SQLException;
+	}
+
+	/**
+	 * Represents the flavor of SQL the database speaks, where it matters
+	 */
+	public enum Dialect {
+
+		/**
+		 * MySQL and MariaDB, supporting INSERT ... ON DUPLICATE KEY UPDATE
+		 */
+		MYSQL,
+
+		/**
+		 * SQLite, supporting INSERT ... ON CONFLICT
+		 */
+		SQLITE,
+
+		/**
+		 * PostgreSQL, supporting INSERT ... ON CONFLICT
+		 */
+		POSTGRESQL,
+
+		/**
+		 * Anything else, we only use standard SQL there
+		 */
+		OTHER;
+
+		/**
+		 * Resolve the dialect from {@link java.sql.DatabaseMetaData#getDatabaseProductName()}
+		 *
+		 * @param productName
+		 * @return
+		 */
+		public static Dialect fromProductName(final String productName) {
+			final String name = Common.getOrEmpty(productName).toLowerCase();
+
+			if (name.contains("mysql") || name.contains("mariadb"))
+				return MYSQL;
+
+			if (name.contains("sqlite"))
+				return SQLITE;
+
+			if (name.contains("postgres"))
+				return POSTGRESQL;
+
+			return OTHER;
+		}
 	}
 
 	/**
@@ -358,7 +882,7 @@ public class SimpleDatabase {
 		private final String password;
 
 		/**
-		 * The table. Never used in this class, only stored for your convenience
+		 * The table, used to replace {table} in SQL
 		 */
 		private final String table;
 	}
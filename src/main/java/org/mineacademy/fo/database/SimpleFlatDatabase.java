@@ -1,17 +1,40 @@
 package org.mineacademy.fo.database;
 
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
 
 import org.apache.commons.lang.WordUtils;
 import org.bukkit.Bukkit;
 import org.mineacademy.fo.Common;
 import org.mineacademy.fo.MathUtil;
+import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.collection.SerializedMap;
-import org.mineacademy.fo.debug.Debugger;
+import org.mineacademy.fo.collection.expiringmap.ExpiringMap;
 import org.mineacademy.fo.debug.LagCatcher;
+import org.mineacademy.fo.exception.FoException;
+import org.mineacademy.fo.plugin.SimplePlugin;
 import org.mineacademy.fo.settings.SimpleSettings;
 
 import lombok.NonNull;
@@ -22,16 +45,34 @@ import lombok.NonNull;
  *
  * The table structure is as follows:
  *
- * UUID varchar(64) | Name text       | Data text      | Updated bigint
+ * UUID varchar(64) | Name text       | Data blob      | Updated bigint
  * ------------------------------------------------------------
  * Player's uuid    | Last known name | {json data}    | Date of last save call
  *
+ * The data is stored as UTF-8 JSON, or compressed if you override {@link #getDataFormat()}.
+ *
+ * UUID is the primary key and Updated is indexed. Tables created by older versions
+ * are migrated automatically, the schema version is stored in the foundation_schema table.
+ *
  * We use JSON to flatten those values and provide convenience methods
  * {@link #onLoad(SerializedMap, Identifiable)} and {@link #onSave(Identifiable)}
  * for you to override so that you can easily save/load data to MySQL.
  *
  * Also see {@link #getExpirationDays()}, by default we remove values not touched
- * within the last 90 days.
+ * within the last 90 days. This runs in small batches in the background once the
+ * server has started and then once a day.
+ *
+ * Saving is write-behind: {@link #save(String, UUID, Object)} only takes a snapshot
+ * and queues it, repeated saves for the same UUID are merged and a background
+ * worker writes them in batches. Call {@link #flush()} in your onPluginStop.
+ *
+ * Saves where {@link #onSave(Object)} returns the same data as last time are skipped,
+ * see {@link #getSkippedSaves()} and {@link #isDeltaSaving()}.
+ *
+ * Loaded data can be cached for players relogging quickly, see {@link #getCacheSize()}.
+ *
+ * Instead of MySQL you can also store the data in a local file, simply
+ * call {@link #connect(FlatStorage)} with a {@link LocalFlatStorage}.
  *
  * For a less-restricting solution see {@link SimpleDatabase} however you will
  * need to run own queries and implement own table structure that requires MySQL
@@ -42,10 +83,85 @@ import lombok.NonNull;
 public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 
 	/**
-	 * An internal flag to prevent dead lock so that we do not call any
-	 * more queries within the {@link #load(UUID, Object)} or {@link #save(UUID, Object)} methods
+	 * The table storing schema versions of our tables
+	 */
+	private static final String SCHEMA_TABLE = "foundation_schema";
+
+	/**
+	 * The current schema version
+	 *
+	 * 1 - no keys
+	 * 2 - primary key on UUID, index on Updated
+	 * 3 - binary Data column
+	 */
+	private static final int SCHEMA_VERSION = 3;
+
+	/**
+	 * How long we remember the last save for each unique ID. Unchanged data is
+	 * written again after this time so that the Updated column stays fresh.
+	 */
+	private static final long UNCHANGED_SAVE_INTERVAL_HOURS = 12;
+
+	/**
+	 * How many ticks after the server has started to remove expired entries
+	 */
+	private static final int EXPIRY_START_DELAY_TICKS = 20 * 60;
+
+	/**
+	 * How many ticks to wait before removing expired entries again
+	 */
+	private static final int EXPIRY_INTERVAL_TICKS = 20 * 60 * 60 * 24;
+
+	/**
+	 * How long to wait for the save worker to finish when closing
 	 */
-	private boolean isQuerying = false;
+	private static final long SAVE_QUEUE_SHUTDOWN_MILLIS = 10_000;
+
+	/**
+	 * Databases connected and not yet closed, closed when the plugin is disabled
+	 * so that queued saves are written
+	 */
+	private static final Set<SimpleFlatDatabase<?>> openDatabases = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+	/**
+	 * Measures loading and saving
+	 */
+	private static final LagCatcher.Section MYSQL_SECTION = LagCatcher.section("mysql");
+
+	/**
+	 * Measures writing queued saves
+	 */
+	private static final LagCatcher.Section SAVE_SECTION = LagCatcher.section("mysql-save");
+
+	/**
+	 * The last save for each unique ID, used to skip saves that change nothing
+	 */
+	private final Map<UUID, SaveQueue.Entry> lastSaves = ExpiringMap.builder().expiration(UNCHANGED_SAVE_INTERVAL_HOURS, TimeUnit.HOURS).build();
+
+	/**
+	 * How many saves were skipped because the data did not change
+	 */
+	private final AtomicLong skippedSaves = new AtomicLong();
+
+	/**
+	 * The storage used instead of MySQL, or null when connected to MySQL
+	 */
+	private volatile FlatStorage storage;
+
+	/**
+	 * The write-behind queue for saves, created on first connect
+	 */
+	private volatile SaveQueue saveQueue;
+
+	/**
+	 * The cache of loaded data, or null if disabled
+	 */
+	private volatile DataCache dataCache;
+
+	/**
+	 * Is removing expired entries scheduled already?
+	 */
+	private volatile boolean expiryScheduled = false;
 
 	/**
 	 * Creates the table if it does not exist
@@ -55,11 +171,66 @@ public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 	@Override
 	protected final void onConnected() {
 
-		// First, see if the database exists, create it if not
-		update("CREATE TABLE IF NOT EXISTS {table}(UUID varchar(64), Name text, Data text, Updated bigint)");
+		// First, see if the database exists, create or migrate it if not
+		try {
+			migrateSchema();
+
+		} catch (final SQLException ex) {
+			Common.error(ex,
+					"Failed to create or migrate table " + getTable() + "!",
+					"Error: %error");
 
-		// Remove entries that have not been updated in the last X days
-		removeOldEntries();
+			return;
+		}
+
+		onStorageReady();
+	}
+
+	/**
+	 * Connects to the given storage instead of MySQL, such as {@link LocalFlatStorage}
+	 *
+	 * {@link #onConnectFinish()} is called afterwards the same way as with MySQL
+	 *
+	 * @param storage
+	 */
+	public final void connect(@NonNull final FlatStorage storage) {
+		try {
+			storage.open();
+
+		} catch (final IOException ex) {
+			Common.error(ex,
+					"Failed to open storage " + storage + "!",
+					"Error: %error");
+
+			return;
+		}
+
+		this.storage = storage;
+
+		startAsyncExecutor();
+		onStorageReady();
+	}
+
+	/*
+	 * Start the background work once the table or storage is ready
+	 */
+	private void onStorageReady() {
+
+		// Start the save worker
+		if (saveQueue == null)
+			saveQueue = new SaveQueue(getSaveQueueCapacity(), getSaveBatchSize(), getSaveDelayMillis(), this::writeBatch);
+
+		openDatabases.add(this);
+
+		if (dataCache == null && getCacheSize() > 0)
+			dataCache = new DataCache(getCacheSize(), getCacheTtlMillis());
+
+		// Remove entries that have not been updated in the last X days, once the server has started
+		if (!expiryScheduled && getExpirationDays() > 0) {
+			expiryScheduled = true;
+
+			Common.runLater(EXPIRY_START_DELAY_TICKS, this::removeOldEntries);
+		}
 
 		// Call any hooks
 		onConnectFinish();
@@ -67,25 +238,320 @@ public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 
 	/**
 	 * You can override this to run code after the connection was made and
-	 * the table created as well as purged ({@link #removeOldEntries()})
+	 * the table created. Expired entries are removed later in the background.
 	 */
 	protected void onConnectFinish() {
 	}
 
 	/**
-	 * Remove entries that have not been updated (called {@link #save(Identifiable)} method) for the
-	 * last given X amount of days
+	 * Writes all queued saves and closes the storage
+	 */
+	@Override
+	protected final void onClose() {
+		openDatabases.remove(this);
+
+		flush();
+
+		// Stop the worker so it does not keep us and the plugin loaded, reconnecting starts a new one
+		if (saveQueue != null) {
+			saveQueue.shutdown(SAVE_QUEUE_SHUTDOWN_MILLIS);
+			saveQueue = null;
+		}
+
+		if (storage != null)
+			try {
+				storage.close();
+
+			} catch (final IOException ex) {
+				Common.error(ex,
+						"Failed to close storage " + storage + "!",
+						"Error: %error");
+			}
+	}
+
+	/**
+	 * Close all databases the plugin left open, writing their queued saves
+	 *
+	 * Called automatically when the plugin is disabled, after onPluginStop
+	 */
+	public static void closeAll() {
+		for (final SimpleFlatDatabase<?> database : new ArrayList<>(openDatabases))
+			try {
+				database.close();
+
+			} catch (final Throwable t) {
+				Common.error(t,
+						"Failed to close database " + database.getClass().getSimpleName() + "!",
+						"Error: %error");
+			}
+
+		openDatabases.clear();
+	}
+
+	/**
+	 * Return true if connected to MySQL or to an open storage
+	 *
+	 * @return
+	 */
+	@Override
+	public final boolean isLoaded() {
+		final FlatStorage storage = this.storage;
+
+		return storage != null ? storage.isOpen() : super.isLoaded();
+	}
+
+	/*
+	 * Create the table in its latest version or upgrade it from the version stored in the schema table
+	 *
+	 * PostgreSQL and SQLite migrate in one transaction. MySQL commits each DDL statement
+	 * on its own, so there we resume from the tables an interrupted migration left behind.
+	 */
+	private void migrateSchema() throws SQLException {
+		try (Connection connection = getPool().getConnection(); Statement statement = connection.createStatement()) {
+			statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + SCHEMA_TABLE + "(TableName varchar(64) NOT NULL PRIMARY KEY, Version int NOT NULL)");
+
+			int version = 0;
+
+			try (PreparedStatement select = connection.prepareStatement("SELECT Version FROM " + SCHEMA_TABLE + " WHERE TableName=?")) {
+				select.setString(1, getTable());
+
+				try (ResultSet resultSet = select.executeQuery()) {
+					if (resultSet.next())
+						version = resultSet.getInt("Version");
+				}
+			}
+
+			// Not tracked yet, see if this is a table from an older Foundation or an interrupted migration
+			if (version == 0)
+				version = detectUntrackedVersion(connection, statement);
+
+			if (version == SCHEMA_VERSION)
+				return;
+
+			if (version > SCHEMA_VERSION)
+				throw new SQLException("Table " + getTable() + " has schema version " + version + " which is newer than supported " + SCHEMA_VERSION + ". Please update " + SimplePlugin.getNamed() + ".");
+
+			final boolean transactional = getDialect() != Dialect.MYSQL;
+
+			if (transactional)
+				connection.setAutoCommit(false);
+
+			try {
+				if (version == 0) {
+					statement.executeUpdate(replaceVariables(createTableSql("{table}")));
+					statement.executeUpdate(replaceVariables("CREATE INDEX {table}_Updated_idx ON {table}(Updated)"));
+
+				} else {
+					Common.log("Migrating table " + getTable() + " to schema version " + SCHEMA_VERSION + ", this may take a while for large tables...");
+
+					if (version == 1)
+						migrateFromUnkeyed(statement);
+
+					else if (version == 2)
+						migrateToBinaryData(statement);
+
+					Common.log("Table " + getTable() + " has been migrated.");
+				}
+
+				writeSchemaVersion(connection);
+
+				if (transactional)
+					connection.commit();
+
+			} catch (final SQLException | RuntimeException ex) {
+				if (transactional)
+					connection.rollback();
+
+				throw ex;
+
+			} finally {
+				if (transactional)
+					connection.setAutoCommit(true);
+			}
+		}
+	}
+
+	/*
+	 * Return the version of a table not in the schema table, 1 for a table from an older Foundation
+	 * or 0 if there is none, finishing a migration from schema 1 interrupted on MySQL
+	 */
+	private int detectUntrackedVersion(final Connection connection, final Statement statement) throws SQLException {
+		final boolean table = tableExists(connection, getTable());
+
+		if (!tableExists(connection, getTable() + "_legacy"))
+			return table ? 1 : 0;
+
+		Common.log("Resuming interrupted migration of table " + getTable() + "...");
+
+		// Interrupted between the renames, the copy is complete
+		if (!table && tableExists(connection, getTable() + "_migrate"))
+			statement.executeUpdate(replaceVariables("ALTER TABLE {table}_migrate RENAME TO {table}"));
+
+		// Interrupted before the copy, start over from the legacy table
+		else if (!table) {
+			statement.executeUpdate(replaceVariables("ALTER TABLE {table}_legacy RENAME TO {table}"));
+
+			return 1;
+		}
+
+		// Otherwise the table has already been replaced by the migrated copy
+		statement.executeUpdate(replaceVariables("DROP TABLE {table}_legacy"));
+		statement.executeUpdate(replaceVariables("CREATE INDEX {table}_Updated_idx ON {table}(Updated)"));
+
+		writeSchemaVersion(connection);
+		Common.log("Table " + getTable() + " has been migrated.");
+
+		return SCHEMA_VERSION;
+	}
+
+	/*
+	 * Return true if the table exists in the database we are connected to
+	 */
+	private boolean tableExists(final Connection connection, final String table) throws SQLException {
+		final String schema = getDialect() == Dialect.POSTGRESQL ? connection.getSchema() : null;
+
+		// PostgreSQL stores unquoted names in lower case
+		final String pattern = getDialect() == Dialect.POSTGRESQL ? table.toLowerCase() : table;
+
+		try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), schema, pattern, new String[] { "TABLE" })) {
+
+			// The pattern treats _ as a wildcard, so compare the names
+			while (tables.next())
+				if (table.equalsIgnoreCase(tables.getString("TABLE_NAME")))
+					return true;
+		}
+
+		return false;
+	}
+
+	/*
+	 * Store the latest schema version for our table
+	 */
+	private void writeSchemaVersion(final Connection connection) throws SQLException {
+		try (PreparedStatement delete = connection.prepareStatement("DELETE FROM " + SCHEMA_TABLE + " WHERE TableName=?");
+				PreparedStatement insert = connection.prepareStatement("INSERT INTO " + SCHEMA_TABLE + "(TableName, Version) VALUES (?, ?)")) {
+			delete.setString(1, getTable());
+			delete.executeUpdate();
+
+			insert.setString(1, getTable());
+			insert.setInt(2, SCHEMA_VERSION);
+			insert.executeUpdate();
+		}
+	}
+
+	/*
+	 * Copy the table from schema 1 into a keyed table, keeping the most recently updated row for duplicated UUIDs
+	 */
+	private void migrateFromUnkeyed(final Statement statement) throws SQLException {
+		final String data = getDialect() == Dialect.POSTGRESQL ? "convert_to(Data, 'UTF8')" : "Data";
+
+		statement.executeUpdate(replaceVariables("DROP TABLE IF EXISTS {table}_migrate"));
+		statement.executeUpdate(replaceVariables(createTableSql("{table}_migrate")));
+		statement.executeUpdate(replaceVariables(getDialect() == Dialect.MYSQL
+				? "INSERT IGNORE INTO {table}_migrate(UUID, Name, Data, Updated) SELECT UUID, Name, Data, Updated FROM {table} WHERE UUID IS NOT NULL ORDER BY Updated DESC"
+				: getDialect() == Dialect.SQLITE
+						? "INSERT OR IGNORE INTO {table}_migrate(UUID, Name, Data, Updated) SELECT UUID, Name, Data, Updated FROM {table} WHERE UUID IS NOT NULL ORDER BY Updated DESC"
+						: "INSERT INTO {table}_migrate(UUID, Name, Data, Updated) SELECT UUID, Name, " + data + ", Updated FROM {table} t WHERE UUID IS NOT NULL"
+								+ " AND NOT EXISTS (SELECT 1 FROM {table} n WHERE n.UUID = t.UUID AND n.Updated > t.Updated)"));
+
+		statement.executeUpdate(replaceVariables("ALTER TABLE {table} RENAME TO {table}_legacy"));
+		statement.executeUpdate(replaceVariables("ALTER TABLE {table}_migrate RENAME TO {table}"));
+		statement.executeUpdate(replaceVariables("DROP TABLE {table}_legacy"));
+		statement.executeUpdate(replaceVariables("CREATE INDEX {table}_Updated_idx ON {table}(Updated)"));
+	}
+
+	/*
+	 * Change the Data column from schema 2 to binary, SQLite stores any type in any column so it needs nothing
+	 */
+	private void migrateToBinaryData(final Statement statement) throws SQLException {
+		if (getDialect() == Dialect.MYSQL)
+			statement.executeUpdate(replaceVariables("ALTER TABLE {table} MODIFY Data mediumblob"));
+
+		else if (getDialect() == Dialect.POSTGRESQL)
+			statement.executeUpdate(replaceVariables("ALTER TABLE {table} ALTER COLUMN Data TYPE bytea USING convert_to(Data, 'UTF8')"));
+	}
+
+	/*
+	 * Return the create statement for the latest table schema
+	 */
+	private String createTableSql(final String table) {
+		final String binary = getDialect() == Dialect.MYSQL ? "mediumblob" : getDialect() == Dialect.POSTGRESQL ? "bytea" : "blob";
+
+		return "CREATE TABLE " + table + "(UUID varchar(64) NOT NULL PRIMARY KEY, Name text, Data " + binary + ", Updated bigint)";
+	}
+
+	/**
+	 * Remove entries that have not been updated (called {@link #save(String, UUID, Object)} method) for the
+	 * last given X amount of days, in batches so that the table is never locked for long
 	 */
 	private void removeOldEntries() {
+		// Stop when disconnected or disabled, since Bukkit would run the next task right away
+		if (!isLoaded() || !SimplePlugin.getInstance().isEnabled()) {
+			expiryScheduled = false;
+
+			return;
+		}
+
 		final long threshold = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(getExpirationDays());
+		final int batchSize = Math.max(1, getExpiryBatchSize());
+		final String sql = storage != null ? null
+				: getDialect() == Dialect.MYSQL
+				? "DELETE FROM {table} WHERE Updated < ? LIMIT " + batchSize
+				: "DELETE FROM {table} WHERE UUID IN (SELECT UUID FROM {table} WHERE Updated < ? LIMIT " + batchSize + ")";
 
-		update("DELETE FROM {table} WHERE Updated < " + threshold + "");
+		removeOldEntries(sql, threshold, batchSize, 0, System.currentTimeMillis());
+	}
+
+	/*
+	 * Remove the next batch of expired entries, pausing before the next one until none are left
+	 */
+	private void removeOldEntries(final String sql, final long threshold, final int batchSize, final long removedSoFar, final long startTime) {
+		// Stop when disconnected or disabled, since Bukkit would run the next task right away
+		if (!isLoaded() || !SimplePlugin.getInstance().isEnabled()) {
+			expiryScheduled = false;
+
+			return;
+		}
+
+		final CompletableFuture<Integer> batch = storage != null
+				? supplyAsync(() -> removeFromStorage(threshold, batchSize), "Failed to remove expired entries from " + storage)
+				: updateAsync(sql, threshold);
+
+		batch.whenComplete((removed, error) -> {
+			if (error == null && removed >= batchSize) {
+				Common.runLater(Math.max(1, (int) (getExpiryPauseMillis() / 50)), () -> removeOldEntries(sql, threshold, batchSize, removedSoFar + removed, startTime));
+
+				return;
+			}
+
+			final long total = removedSoFar + (error == null ? removed : 0);
+
+			if (total > 0)
+				Common.log("Removed " + total + " entries not updated in the last " + getExpirationDays() + " days from " + getStorageName()
+						+ " (took " + MathUtil.formatTwoDigits((System.currentTimeMillis() - startTime) / 1000D) + " seconds)");
+
+			Common.runLater(EXPIRY_INTERVAL_TICKS, this::removeOldEntries);
+		});
+	}
+
+	/*
+	 * Remove a batch of expired entries from the storage
+	 */
+	private int removeFromStorage(final long threshold, final int batchSize) {
+		try {
+			return storage.removeOlderThan(threshold, batchSize);
+
+		} catch (final IOException ex) {
+			throw new FoException(ex, "Failed to remove expired entries from " + storage);
+		}
 	}
 
 	/**
 	 * When you call the save method, we write the last updated time to the entry.
-	 * On plugin loading we can remove entries that have not been saved/updated
-	 * for the given amount of days.
+	 * Shortly after the server has started, and then once a day, we remove entries
+	 * that have not been saved/updated for the given amount of days.
+	 *
+	 * Return 0 to never remove entries.
 	 *
 	 * Default: 90 days
 	 *
@@ -95,6 +561,141 @@ public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 		return 90;
 	}
 
+	/**
+	 * How many expired entries to remove in one query
+	 *
+	 * Default: 1000
+	 *
+	 * @return
+	 */
+	protected int getExpiryBatchSize() {
+		return 1000;
+	}
+
+	/**
+	 * How long to wait between removing batches of expired entries
+	 * so that other queries can run in the meantime
+	 *
+	 * Default: 500 ms
+	 *
+	 * @return
+	 */
+	protected long getExpiryPauseMillis() {
+		return 500;
+	}
+
+	/**
+	 * How many different players may wait in the save queue before
+	 * {@link #save(String, UUID, Object)} blocks until the worker catches up
+	 *
+	 * Default: 5000
+	 *
+	 * @return
+	 */
+	protected int getSaveQueueCapacity() {
+		return 5000;
+	}
+
+	/**
+	 * How many saves to write to the database in one batch
+	 *
+	 * Default: 100
+	 *
+	 * @return
+	 */
+	protected int getSaveBatchSize() {
+		return 100;
+	}
+
+	/**
+	 * How long to wait after a save is queued so that more saves
+	 * can be written together with it
+	 *
+	 * Default: 500 ms
+	 *
+	 * @return
+	 */
+	protected long getSaveDelayMillis() {
+		return 500;
+	}
+
+	/**
+	 * How should the data column be written? Rows in any format are read correctly,
+	 * so changing this converts existing rows as they are saved again.
+	 *
+	 * Default: {@link DataFormat#JSON}
+	 *
+	 * @return
+	 */
+	protected DataFormat getDataFormat() {
+		return DataFormat.JSON;
+	}
+
+	/**
+	 * How many players to keep loaded data for, so that loading them again
+	 * within {@link #getCacheTtlMillis()} does not query the database.
+	 * The data is removed from the cache as soon as you save it.
+	 *
+	 * Only enable this if no other server writes the same rows in the
+	 * meantime, or keep the time short, otherwise old data may be loaded.
+	 *
+	 * Default: 0, disabled
+	 *
+	 * @return
+	 */
+	protected int getCacheSize() {
+		return 0;
+	}
+
+	/**
+	 * How long loaded data stays in the cache, see {@link #getCacheSize()}
+	 *
+	 * Default: 5 minutes
+	 *
+	 * @return
+	 */
+	protected long getCacheTtlMillis() {
+		return TimeUnit.MINUTES.toMillis(5);
+	}
+
+	/**
+	 * Should data loaded by {@link #loadAll(Collection, Function)} be put into
+	 * the cache? Only used when the cache is enabled, see {@link #getCacheSize()}
+	 *
+	 * Default: true
+	 *
+	 * @return
+	 */
+	protected boolean isCachingBulkLoads() {
+		return true;
+	}
+
+	/**
+	 * Should we only write keys that changed since the last save instead of the whole row?
+	 *
+	 * This merges the changes using JSON_SET and JSON_REMOVE and is only used on MySQL
+	 * with {@link DataFormat#JSON}, otherwise the whole row is written. Only enable
+	 * this if no other server writes the same rows.
+	 *
+	 * Default: false
+	 *
+	 * @return
+	 */
+	protected boolean isDeltaSaving() {
+		return false;
+	}
+
+	/**
+	 * How many unique IDs to fetch in one query when using {@link #loadAll(Collection, Function)}
+	 *
+	 * Default: 500
+	 *
+	 * @return
+	 */
+	protected int getLoadChunkSize() {
+		return 500;
+	}
+
 	/**
 	 * Load the data for the given unique ID and his cache
 	 *
@@ -102,28 +703,60 @@ public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 	 * @param cache
 	 */
 	public final void load(final UUID uuid, final T cache) {
-		if (!isLoaded() || isQuerying)
+		if (!isLoaded())
 			return;
 
 		try {
-			LagCatcher.start("mysql");
-			isQuerying = true;
+			MYSQL_SECTION.start();
+
+			MYSQL_DEBUG.debug(() -> "---------------- MySQL - Loading data for " + uuid);
 
-			Debugger.debug("mysql", "---------------- MySQL - Loading data for " + uuid);
+			// The row may have been changed elsewhere, do not skip the next save
+			lastSaves.remove(uuid);
 
-			final ResultSet resultSet = query("SELECT * FROM {table} WHERE UUID='" + uuid + "'");
-			final String dataRaw = resultSet.next() ? resultSet.getString("Data") : "{}";
-			Debugger.debug("mysql", "JSON: " + dataRaw);
+			// Captured before reading, a save meanwhile makes the data we read outdated
+			final long generation = dataCache != null ? dataCache.getGeneration(uuid) : 0;
+
+			final String dataRaw;
+			final SaveQueue.Entry queued = saveQueue != null ? saveQueue.peek(uuid) : null;
+			final SerializedMap cached = queued == null && dataCache != null ? dataCache.get(uuid) : null;
+
+			// Prefer the save not yet written to the database
+			if (queued != null) {
+				dataRaw = queued.getJson() != null ? queued.getJson() : "{}";
+
+				MYSQL_DEBUG.debug("Using data queued for saving");
+
+			} else if (cached != null) {
+				MYSQL_DEBUG.debug(() -> "Using cached data: " + cached);
+
+				onLoad(cached, cache);
+				return;
+
+			} else if (storage != null)
+				dataRaw = storage.load(Collections.singletonList(uuid)).getOrDefault(uuid, "{}");
+
+			// Read from the driver directly, a disconnected result set from query() only reads binary columns as bytes
+			else
+				try (PreparedStatement statement = prepareStatement("SELECT Data FROM {table} WHERE UUID=?")) {
+					statement.setString(1, uuid.toString());
+
+					try (ResultSet resultSet = statement.executeQuery()) {
+						dataRaw = resultSet.next() ? DataFormat.decode(resultSet.getBytes("Data")) : "{}";
+					}
+				}
+
+			MYSQL_DEBUG.debug(() -> "JSON: " + dataRaw);
 
 			final SerializedMap data = SerializedMap.fromJson(dataRaw);
-			Debugger.debug("mysql", "Deserialized data: " + data);
+			MYSQL_DEBUG.debug(() -> "Deserialized data: " + data);
+
+			if (dataCache != null && queued == null)
+				dataCache.put(uuid, data, generation);
 
 			// Call the user specified load method
 			onLoad(data, cache);
 
-			// Close connection at the end
-			resultSet.close();
-
 		} catch (final Throwable t) {
 			Common.error(t,
 					"Failed to load data from MySQL!",
@@ -131,8 +764,6 @@ public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 					"Error: %error");
 
 		} finally {
-			isQuerying = false;
-
 			logPerformance("loading");
 		}
 	}
@@ -147,41 +778,224 @@ public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 	 */
 	protected abstract void onLoad(SerializedMap map, T data);
 
+	/**
+	 * Load the data for many unique IDs at once, see {@link #loadAll(Collection, Function, Runnable)}
+	 *
+	 * @param uuids
+	 * @param cacheResolver
+	 */
+	public final void loadAll(final Collection<UUID> uuids, final Function<UUID, T> cacheResolver) {
+		loadAll(uuids, cacheResolver, null);
+	}
+
+	/**
+	 * Load the data for many unique IDs at once
+	 *
+	 * Rows are fetched in chunks of {@link #getLoadChunkSize()} on the database thread pool
+	 * and parsed in parallel. {@link #onLoad(SerializedMap, Object)} is then called on the main
+	 * thread for each unique ID, using the cache returned from the resolver. If the resolver
+	 * returns null, for example because the player has left meanwhile, the entry is skipped.
+	 *
+	 * Enable the "mysql" debug section to see how long each chunk took.
+	 *
+	 * @param uuids
+	 * @param cacheResolver called on the main thread to get the cache to load into
+	 * @param onFinish called on the main thread when everything is loaded, may be null
+	 */
+	public final void loadAll(@NonNull final Collection<UUID> uuids, @NonNull final Function<UUID, T> cacheResolver, @Nullable final Runnable onFinish) {
+		if (!isLoaded())
+			return;
+
+		final List<UUID> remaining = new ArrayList<>(new LinkedHashSet<>(uuids));
+		final int chunkSize = Math.max(1, getLoadChunkSize());
+
+		for (final UUID uuid : remaining)
+			lastSaves.remove(uuid);
+
+		supplyAsync(() -> {
+			final long started = System.nanoTime();
+
+			for (int from = 0; from < remaining.size(); from += chunkSize) {
+				final List<UUID> chunk = remaining.subList(from, Math.min(remaining.size(), from + chunkSize));
+
+				try {
+					final long queryStart = System.nanoTime();
+					final Map<UUID, Long> generations = new HashMap<>();
+
+					if (dataCache != null && isCachingBulkLoads())
+						for (final UUID uuid : chunk)
+							generations.put(uuid, dataCache.getGeneration(uuid));
+
+					final Set<UUID> queued = new HashSet<>();
+					final Map<UUID, String> rows = fetchAll(chunk, queued);
+					final long parseStart = System.nanoTime();
+
+					final Map<UUID, SerializedMap> parsed = new ConcurrentHashMap<>();
+
+					rows.entrySet().parallelStream().forEach(row -> {
+						try {
+							final SerializedMap data = SerializedMap.fromJson(row.getValue());
+
+							// Like load(), do not cache saves not yet written
+							if (dataCache != null && isCachingBulkLoads() && !queued.contains(row.getKey()))
+								dataCache.put(row.getKey(), data, generations.get(row.getKey()));
+
+							parsed.put(row.getKey(), data);
+
+						} catch (final Throwable t) {
+							Common.error(t,
+									"Failed to parse data from MySQL!",
+									"UUID: " + row.getKey(),
+									"Error: %error");
+						}
+					});
+
+					final long finished = System.nanoTime();
+
+					MYSQL_DEBUG.debug(() -> "Bulk loaded " + chunk.size() + " entries (" + rows.size() + " found), query took "
+							+ MathUtil.formatTwoDigits((parseStart - queryStart) / 1_000_000D) + " ms, parsing took " + MathUtil.formatTwoDigits((finished - parseStart) / 1_000_000D) + " ms");
+
+					Common.runLater(0, () -> {
+						for (final UUID uuid : chunk) {
+							final T cache = cacheResolver.apply(uuid);
+
+							if (cache != null)
+								try {
+									onLoad(parsed.getOrDefault(uuid, new SerializedMap()), cache);
+
+								} catch (final Throwable t) {
+									Common.error(t,
+											"Failed to load data from MySQL!",
+											"UUID: " + uuid,
+											"Error: %error");
+								}
+						}
+					});
+
+				} catch (final Throwable t) {
+					Common.error(t,
+							"Failed to bulk load " + chunk.size() + " entries from MySQL!",
+							"Error: %error");
+				}
+			}
+
+			MYSQL_DEBUG.debug(() -> "Bulk loading " + remaining.size() + " entries took " + MathUtil.formatTwoDigits((System.nanoTime() - started) / 1_000_000D) + " ms");
+
+			if (onFinish != null)
+				Common.runLater(0, onFinish);
+
+			return null;
+		}, "Failed to bulk load " + remaining.size() + " entries from MySQL!");
+	}
+
+	/*
+	 * Fetch raw data for the given unique IDs in one query, preferring saves not yet written
+	 * and adding their unique IDs to the given set
+	 */
+	private Map<UUID, String> fetchAll(final List<UUID> uuids, final Set<UUID> queued) throws SQLException, IOException {
+		final Map<UUID, String> rows = new HashMap<>();
+
+		if (storage != null)
+			rows.putAll(storage.load(uuids));
+
+		else {
+			final StringBuilder placeholders = new StringBuilder();
+
+			for (int i = 0; i < uuids.size(); i++)
+				placeholders.append(i == 0 ? "?" : ", ?");
+
+			try (PreparedStatement statement = prepareStatement("SELECT UUID, Data FROM {table} WHERE UUID IN (" + placeholders + ")")) {
+				for (int i = 0; i < uuids.size(); i++)
+					statement.setString(i + 1, uuids.get(i).toString());
+
+				try (ResultSet resultSet = statement.executeQuery()) {
+					while (resultSet.next())
+						rows.put(UUID.fromString(resultSet.getString("UUID")), DataFormat.decode(resultSet.getBytes("Data")));
+				}
+			}
+		}
+
+		if (saveQueue != null)
+			for (final UUID uuid : uuids) {
+				final SaveQueue.Entry entry = saveQueue.peek(uuid);
+
+				if (entry != null) {
+					rows.put(uuid, entry.getJson() != null ? entry.getJson() : "{}");
+					queued.add(uuid);
+				}
+			}
+
+		return rows;
+	}
+
+	/**
+	 * Prepare a scan over all rows in the table, for example to build leaderboards
+	 *
+	 * Each row has the UUID, Name, Data and Updated columns, use
+	 * {@link TableScan.Row#getMap(String)} with "Data" to parse the data.
+	 * Saves still in the queue are not included, call {@link #flush()} first if you need them.
+	 *
+	 * @return
+	 */
+	public final TableScan scanAll() {
+		Valid.checkBoolean(storage == null, "Scanning the whole table is only supported when connected to MySQL");
+
+		return scan("SELECT UUID, Name, Data, Updated FROM {table}");
+	}
+
 	/**
 	 * Save the data for the given name, unique ID and his cache
 	 *
-	 * If the onSave returns empty data we delete the row
+	 * If the onSave returns empty data we delete the row, if it returns the
+	 * same data as the last save nothing is written
+	 *
+	 * The data is taken from {@link #onSave(Object)} right away, but written
+	 * to the database later in the background, see {@link #flush()}
 	 *
 	 * @param name last known name - players may change those
 	 * @param uuid
 	 * @param cache
 	 */
 	public final void save(final String name, final UUID uuid, final T cache) {
-		if (!isLoaded() || isQuerying)
+		if (!isLoaded() || saveQueue == null)
 			return;
 
+		// The cached data is outdated now
+		if (dataCache != null)
+			dataCache.invalidate(uuid);
+
 		try {
-			LagCatcher.start("mysql");
-			isQuerying = true;
+			MYSQL_SECTION.start();
 
 			// Save using the user configured save method
 			final SerializedMap data = onSave(cache);
+			final SerializedMap.Snapshot snapshot = data == null || data.isEmpty() ? null : data.snapshot();
 
-			Debugger.debug("mysql", "---------------- MySQL - Saving data for " + uuid);
-			Debugger.debug("mysql", "Raw data: " + data);
-			Debugger.debug("mysql", "JSON: " + (data == null ? "null" : data.toJson()));
+			final SaveQueue.Entry last = lastSaves.get(uuid);
+			final Set<String> changedKeys = last != null && last.getSnapshot() != null && snapshot != null ? snapshot.getChangedKeys(last.getSnapshot()) : null;
 
-			// Remove data if empty
-			if (data == null || data.isEmpty()) {
-				update("DELETE FROM {table} WHERE UUID= '" + uuid + "';");
+			if (last != null && Objects.equals(name, last.getName()) && (snapshot == null ? last.getSnapshot() == null : changedKeys != null && changedKeys.isEmpty())) {
+				skippedSaves.incrementAndGet();
 
-				if (Debugger.isDebugged("mysql"))
-					Debugger.debug("mysql", "Data was empty, row has been removed.");
+				MYSQL_DEBUG.debug(() -> "---------------- MySQL - Skipping unchanged data for " + uuid);
+				return;
+			}
 
-			} else if (isStored(uuid))
-				update("UPDATE {table} SET Data='" + data.toJson() + "', Updated='" + System.currentTimeMillis() + "' WHERE UUID='" + uuid + "';");
-			else
-				update("INSERT INTO {table}(UUID, Name, Data, Updated) VALUES ('" + uuid + "', '" + name + "', '" + data.toJson() + "', '" + System.currentTimeMillis() + "');");
+			MYSQL_DEBUG.debug(() -> "---------------- MySQL - Queuing data for " + uuid);
+			MYSQL_DEBUG.debug(() -> "Raw data: " + data);
+			MYSQL_DEBUG.debug(() -> "JSON: " + (snapshot != null ? snapshot.toJson() : null));
+
+			final long now = System.currentTimeMillis();
+			final SaveQueue.Entry entry = changedKeys != null && canSaveDelta() && changedKeys.size() < snapshot.getKeys().size()
+					? SaveQueue.Entry.delta(uuid, name, snapshot, now, last, changedKeys)
+					: SaveQueue.Entry.full(uuid, name, snapshot, now);
+
+			lastSaves.put(uuid, entry);
+			saveQueue.offer(entry);
+
+			// Again now that loads see the queued data, for those that read before it was queued
+			if (dataCache != null)
+				dataCache.invalidate(uuid);
 
 		} catch (final Throwable ex) {
 			Common.error(ex,
@@ -190,44 +1004,290 @@ public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 					"Error: %error");
 
 		} finally {
-			isQuerying = false;
-
 			logPerformance("saving");
 		}
 	}
 
 	/**
-	 * Utility method to finish LagCatcher mysql measure and log
-	 * if there was some lag, or if we detected mysql being run
-	 * from the main thread.
+	 * Block until all queued saves have been written to the database
 	 *
-	 * @param operation
+	 * Call this in your onPluginStop before closing the connection
 	 */
-	private void logPerformance(final String operation) {
-		final double took = LagCatcher.endTook("mysql");
-		final boolean isMainThread = Bukkit.isPrimaryThread();
+	public final void flush() {
+		if (saveQueue != null)
+			saveQueue.flush();
+	}
 
-		LagCatcher.end("mysql", isMainThread ? 10 : MathUtil.atLeast(200, SimpleSettings.LAG_THRESHOLD_MILLIS),
-				WordUtils.capitalize(operation) + " data to MySQL took {time} ms" + (took > 10 && isMainThread ? " - To prevent slowing the server, " + operation + " can be made async (carefully)" : ""));
+	/**
+	 * Return how many saves are waiting to be written
+	 *
+	 * @return
+	 */
+	public final int getPendingSaves() {
+		return saveQueue != null ? saveQueue.size() : 0;
 	}
 
 	/**
-	 * Checks if the given unique id is stored in the database
+	 * Return how many saves were skipped because the data did not change
 	 *
-	 * @param uuid
 	 * @return
-	 * @throws SQLException
 	 */
-	private boolean isStored(@NonNull final UUID uuid) throws SQLException {
-		final ResultSet resultSet = query("SELECT * FROM {table} WHERE UUID= '" + uuid.toString() + "'");
+	public final long getSkippedSaves() {
+		return skippedSaves.get();
+	}
 
-		if (resultSet == null)
-			return false;
+	/**
+	 * Return how many loads were served from the cache, see {@link #getCacheSize()}
+	 *
+	 * @return
+	 */
+	public final long getCacheHits() {
+		return dataCache != null ? dataCache.getHits() : 0;
+	}
 
-		if (resultSet.next())
-			return resultSet.getString("UUID") != null;
+	/**
+	 * Return how many loads were not found in the cache and queried the database
+	 *
+	 * @return
+	 */
+	public final long getCacheMisses() {
+		return dataCache != null ? dataCache.getMisses() : 0;
+	}
 
-		return false;
+	/**
+	 * Return how many entries were removed from the cache because it was full or they expired
+	 *
+	 * @return
+	 */
+	public final long getCacheEvictions() {
+		return dataCache != null ? dataCache.getEvictions() : 0;
+	}
+
+	/*
+	 * Can the changes be merged into the existing row?
+	 */
+	private boolean canSaveDelta() {
+		return storage == null && isDeltaSaving() && getDialect() == Dialect.MYSQL && getDataFormat() == DataFormat.JSON;
+	}
+
+	/*
+	 * Write a batch of queued saves, called from the save worker
+	 */
+	private void writeBatch(final List<SaveQueue.Entry> batch) {
+		SAVE_SECTION.start();
+
+		boolean success = false;
+
+		try {
+			if (storage != null)
+				writeToStorage(batch);
+			else
+				writeToDatabase(batch);
+
+			success = true;
+
+		} catch (final SQLException | IOException ex) {
+			Common.error(ex,
+					"Failed to write " + batch.size() + " queued saves to " + getStorageName() + "!",
+					"Error: %error");
+
+		} finally {
+			for (final SaveQueue.Entry entry : batch) {
+				entry.complete(success);
+
+				// Make sure the next save is written even if unchanged
+				if (!success)
+					lastSaves.remove(entry.getUniqueId(), entry);
+			}
+
+			SAVE_SECTION.end(MathUtil.atLeast(200, SimpleSettings.LAG_THRESHOLD_MILLIS), "Writing " + batch.size() + " queued saves to " + getStorageName() + " took {time} ms");
+		}
+	}
+
+	/*
+	 * Write a batch of queued saves to the storage
+	 */
+	private void writeToStorage(final List<SaveQueue.Entry> batch) throws IOException {
+		final List<FlatStorage.Row> rows = new ArrayList<>(batch.size());
+
+		for (final SaveQueue.Entry entry : batch)
+			rows.add(new FlatStorage.Row(entry.getUniqueId(), entry.getName(), entry.getJson(), entry.getUpdated()));
+
+		storage.write(rows);
+
+		MYSQL_DEBUG.debug(() -> "Wrote " + batch.size() + " queued saves to " + storage);
+	}
+
+	/*
+	 * Write a batch of queued saves to MySQL in one transaction
+	 */
+	private void writeToDatabase(final List<SaveQueue.Entry> batch) throws SQLException {
+		try (Connection connection = getPool().getConnection()) {
+			connection.setAutoCommit(false);
+
+			final String upsertSql = getUpsertSql();
+			final DataFormat format = getDataFormat();
+
+			try (PreparedStatement delete = connection.prepareStatement(replaceVariables("DELETE FROM {table} WHERE UUID=?"));
+					PreparedStatement upsert = connection.prepareStatement(replaceVariables(upsertSql != null ? upsertSql : "UPDATE {table} SET Name=?, Data=?, Updated=? WHERE UUID=?"))) {
+
+				int deletes = 0, upserts = 0, deltas = 0;
+
+				for (final SaveQueue.Entry entry : batch) {
+					final String uuid = entry.getUniqueId().toString();
+
+					if (entry.isDelta() && writeDelta(connection, entry))
+						deltas++;
+
+					else if (entry.getSnapshot() == null) {
+						delete.setString(1, uuid);
+						delete.addBatch();
+
+						deletes++;
+
+					} else if (upsertSql != null) {
+						upsert.setString(1, uuid);
+						upsert.setString(2, entry.getName());
+						upsert.setBytes(3, format.encode(entry.getJson()));
+						upsert.setLong(4, entry.getUpdated());
+						upsert.addBatch();
+
+						upserts++;
+
+					} else {
+						final byte[] data = format.encode(entry.getJson());
+
+						upsert.setString(1, entry.getName());
+						upsert.setBytes(2, data);
+						upsert.setLong(3, entry.getUpdated());
+						upsert.setString(4, uuid);
+
+						// No upsert support, insert when there was nothing to update
+						if (upsert.executeUpdate() == 0)
+							try (PreparedStatement insert = connection.prepareStatement(replaceVariables("INSERT INTO {table}(UUID, Name, Data, Updated) VALUES (?, ?, ?, ?)"))) {
+								insert.setString(1, uuid);
+								insert.setString(2, entry.getName());
+								insert.setBytes(3, data);
+								insert.setLong(4, entry.getUpdated());
+								insert.executeUpdate();
+							}
+
+						upserts++;
+					}
+				}
+
+				if (deletes > 0)
+					delete.executeBatch();
+
+				if (upserts > 0 && upsertSql != null)
+					upsert.executeBatch();
+
+				connection.commit();
+
+				final int saved = upserts, merged = deltas, removed = deletes;
+
+				MYSQL_DEBUG.debug(() -> "Wrote " + batch.size() + " queued saves (" + saved + " saved, " + merged + " merged, " + removed + " removed)");
+			}
+		}
+	}
+
+	/*
+	 * Return the table or storage name for messages
+	 */
+	private String getStorageName() {
+		return storage != null ? storage.toString() : "table " + getTable();
+	}
+
+	/*
+	 * Merge only the changed keys into the existing row, returning false if
+	 * the row is missing or not stored as plain JSON
+	 */
+	private boolean writeDelta(final Connection connection, final SaveQueue.Entry entry) throws SQLException {
+		final SerializedMap.Snapshot snapshot = entry.getSnapshot();
+		final List<String> setKeys = new ArrayList<>();
+		final List<String> removedKeys = new ArrayList<>();
+
+		for (final String key : entry.getChangedKeys())
+			(snapshot.getJson(key) != null ? setKeys : removedKeys).add(key);
+
+		final StringBuilder data = new StringBuilder("CONVERT(Data USING utf8mb4)");
+
+		if (!setKeys.isEmpty()) {
+			data.insert(0, "JSON_SET(");
+
+			for (int i = 0; i < setKeys.size(); i++)
+				data.append(", ?, CAST(? AS JSON)");
+
+			data.append(')');
+		}
+
+		if (!removedKeys.isEmpty()) {
+			data.insert(0, "JSON_REMOVE(");
+
+			for (int i = 0; i < removedKeys.size(); i++)
+				data.append(", ?");
+
+			data.append(')');
+		}
+
+		try (PreparedStatement statement = connection.prepareStatement(replaceVariables("UPDATE {table} SET Name=?, Data=" + data + ", Updated=? WHERE UUID=? AND SUBSTRING(Data, 1, 1) = '{'"))) {
+			int index = 1;
+
+			statement.setString(index++, entry.getName());
+
+			for (final String key : setKeys) {
+				statement.setString(index++, toJsonPath(key));
+				statement.setString(index++, snapshot.getJson(key));
+			}
+
+			for (final String key : removedKeys)
+				statement.setString(index++, toJsonPath(key));
+
+			statement.setLong(index++, entry.getUpdated());
+			statement.setString(index++, entry.getUniqueId().toString());
+
+			return statement.executeUpdate() > 0;
+		}
+	}
+
+	/*
+	 * Return the MySQL JSON path pointing to the given top level key
+	 */
+	private static String toJsonPath(final String key) {
+		return "$.\"" + key.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+
+	/*
+	 * Return the insert-or-update statement with UUID, Name, Data and Updated parameters,
+	 * or null if the database does not support one
+	 */
+	private String getUpsertSql() {
+		switch (getDialect()) {
+			case MYSQL:
+				return "INSERT INTO {table}(UUID, Name, Data, Updated) VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE Name=VALUES(Name), Data=VALUES(Data), Updated=VALUES(Updated)";
+
+			case SQLITE:
+			case POSTGRESQL:
+				return "INSERT INTO {table}(UUID, Name, Data, Updated) VALUES (?, ?, ?, ?) ON CONFLICT(UUID) DO UPDATE SET Name=excluded.Name, Data=excluded.Data, Updated=excluded.Updated";
+
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Utility method to finish LagCatcher mysql measure and log
+	 * if there was some lag, or if we detected mysql being run
+	 * from the main thread.
+	 *
+	 * @param operation
+	 */
+	private void logPerformance(final String operation) {
+		final double took = MYSQL_SECTION.took();
+		final boolean isMainThread = Bukkit.isPrimaryThread();
+
+		MYSQL_SECTION.end(isMainThread ? 10 : MathUtil.atLeast(200, SimpleSettings.LAG_THRESHOLD_MILLIS),
+				WordUtils.capitalize(operation) + " data to MySQL took {time} ms" + (took > 10 && isMainThread ? " - To prevent slowing the server, " + operation + " can be made async (carefully)" : ""));
 	}
 
 	/**
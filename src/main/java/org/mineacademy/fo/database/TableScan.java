@@ -0,0 +1,339 @@
+package org.mineacademy.fo.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
+
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.MathUtil;
+import org.mineacademy.fo.Valid;
+import org.mineacademy.fo.collection.SerializedMap;
+import org.mineacademy.fo.database.SimpleDatabase.Dialect;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Iterates over rows of a query one by one without loading the whole
+ * result into memory, use it for leaderboards, purges or exports
+ * on large tables. Create one using {@link SimpleDatabase#scan(String, Object...)}.
+ *
+ * Rows are read with a forward-only, read-only cursor fetching
+ * {@link #fetchSize(int)} rows at a time. On MySQL the driver streams
+ * rows one by one instead, since it ignores the fetch size otherwise.
+ *
+ * Each scan can only be run once.
+ */
+public final class TableScan {
+
+	/**
+	 * The database to borrow the connection from
+	 */
+	private final SimpleDatabase database;
+
+	/**
+	 * The SQL with variables already replaced
+	 */
+	private final String sql;
+
+	/**
+	 * The parameters for the SQL
+	 */
+	private final Object[] params;
+
+	/**
+	 * How many rows the driver fetches at once
+	 */
+	private int fetchSize;
+
+	/**
+	 * Call {@link #progressListener} every this many rows
+	 */
+	private long progressInterval;
+
+	/**
+	 * The progress listener, or null
+	 */
+	private LongConsumer progressListener;
+
+	/**
+	 * The statement being run, used to cancel it
+	 */
+	private volatile PreparedStatement runningStatement;
+
+	/**
+	 * Was the scan cancelled?
+	 */
+	@Getter
+	private volatile boolean cancelled = false;
+
+	/**
+	 * Did the scan start already?
+	 */
+	private volatile boolean started = false;
+
+	/**
+	 * How many rows were read so far
+	 */
+	@Getter
+	private volatile long rowsRead = 0;
+
+	/**
+	 * Create a new scan, see {@link SimpleDatabase#scan(String, Object...)}
+	 *
+	 * @param database
+	 * @param sql
+	 * @param params
+	 */
+	TableScan(final SimpleDatabase database, final String sql, final Object[] params) {
+		this.database = database;
+		this.sql = sql;
+		this.params = params;
+		this.fetchSize = database.getScanFetchSize();
+	}
+
+	/**
+	 * Set how many rows the driver fetches from the database at once
+	 *
+	 * @param fetchSize
+	 * @return
+	 */
+	public TableScan fetchSize(final int fetchSize) {
+		Valid.checkBoolean(fetchSize > 0, "Fetch size must be positive, got " + fetchSize);
+
+		this.fetchSize = fetchSize;
+		return this;
+	}
+
+	/**
+	 * Call the listener with the amount of rows read so far, every given amount of rows
+	 * and once more at the end. The listener runs on the scanning thread.
+	 *
+	 * @param interval
+	 * @param listener
+	 * @return
+	 */
+	public TableScan onProgress(final long interval, @NonNull final LongConsumer listener) {
+		Valid.checkBoolean(interval > 0, "Progress interval must be positive, got " + interval);
+
+		this.progressInterval = interval;
+		this.progressListener = listener;
+		return this;
+	}
+
+	/**
+	 * Stop the scan as soon as possible, may be called from any thread
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Run the scan on this thread, calling the callback for each row.
+	 * Errors are logged.
+	 *
+	 * @param callback
+	 * @return how many rows were read
+	 */
+	public long forEach(@NonNull final RowCallback callback) {
+		try {
+			return run(callback);
+
+		} catch (final SQLException ex) {
+			Common.error(ex, "Error on scanning MySQL with: " + sql);
+
+			return rowsRead;
+		}
+	}
+
+	/**
+	 * Run the scan on the database thread pool, calling the callback for each row
+	 * on that thread. The future completes with how many rows were read.
+	 *
+	 * Errors are logged and complete the future exceptionally.
+	 *
+	 * @param callback
+	 * @return
+	 */
+	public CompletableFuture<Long> forEachAsync(@NonNull final RowCallback callback) {
+		return database.supplyAsync(() -> run(callback), "Error on scanning MySQL with: " + sql);
+	}
+
+	/*
+	 * Iterate over the rows
+	 */
+	private long run(final RowCallback callback) throws SQLException {
+		Valid.checkBoolean(!started, "This scan has already been run, create a new one");
+		started = true;
+
+		final boolean mysql = database.getDialect() == Dialect.MYSQL;
+		final long startTime = System.nanoTime();
+
+		SimpleDatabase.MYSQL_DEBUG.debug(() -> "Scanning MySQL with: " + sql);
+
+		try (Connection connection = database.getPool().getConnection()) {
+
+			// PostgreSQL only uses the fetch size inside a transaction, the pool rolls it back on release
+			if (database.getDialect() == Dialect.POSTGRESQL)
+				connection.setAutoCommit(false);
+
+			try (PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+				statement.setFetchSize(mysql ? Integer.MIN_VALUE : fetchSize);
+				SimpleDatabase.bind(statement, params);
+
+				runningStatement = statement;
+
+				try (ResultSet resultSet = statement.executeQuery()) {
+					final Row row = new Row(resultSet);
+
+					while (!cancelled && resultSet.next()) {
+						row.advance();
+						callback.accept(row);
+
+						rowsRead = row.number;
+
+						if (progressListener != null && row.number % progressInterval == 0)
+							progressListener.accept(row.number);
+					}
+
+					// Closing a streamed result drains the remaining rows, abort the query instead
+					if (cancelled)
+						cancelRunningStatement();
+				}
+
+			} finally {
+				runningStatement = null;
+			}
+		}
+
+		if (progressListener != null)
+			progressListener.accept(rowsRead);
+
+		SimpleDatabase.MYSQL_DEBUG.debug(() -> "Scanned " + rowsRead + " rows" + (cancelled ? " (cancelled)" : "") + " in " + MathUtil.formatTwoDigits((System.nanoTime() - startTime) / 1_000_000D) + " ms");
+
+		return rowsRead;
+	}
+
+	/*
+	 * Ask the database to stop sending rows, ignoring drivers that do not support it
+	 */
+	private void cancelRunningStatement() {
+		final PreparedStatement statement = runningStatement;
+
+		if (statement != null)
+			try {
+				statement.cancel();
+
+			} catch (final SQLException ex) {
+				// Not supported, the driver will read the remaining rows
+			}
+	}
+
+	/**
+	 * Receives each row of a {@link TableScan}
+	 */
+	@FunctionalInterface
+	public interface RowCallback {
+
+		/**
+		 * Handle the row, call {@link Row#cancel()} to stop the scan
+		 *
+		 * @param row
+		 * @throws SQLException
+		 */
+		void accept(Row row) throws SQLException;
+	}
+
+	/**
+	 * The current row of a {@link TableScan}
+	 *
+	 * The same instance is reused for every row to keep memory use flat,
+	 * so do not keep it after the callback returns.
+	 */
+	public final class Row {
+
+		/**
+		 * The result set positioned on this row
+		 */
+		@Getter
+		private final ResultSet resultSet;
+
+		/**
+		 * Maps parsed from JSON columns of this row, by column
+		 */
+		private final Map<String, SerializedMap> parsedMaps = new HashMap<>();
+
+		/**
+		 * The 1-based number of this row
+		 */
+		@Getter
+		private long number = 0;
+
+		private Row(final ResultSet resultSet) {
+			this.resultSet = resultSet;
+		}
+
+		/*
+		 * Move on to the next row
+		 */
+		private void advance() {
+			number++;
+			parsedMaps.clear();
+		}
+
+		/**
+		 * Return the string value of the given column
+		 *
+		 * @param column
+		 * @return
+		 * @throws SQLException
+		 */
+		public String getString(final String column) throws SQLException {
+			return resultSet.getString(column);
+		}
+
+		/**
+		 * Return the long value of the given column
+		 *
+		 * @param column
+		 * @return
+		 * @throws SQLException
+		 */
+		public long getLong(final String column) throws SQLException {
+			return resultSet.getLong(column);
+		}
+
+		/**
+		 * Return the JSON stored in the given column as a map. The column is
+		 * only parsed when you first call this for the row, and may be text or
+		 * binary in any {@link DataFormat}.
+		 *
+		 * @param column
+		 * @return the map, empty if the column is null
+		 * @throws SQLException
+		 */
+		public SerializedMap getMap(final String column) throws SQLException {
+			SerializedMap map = parsedMaps.get(column);
+
+			if (map == null) {
+				map = SerializedMap.fromJson(DataFormat.decode(resultSet.getBytes(column)));
+
+				parsedMaps.put(column, map);
+			}
+
+			return map;
+		}
+
+		/**
+		 * Stop the scan after this row
+		 */
+		public void cancel() {
+			TableScan.this.cancel();
+		}
+	}
+}
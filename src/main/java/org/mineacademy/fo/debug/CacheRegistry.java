@@ -0,0 +1,388 @@
+package org.mineacademy.fo.debug;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.bukkit.Location;
+import org.bukkit.scheduler.BukkitTask;
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.MathUtil;
+import org.mineacademy.fo.collection.StrictList;
+import org.mineacademy.fo.collection.StrictMap;
+import org.mineacademy.fo.collection.StrictSet;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * A registry of our long-living maps and collections reporting how many entries
+ * they hold and roughly how much memory they retain, warning when one keeps growing.
+ *
+ * Register a cache where it is created, caches with the same name are reported
+ * together, so per-instance caches such as command cooldowns are summed up.
+ * Caches are weakly referenced and forgotten once collected.
+ *
+ * Retained bytes are estimated from a sample of entries using typical
+ * 64-bit JVM object sizes, treat them as an order of magnitude.
+ * Caches are read without locking them, so only report on the main thread.
+ */
+public final class CacheRegistry {
+
+	/**
+	 * How many entries we measure for each cache, the rest is extrapolated
+	 */
+	private static final int SAMPLE_SIZE = 32;
+
+	/**
+	 * How deep we measure nested maps and collections
+	 */
+	private static final int MAX_DEPTH = 2;
+
+	/**
+	 * The approximate size of a map entry or collection node in bytes
+	 */
+	private static final int ENTRY_OVERHEAD = 48;
+
+	/**
+	 * How many checks in a row a cache must grow before we warn
+	 */
+	private static final int GROWTH_CHECKS = 6;
+
+	/**
+	 * Caches smaller than this are never reported as growing
+	 */
+	private static final int MIN_WARN_SIZE = 1_000;
+
+	/**
+	 * All registered caches
+	 */
+	private static final List<Registration> registrations = new CopyOnWriteArrayList<>();
+
+	/**
+	 * How each cache changed between checks, by name
+	 */
+	private static final Map<String, Growth> growths = new ConcurrentHashMap<>();
+
+	private CacheRegistry() {
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Registering
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Register the map under the given name, returning it
+	 *
+	 * @param <T>
+	 * @param name
+	 * @param map
+	 * @return the map
+	 */
+	public static <T extends Map<?, ?>> T register(@NonNull final String name, @NonNull final T map) {
+		registrations.add(new Registration(name, map));
+
+		return map;
+	}
+
+	/**
+	 * Register the collection under the given name, returning it
+	 *
+	 * @param <T>
+	 * @param name
+	 * @param collection
+	 * @return the collection
+	 */
+	public static <T extends Collection<?>> T register(@NonNull final String name, @NonNull final T collection) {
+		registrations.add(new Registration(name, collection));
+
+		return collection;
+	}
+
+	/**
+	 * Register the map under the given name, returning it
+	 *
+	 * @param <E>
+	 * @param <T>
+	 * @param name
+	 * @param map
+	 * @return the map
+	 */
+	public static <E, T> StrictMap<E, T> register(@NonNull final String name, @NonNull final StrictMap<E, T> map) {
+		register(name, map.getSource());
+
+		return map;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Reporting
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Return the footprint of each cache, the largest first
+	 *
+	 * @return
+	 */
+	public static List<Footprint> getFootprints() {
+		final Map<String, Footprint> footprints = new LinkedHashMap<>();
+
+		for (final Registration registration : registrations) {
+			final Object cache = registration.cache.get();
+
+			if (cache == null) {
+				registrations.remove(registration);
+
+				continue;
+			}
+
+			final Footprint footprint = footprints.computeIfAbsent(registration.name, Footprint::new);
+
+			footprint.instances++;
+			footprint.entries += sizeOf(cache);
+			footprint.bytes += estimate(cache, 0);
+		}
+
+		final List<Footprint> sorted = new ArrayList<>(footprints.values());
+		sorted.sort((first, second) -> Long.compare(second.bytes, first.bytes));
+
+		return sorted;
+	}
+
+	/**
+	 * Return one line for each cache, the largest first
+	 *
+	 * @return
+	 */
+	public static List<String> getReport() {
+		final List<String> lines = new ArrayList<>();
+		long total = 0;
+
+		for (final Footprint footprint : getFootprints()) {
+			lines.add(footprint.toString());
+
+			total += footprint.bytes;
+		}
+
+		if (!lines.isEmpty())
+			lines.add("Total: ~" + formatBytes(total));
+
+		return lines;
+	}
+
+	/**
+	 * Check caches for growth every given amount of seconds on the main thread,
+	 * warning in the console when one keeps growing and optionally logging
+	 * a line with all cache sizes
+	 *
+	 * @param periodSeconds
+	 * @param logReport
+	 * @return the task, cancel it to stop checking
+	 */
+	public static BukkitTask scheduleChecks(final int periodSeconds, final boolean logReport) {
+		final int periodTicks = MathUtil.atLeast(periodSeconds, 1) * 20;
+
+		return Common.runTimer(periodTicks, periodTicks, () -> check(logReport));
+	}
+
+	/**
+	 * Check all caches for growth now, warning when one grew in each of the
+	 * last 6 checks and doubled since we last warned about it
+	 *
+	 * @param logReport also log a line with all cache sizes
+	 */
+	public static void check(final boolean logReport) {
+		final List<Footprint> footprints = getFootprints();
+		final StringBuilder report = new StringBuilder();
+
+		for (final Footprint footprint : footprints) {
+			final Growth growth = growths.computeIfAbsent(footprint.name, name -> new Growth());
+
+			growth.streak = footprint.entries > growth.lastEntries ? growth.streak + 1 : 0;
+			growth.lastEntries = footprint.entries;
+
+			if (growth.streak >= GROWTH_CHECKS && footprint.entries >= MIN_WARN_SIZE && footprint.entries >= growth.warnedEntries * 2) {
+				growth.warnedEntries = footprint.entries;
+
+				Common.log("&cCache '" + footprint.name + "' grew in each of the last " + growth.streak + " checks to " + footprint.entries + " entries (~" + formatBytes(footprint.bytes) + "), it may be leaking.");
+			}
+
+			if (logReport && footprint.entries > 0)
+				report.append(report.length() == 0 ? "" : ", ").append(footprint.name).append(' ').append(footprint.entries).append(" (~").append(formatBytes(footprint.bytes)).append(')');
+		}
+
+		if (logReport && report.length() > 0)
+			Common.log("Caches: " + report);
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Estimating
+	// ------------------------------------------------------------------------------------------------------------
+
+	/*
+	 * Return how many entries the cache holds
+	 */
+	private static int sizeOf(final Object cache) {
+		return cache instanceof Map ? ((Map<?, ?>) cache).size() : ((Collection<?>) cache).size();
+	}
+
+	/*
+	 * Estimate the bytes the object retains, shared objects such as enums count as nothing
+	 */
+	private static long estimate(final Object object, final int depth) {
+		if (object == null || object instanceof Enum || object instanceof Class)
+			return 0;
+
+		if (object instanceof String)
+			return align(40 + 2L * ((String) object).length());
+
+		if (object instanceof Long || object instanceof Double)
+			return 24;
+
+		if (object instanceof Number || object instanceof Boolean || object instanceof Character)
+			return 16;
+
+		if (object instanceof UUID)
+			return 32;
+
+		if (object instanceof Location)
+			return 56;
+
+		if (object instanceof StrictMap)
+			return estimate(((StrictMap<?, ?>) object).getSource(), depth);
+
+		if (object instanceof StrictList)
+			return estimate(((StrictList<?>) object).getSource(), depth);
+
+		if (object instanceof StrictSet)
+			return estimate(((StrictSet<?>) object).getSource(), depth);
+
+		if (object instanceof Map)
+			return 64 + estimateEntries(((Map<?, ?>) object).entrySet(), depth);
+
+		if (object instanceof Collection)
+			return 64 + estimateEntries((Collection<?>) object, depth);
+
+		if (object instanceof Object[])
+			return align(16 + 4L * ((Object[]) object).length);
+
+		if (object instanceof byte[])
+			return align(16 + ((byte[]) object).length);
+
+		return 32;
+	}
+
+	/*
+	 * Estimate the entries from a sample, extrapolating it to all of them
+	 */
+	private static long estimateEntries(final Collection<?> entries, final int depth) {
+		final int size = entries.size();
+
+		if (size == 0)
+			return 0;
+
+		if (depth >= MAX_DEPTH)
+			return (long) size * (ENTRY_OVERHEAD + 32);
+
+		long sampled = 0;
+		int count = 0;
+
+		try {
+			for (final Iterator<?> iterator = entries.iterator(); iterator.hasNext() && count < SAMPLE_SIZE; count++) {
+				final Object entry = iterator.next();
+
+				if (entry instanceof Map.Entry)
+					sampled += estimate(((Map.Entry<?, ?>) entry).getKey(), depth + 1) + estimate(((Map.Entry<?, ?>) entry).getValue(), depth + 1);
+				else
+					sampled += estimate(entry, depth + 1);
+			}
+
+		} catch (final RuntimeException ex) {
+			// Modified while sampling, use what we measured so far
+		}
+
+		final long perEntry = ENTRY_OVERHEAD + (count == 0 ? 32 : sampled / count);
+
+		return perEntry * size;
+	}
+
+	private static long align(final long bytes) {
+		return (bytes + 7) & ~7;
+	}
+
+	private static String formatBytes(final long bytes) {
+		if (bytes < 1024)
+			return bytes + " B";
+
+		if (bytes < 1024 * 1024)
+			return MathUtil.formatTwoDigits(bytes / 1024D) + " KB";
+
+		return MathUtil.formatTwoDigits(bytes / 1024D / 1024D) + " MB";
+	}
+
+	/**
+	 * The footprint of all caches registered under one name
+	 */
+	@Getter
+	public static final class Footprint {
+
+		/**
+		 * The cache name
+		 */
+		private final String name;
+
+		/**
+		 * How many caches are registered under this name
+		 */
+		private int instances;
+
+		/**
+		 * How many entries the caches hold
+		 */
+		private long entries;
+
+		/**
+		 * Roughly how many bytes the caches retain
+		 */
+		private long bytes;
+
+		private Footprint(final String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return name + (instances > 1 ? " (" + instances + "x)" : "") + ": " + entries + " entries, ~" + formatBytes(bytes);
+		}
+	}
+
+	/**
+	 * A registered cache
+	 */
+	private static final class Registration {
+
+		private final String name;
+		private final WeakReference<Object> cache;
+
+		private Registration(final String name, final Object cache) {
+			this.name = name;
+			this.cache = new WeakReference<>(cache);
+		}
+	}
+
+	/**
+	 * How a cache changed between checks
+	 */
+	private static final class Growth {
+
+		private long lastEntries;
+		private int streak;
+		private long warnedEntries;
+	}
+}
@@ -3,14 +3,18 @@ package org.mineacademy.fo.debug;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang.StringUtils;
 import org.bukkit.Bukkit;
 import org.mineacademy.fo.Common;
-import org.mineacademy.fo.FileUtil;
 import org.mineacademy.fo.TimeUtil;
 import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.constants.FoConstants;
@@ -21,6 +25,7 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 
 /**
  * Utility class for solving problems and errors
@@ -35,6 +40,16 @@ public final class Debugger {
 	 */
 	private static final Map<String, ArrayList<String>> pendingMessages = new HashMap<>();
 
+	/**
+	 * Sections from {@link #section(String)} by their name
+	 */
+	private static final Map<String, Section> sections = new ConcurrentHashMap<>();
+
+	/**
+	 * The debugged sections from the last {@link #reloadSections(Collection)} call
+	 */
+	private static volatile Set<String> debuggedSections = new HashSet<>();
+
 	/**
 	 * The debug mode is automatically detected when the debug.lock file is present in the plugin folder
 	 */
@@ -64,17 +79,35 @@ public final class Debugger {
 	 * @param messages
 	 */
 	public static void debug(String section, String... messages) {
-		if (isDebugged(section)) {
-			for (final String message : messages)
-				if (SimplePlugin.hasInstance())
-					Common.log("[" + section + "] " + message);
-				else
-					System.out.println("[" + section + "] " + message);
+		if (isDebugged(section))
+			log(section, messages);
+	}
+
+	/**
+	 * Prints a debug message to the console if the given section is being debugged,
+	 * the message is only created when it is
+	 *
+	 * @param section
+	 * @param message
+	 */
+	public static void debug(String section, Supplier<String> message) {
+		if (isDebugged(section))
+			debug(section, message.get());
+	}
 
+	/*
+	 * Print the messages to the console and the debug log
+	 */
+	private static void log(String section, String... messages) {
+		for (final String message : messages)
 			if (SimplePlugin.hasInstance())
-				for (final String message : messages)
-					FileUtil.writeFormatted(FoConstants.File.DEBUG, "[" + section + "]", message);
-		}
+				Common.log("[" + section + "] " + message);
+			else
+				System.out.println("[" + section + "] " + message);
+
+		if (SimplePlugin.hasInstance())
+			for (final String message : messages)
+				LogWriter.writeFormatted(FoConstants.File.DEBUG, "[" + section + "]", message);
 	}
 
 	/**
@@ -140,6 +173,118 @@ public final class Debugger {
 		return SimpleSettings.DEBUG_SECTIONS.contains(section) || SimpleSettings.DEBUG_SECTIONS.contains("*");
 	}
 
+	// ----------------------------------------------------------------------------------------------------
+	// Sections
+	// ----------------------------------------------------------------------------------------------------
+
+	/**
+	 * Return the section for the given name, registering it if new.
+	 *
+	 * Store it in a static field and use it instead of the methods taking
+	 * section names, checking if it is debugged is then only a field read.
+	 *
+	 * @param name
+	 * @return
+	 */
+	public static Section section(@NonNull String name) {
+		return sections.computeIfAbsent(name, key -> {
+			final Section section = new Section(key);
+			section.enabled = isDebugged(key, debuggedSections);
+
+			return section;
+		});
+	}
+
+	/**
+	 * Update which sections are debugged, called automatically
+	 * when Debug is loaded from your settings
+	 *
+	 * @param debugged
+	 */
+	public static void reloadSections(@NonNull Collection<String> debugged) {
+		final Set<String> copy = new HashSet<>(debugged);
+
+		debuggedSections = copy;
+
+		for (final Section section : sections.values())
+			section.enabled = isDebugged(section.name, copy);
+	}
+
+	private static boolean isDebugged(String section, Set<String> debugged) {
+		return debugged.contains(section) || debugged.contains("*");
+	}
+
+	/**
+	 * Represents a debug section resolved when settings load, see {@link Debugger#section(String)}
+	 */
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	public static final class Section {
+
+		/**
+		 * The section name
+		 */
+		@Getter
+		private final String name;
+
+		/**
+		 * Is this section debugged?
+		 */
+		private volatile boolean enabled = false;
+
+		/**
+		 * Return true if this section is debugged
+		 *
+		 * @return
+		 */
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		/**
+		 * Prints debug messages if this section is debugged
+		 *
+		 * @param messages
+		 */
+		public void debug(String... messages) {
+			if (enabled)
+				log(name, messages);
+		}
+
+		/**
+		 * Prints a debug message if this section is debugged,
+		 * the message is only created when it is
+		 *
+		 * @param message
+		 */
+		public void debug(Supplier<String> message) {
+			if (enabled)
+				log(name, message.get());
+		}
+
+		/**
+		 * Puts a message into the queue if this section is debugged, see {@link Debugger#put(String, String)}
+		 *
+		 * @param message
+		 */
+		public void put(String message) {
+			if (enabled)
+				Debugger.put(name, message);
+		}
+
+		/**
+		 * Prints the queued messages if this section is debugged, see {@link Debugger#push(String)}
+		 */
+		public void push() {
+			if (enabled)
+				Debugger.push(name);
+		}
+
+		@Override
+		public String toString() {
+			return "Debugger.Section{" + name + ", enabled=" + enabled + "}";
+		}
+	}
+
 	// ----------------------------------------------------------------------------------------------------
 	// Saving errors to file
 	// ----------------------------------------------------------------------------------------------------
@@ -198,7 +343,7 @@ public final class Debugger {
 		Common.log(header + "! Please check your error.log and report this issue with the information in that file.");
 
 		// Finally, save the error file
-		FileUtil.write(FoConstants.File.ERRORS, lines);
+		LogWriter.write(FoConstants.File.ERRORS, LogWriter.OverflowPolicy.BLOCK, lines);
 	}
 
 	private static void fill(List<String> list, String... messages) {
@@ -1,39 +1,116 @@
 package org.mineacademy.fo.debug;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.bukkit.scheduler.BukkitTask;
 import org.mineacademy.fo.Common;
 import org.mineacademy.fo.MathUtil;
 import org.mineacademy.fo.plugin.SimplePlugin;
 import org.mineacademy.fo.settings.SimpleSettings;
 
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
 /**
  * A simple yet effective way to calculate duration
  * between two points in code
+ *
+ * Each thread keeps its own stack of started sections, so sections may be
+ * measured from async threads at the same time, nested, or started again
+ * while already running. Every finished measurement is also recorded into
+ * the {@link LatencyHistogram} of its section, see {@link #getReport()}.
+ *
+ * For code running often, get a {@link Section} once using {@link #section(String)}
+ * and call its methods instead of the ones taking section names.
+ *
+ * Nothing is measured when Log_Lag_Over_Milis in settings is -1.
  */
 public final class LagCatcher {
 
 	/**
-	 * Stores the name of a code section and the initial time in ms when
-	 * it was put there
+	 * How many sections we register from names, sections over it are measured
+	 * but recorded together
 	 */
-	private static final HashMap<String, Long> timings = new HashMap<>();
+	private static final int MAX_SECTIONS = 512;
+
+	/**
+	 * How many sections may be started on one thread, the oldest are forgotten
+	 * when exceeded so that sections never stopped do not leak
+	 */
+	private static final int MAX_DEPTH = 64;
+
+	/**
+	 * Registered sections by their name
+	 */
+	private static final Map<String, Section> sections = new ConcurrentHashMap<>();
+
+	/**
+	 * Sections over {@link #MAX_SECTIONS} are recorded here
+	 */
+	private static final Section OTHER_SECTION = new Section("(other sections)");
+
+	/**
+	 * Started sections of each thread
+	 */
+	private static final ThreadLocal<TimingStack> stacks = ThreadLocal.withInitial(TimingStack::new);
 
 	private LagCatcher() {
 	}
 
+	// ------------------------------------------------------------------------------------------------------------
+	// Sections
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Return the section for the given name, registering it if new.
+	 * Store it in a field for code running often.
+	 *
+	 * @param name
+	 * @return
+	 */
+	public static Section section(@NonNull final String name) {
+		return sections.computeIfAbsent(name, Section::new);
+	}
+
+	/*
+	 * Return the section for a name used with the string methods,
+	 * limiting how many of them we register
+	 */
+	private static Section lookup(final String name) {
+		final Section section = sections.get(name);
+
+		if (section != null)
+			return section;
+
+		return sections.size() < MAX_SECTIONS ? section(name) : OTHER_SECTION;
+	}
+
 	/**
-	 * Puts the code section with the current ms time to the timings map
+	 * Return all registered sections
+	 *
+	 * @return
+	 */
+	public static List<Section> getSections() {
+		return new ArrayList<>(sections.values());
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Measuring by name
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Starts measuring the code section on this thread
 	 *
 	 * @param section
 	 */
 	public static void start(String section) {
-		if (SimpleSettings.LAG_THRESHOLD_MILLIS == -1)
-			return;
-
-		timings.put(section, System.nanoTime());
+		lookup(section).start();
 	}
 
 	/**
@@ -80,17 +157,9 @@ public final class LagCatcher {
 	 * @param message
 	 */
 	public static void end(String section, int thresholdMs, String message) {
-		final double lag = finishAndCalculate(section);
-
-		if (lag > thresholdMs && SimpleSettings.LAG_THRESHOLD_MILLIS != -1) {
-			message = message.replace("{section}", section);
-			message = message.replace("{time}", MathUtil.formatTwoDigits(lag));
+		final long nanos = lookup(section).stop();
 
-			if (SimplePlugin.hasInstance())
-				Common.logNoPrefix("[{plugin_name} {plugin_version}] " + message);
-			else
-				System.out.println("[LagCatcher] " + message);
-		}
+		logIfOver(section, nanos, thresholdMs, message);
 	}
 
 	/**
@@ -102,9 +171,17 @@ public final class LagCatcher {
 	 * @return the time in 00.000 format, in milliseconds, or 0 if not measured
 	 */
 	public static double endTook(String section) {
-		final Long nanoTime = timings.get(section);
+		return lookup(section).took();
+	}
 
-		return calculate(nanoTime);
+	/**
+	 * Calculates how long a section took (in ms) and stops measuring it
+	 *
+	 * @param section
+	 * @return
+	 */
+	public static double finishAndCalculate(String section) {
+		return toMillis(lookup(section).stop());
 	}
 
 	/**
@@ -112,37 +189,281 @@ public final class LagCatcher {
 	 * after each other, compounding the lag time together to see how long the
 	 * execution takes when it is multiplied
 	 *
+	 * For precise measurements without a server, write a JMH benchmark
+	 * in src/jmh/java and run it using the benchmark profile in pom.xml
+	 *
 	 * @param cycles
 	 * @param name the lag section name
 	 * @param code
 	 */
 	public static void testPerformance(int cycles, String name, Runnable code) {
-		LagCatcher.start(name + "-whole");
-
-		final List<Double> lagMap = new ArrayList<>();
+		final LatencyHistogram histogram = new LatencyHistogram();
+		final long start = System.nanoTime();
 
 		for (int i = 0; i < cycles; i++) {
-			LagCatcher.start(name);
+			final long cycleStart = System.nanoTime();
+
 			code.run();
-			lagMap.add(finishAndCalculate(name));
+			histogram.record(System.nanoTime() - cycleStart);
 		}
 
-		System.out.println("Test '" + name + "' took " + MathUtil.formatTwoDigits(finishAndCalculate(name + "-whole")) + " ms. Average " + MathUtil.average(lagMap) + " ms");
+		System.out.println("Test '" + name + "' took " + MathUtil.formatTwoDigits(toMillis(System.nanoTime() - start)) + " ms. Average " + MathUtil.formatTwoDigits(histogram.getMeanMillis()) + " ms, " + histogram);
 	}
 
+	// ------------------------------------------------------------------------------------------------------------
+	// Reporting
+	// ------------------------------------------------------------------------------------------------------------
+
 	/**
-	 * Calculates how long a section took (in ms) and removes it from the timings map
+	 * Return one line for each section that was measured, those taking the most time in total first
 	 *
-	 * @param section
 	 * @return
 	 */
-	public static double finishAndCalculate(String section) {
-		final Long nanoTime = timings.remove(section);
+	public static List<String> getReport() {
+		final List<Section> measured = new ArrayList<>();
+
+		for (final Section section : sections.values())
+			if (section.histogram.getCount() > 0)
+				measured.add(section);
+
+		if (OTHER_SECTION.histogram.getCount() > 0)
+			measured.add(OTHER_SECTION);
+
+		measured.sort((first, second) -> Double.compare(second.histogram.getTotalMillis(), first.histogram.getTotalMillis()));
+
+		final List<String> lines = new ArrayList<>();
+
+		for (final Section section : measured)
+			lines.add(section.name + ": total=" + MathUtil.formatTwoDigits(section.histogram.getTotalMillis()) + " ms " + section.histogram);
+
+		return lines;
+	}
+
+	/**
+	 * Log the report to the console every given amount of seconds,
+	 * optionally clearing the histograms after each report so that
+	 * each report covers only its period
+	 *
+	 * @param periodSeconds
+	 * @param reset
+	 * @return the task, cancel it to stop reporting
+	 */
+	public static BukkitTask scheduleReport(final int periodSeconds, final boolean reset) {
+		final int periodTicks = MathUtil.atLeast(periodSeconds, 1) * 20;
+
+		return Common.runTimerAsync(periodTicks, periodTicks, () -> {
+			final List<String> report = getReport();
+
+			if (reset)
+				reset();
+
+			if (!report.isEmpty()) {
+				report.add(0, "Lag report for the last " + periodSeconds + " seconds" + (reset ? "" : " (cumulative)") + ":");
 
-		return calculate(nanoTime);
+				Common.logNoPrefix(report.toArray(new String[report.size()]));
+			}
+		});
 	}
 
-	private static double calculate(Long nanoTime) {
-		return nanoTime == null ? 0D : (System.nanoTime() - nanoTime) / 1_000_000D;
+	/**
+	 * Clear the histograms of all sections
+	 */
+	public static void reset() {
+		for (final Section section : sections.values())
+			section.histogram.reset();
+
+		OTHER_SECTION.histogram.reset();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Helpers
+	// ------------------------------------------------------------------------------------------------------------
+
+	/*
+	 * Log the message when the measured time is over the threshold
+	 */
+	private static void logIfOver(final String section, final long nanos, final int thresholdMs, String message) {
+		final double lag = toMillis(nanos);
+
+		if (nanos >= 0 && lag > thresholdMs && SimpleSettings.LAG_THRESHOLD_MILLIS != -1) {
+			message = message.replace("{section}", section);
+			message = message.replace("{time}", MathUtil.formatTwoDigits(lag));
+
+			if (SimplePlugin.hasInstance())
+				Common.logNoPrefix("[{plugin_name} {plugin_version}] " + message);
+			else
+				System.out.println("[LagCatcher] " + message);
+		}
+	}
+
+	private static double toMillis(final long nanos) {
+		return nanos < 0 ? 0D : nanos / 1_000_000D;
+	}
+
+	/**
+	 * Represents a measured code section, get it from {@link LagCatcher#section(String)}
+	 */
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	public static final class Section {
+
+		/**
+		 * The section name
+		 */
+		@Getter
+		private final String name;
+
+		/**
+		 * How long this section took
+		 */
+		@Getter
+		private final LatencyHistogram histogram = new LatencyHistogram();
+
+		/**
+		 * Start measuring this section on this thread
+		 */
+		public void start() {
+			if (SimpleSettings.LAG_THRESHOLD_MILLIS == -1)
+				return;
+
+			stacks.get().push(this, System.nanoTime());
+		}
+
+		/**
+		 * Stop measuring this section, recording how long it took
+		 *
+		 * @return how long it took in nanoseconds, or -1 if it was not started on this thread
+		 */
+		public long stop() {
+			final long start = stacks.get().pop(this);
+
+			if (start == -1)
+				return -1;
+
+			final long nanos = System.nanoTime() - start;
+			histogram.record(nanos);
+
+			return nanos;
+		}
+
+		/**
+		 * Stop measuring this section and log the message when it took
+		 * over the given threshold
+		 *
+		 * Use {section} and {time} to replace the section name and how long it took
+		 *
+		 * @param thresholdMs
+		 * @param message
+		 * @return how long it took in milliseconds, or 0 if it was not started
+		 */
+		public double end(final int thresholdMs, final String message) {
+			final long nanos = stop();
+
+			logIfOver(name, nanos, thresholdMs, message);
+
+			return toMillis(nanos);
+		}
+
+		/**
+		 * Stop measuring this section and log when it took over the threshold set in {@link SimpleSettings}
+		 *
+		 * @return how long it took in milliseconds, or 0 if it was not started
+		 */
+		public double end() {
+			return end(SimpleSettings.LAG_THRESHOLD_MILLIS, "{section} took {time} ms");
+		}
+
+		/**
+		 * Return how long the section runs on this thread in milliseconds,
+		 * without stopping it
+		 *
+		 * @return the time, or 0 if not started
+		 */
+		public double took() {
+			final long start = stacks.get().peek(this);
+
+			return start == -1 ? 0D : toMillis(System.nanoTime() - start);
+		}
+
+		@Override
+		public String toString() {
+			return "Section{" + name + ", " + histogram + "}";
+		}
+	}
+
+	/**
+	 * The sections started on one thread, most recently started last
+	 */
+	private static final class TimingStack {
+
+		/**
+		 * The started sections
+		 */
+		private Section[] sections = new Section[8];
+
+		/**
+		 * When each section was started
+		 */
+		private long[] starts = new long[8];
+
+		/**
+		 * How many sections are started
+		 */
+		private int size = 0;
+
+		/*
+		 * Start the section
+		 */
+		private void push(final Section section, final long start) {
+			if (size == MAX_DEPTH) {
+				System.arraycopy(sections, 1, sections, 0, size - 1);
+				System.arraycopy(starts, 1, starts, 0, size - 1);
+
+				size--;
+
+			} else if (size == sections.length) {
+				sections = Arrays.copyOf(sections, size * 2);
+				starts = Arrays.copyOf(starts, size * 2);
+			}
+
+			sections[size] = section;
+			starts[size++] = start;
+		}
+
+		/*
+		 * Stop the most recently started matching section, forgetting sections started
+		 * after it that were never stopped, and return its start time or -1 if not started
+		 */
+		private long pop(final Section section) {
+			final int index = find(section);
+
+			if (index == -1)
+				return -1;
+
+			final long start = starts[index];
+
+			for (int i = index; i < size; i++)
+				sections[i] = null;
+
+			size = index;
+
+			return start;
+		}
+
+		/*
+		 * Return the start time of the most recently started matching section, or -1
+		 */
+		private long peek(final Section section) {
+			final int index = find(section);
+
+			return index == -1 ? -1 : starts[index];
+		}
+
+		private int find(final Section section) {
+			for (int i = size - 1; i >= 0; i--)
+				if (sections[i] == section)
+					return i;
+
+			return -1;
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,202 @@
+package org.mineacademy.fo.debug;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.mineacademy.fo.MathUtil;
+
+/**
+ * A fixed size, thread-safe histogram of durations
+ *
+ * Durations are recorded in microseconds into logarithmic buckets, each
+ * power of two being split into 8 buckets, so percentiles are accurate
+ * within 12.5% while recording never allocates or locks. The maximum
+ * is tracked exactly.
+ */
+public final class LatencyHistogram {
+
+	/**
+	 * Durations below this many microseconds have their own bucket
+	 */
+	private static final int LINEAR_BUCKETS = 16;
+
+	/**
+	 * How many buckets each power of two is split into, must be a power of two
+	 */
+	private static final int SUB_BUCKETS = 8;
+
+	/**
+	 * log2 of {@link #SUB_BUCKETS}
+	 */
+	private static final int SUB_BUCKET_BITS = 3;
+
+	/**
+	 * The highest power of two we track, durations above are put into the last bucket
+	 */
+	private static final int MAX_EXPONENT = 40;
+
+	/**
+	 * The total amount of buckets
+	 */
+	private static final int BUCKETS = LINEAR_BUCKETS + (MAX_EXPONENT - 4) * SUB_BUCKETS + 1;
+
+	/**
+	 * How many durations are in each bucket
+	 */
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	/**
+	 * How many durations were recorded
+	 */
+	private final AtomicLong count = new AtomicLong();
+
+	/**
+	 * The sum of all durations in microseconds
+	 */
+	private final AtomicLong totalMicros = new AtomicLong();
+
+	/**
+	 * The longest duration in microseconds
+	 */
+	private final AtomicLong maxMicros = new AtomicLong();
+
+	/**
+	 * Record a duration
+	 *
+	 * @param nanos the duration in nanoseconds
+	 */
+	public void record(final long nanos) {
+		final long micros = Math.max(0, nanos / 1000);
+
+		counts.incrementAndGet(getBucket(micros));
+		count.incrementAndGet();
+		totalMicros.addAndGet(micros);
+
+		long max;
+
+		while (micros > (max = maxMicros.get()) && !maxMicros.compareAndSet(max, micros))
+			;
+	}
+
+	/**
+	 * Return how many durations were recorded
+	 *
+	 * @return
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Return the sum of all durations in milliseconds
+	 *
+	 * @return
+	 */
+	public double getTotalMillis() {
+		return totalMicros.get() / 1000D;
+	}
+
+	/**
+	 * Return the average duration in milliseconds, or 0 if nothing was recorded
+	 *
+	 * @return
+	 */
+	public double getMeanMillis() {
+		final long count = this.count.get();
+
+		return count == 0 ? 0 : totalMicros.get() / 1000D / count;
+	}
+
+	/**
+	 * Return the longest duration in milliseconds
+	 *
+	 * @return
+	 */
+	public double getMaxMillis() {
+		return maxMicros.get() / 1000D;
+	}
+
+	/**
+	 * Return the duration in milliseconds under which the given
+	 * percentage of durations fall, or 0 if nothing was recorded
+	 *
+	 * @param percentile from 0 to 100
+	 * @return
+	 */
+	public double getPercentileMillis(final double percentile) {
+		long total = 0;
+		final long[] snapshot = new long[BUCKETS];
+
+		for (int i = 0; i < BUCKETS; i++)
+			total += snapshot[i] = counts.get(i);
+
+		if (total == 0)
+			return 0;
+
+		final long rank = Math.max(1, (long) Math.ceil(total * MathUtil.range(percentile, 0, 100) / 100D));
+		long seen = 0;
+
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+
+			if (seen >= rank)
+				return Math.min(getUpperBound(i), maxMicros.get()) / 1000D;
+		}
+
+		return getMaxMillis();
+	}
+
+	/**
+	 * Forget all recorded durations
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++)
+			counts.set(i, 0);
+
+		count.set(0);
+		totalMicros.set(0);
+		maxMicros.set(0);
+	}
+
+	/**
+	 * Return a short summary such as "count=10 p50=1.2 p95=3.4 p99=5.6 max=7.8 ms"
+	 */
+	@Override
+	public String toString() {
+		return "count=" + getCount()
+				+ " p50=" + MathUtil.formatTwoDigits(getPercentileMillis(50))
+				+ " p95=" + MathUtil.formatTwoDigits(getPercentileMillis(95))
+				+ " p99=" + MathUtil.formatTwoDigits(getPercentileMillis(99))
+				+ " max=" + MathUtil.formatTwoDigits(getMaxMillis()) + " ms";
+	}
+
+	/*
+	 * Return the bucket for the given duration
+	 */
+	private static int getBucket(final long micros) {
+		if (micros < LINEAR_BUCKETS)
+			return (int) micros;
+
+		final int exponent = 63 - Long.numberOfLeadingZeros(micros);
+
+		if (exponent >= MAX_EXPONENT)
+			return BUCKETS - 1;
+
+		final int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+		return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + subBucket;
+	}
+
+	/*
+	 * Return the highest duration falling into the given bucket
+	 */
+	private static long getUpperBound(final int bucket) {
+		if (bucket < LINEAR_BUCKETS)
+			return bucket;
+
+		final int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+		final int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+
+		return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
@@ -0,0 +1,500 @@
+package org.mineacademy.fo.debug;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPOutputStream;
+
+import org.bukkit.Bukkit;
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.FileUtil;
+import org.mineacademy.fo.TimeUtil;
+import org.mineacademy.fo.plugin.SimplePlugin;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+/**
+ * Writes lines to log files in our plugin folder on a single background thread,
+ * so that logging never opens files on the thread calling it
+ *
+ * Lines are put into a bounded buffer and written in batches. When a log grows
+ * over {@link #getMaxFileSize()} it is compressed into name.1.gz and older archives
+ * are shifted. When the buffer is full we either drop the lines or write them
+ * on the calling thread, see {@link OverflowPolicy}.
+ *
+ * Pending lines are written when the plugin disables, see {@link #shutdown()}.
+ */
+public final class LogWriter {
+
+	/**
+	 * How many writes can wait in the buffer
+	 */
+	private static final int CAPACITY = 8192;
+
+	/**
+	 * How many writes we take from the buffer at once
+	 */
+	private static final int BATCH_SIZE = 512;
+
+	/**
+	 * How long we wait for pending writes when flushing
+	 */
+	private static final long FLUSH_TIMEOUT_MILLIS = 10_000;
+
+	/**
+	 * The buffer of pending writes
+	 */
+	private static final BlockingQueue<Write> buffer = new ArrayBlockingQueue<>(CAPACITY);
+
+	/**
+	 * How many writes were accepted into the buffer and how many were written,
+	 * guarded by {@link #buffer} for waiting
+	 */
+	private static final AtomicLong accepted = new AtomicLong(), written = new AtomicLong();
+
+	/**
+	 * How many writes were dropped because the buffer was full, in total
+	 * and since we last noted it in the log
+	 */
+	private static final AtomicLong dropped = new AtomicLong(), droppedUnreported = new AtomicLong();
+
+	/**
+	 * What to do when the buffer is full
+	 */
+	@Getter
+	@Setter
+	private static volatile OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+	/**
+	 * Rotate logs once they grow over this size in bytes
+	 */
+	@Getter
+	@Setter
+	private static volatile long maxFileSize = 5 * 1024 * 1024;
+
+	/**
+	 * How many compressed logs to keep for each file
+	 */
+	@Getter
+	@Setter
+	private static volatile int maxArchives = 5;
+
+	/**
+	 * Held to read when adding to the buffer and to write when shutting down, so that
+	 * nothing is added after {@link #shutdown()} took what was left in the buffer
+	 */
+	private static final ReadWriteLock shutdownLock = new ReentrantReadWriteLock();
+
+	/**
+	 * Held while writing to files, since full buffers are written from the calling thread
+	 */
+	private static final Object fileLock = new Object();
+
+	/**
+	 * The writer thread, or null if not running
+	 */
+	private static volatile Thread thread;
+
+	/**
+	 * The plugin we were shut down for, we do not start again until it is replaced
+	 */
+	private static Object shutdownFor;
+
+	private LogWriter() {
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Writing
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Write the message to the file path in our plugin folder, each line formatted
+	 * as [date] prefix: line the same way {@link FileUtil#writeFormatted(String, String, String)} does
+	 *
+	 * @param to
+	 * @param prefix optional prefix, can be null
+	 * @param message line, is split by \n
+	 */
+	public static void writeFormatted(final String to, final String prefix, String message) {
+		message = Common.stripColors(message).trim();
+
+		if (message.equalsIgnoreCase("none") || message.isEmpty())
+			return;
+
+		final List<String> lines = new ArrayList<>();
+		final String date = TimeUtil.getFormattedDate();
+
+		for (final String line : Common.splitNewline(message))
+			if (!line.isEmpty())
+				lines.add("[" + date + "] " + (prefix != null ? prefix + ": " : "") + line);
+
+		write(to, overflowPolicy, lines);
+	}
+
+	/**
+	 * Append the lines to the file path in our plugin folder
+	 *
+	 * @param to
+	 * @param lines
+	 */
+	public static void write(final String to, final String... lines) {
+		write(to, overflowPolicy, Arrays.asList(lines));
+	}
+
+	/**
+	 * Append the lines to the file path in our plugin folder, using the given
+	 * policy if the buffer is full
+	 *
+	 * @param to
+	 * @param policy
+	 * @param lines
+	 */
+	public static void write(@NonNull final String to, @NonNull final OverflowPolicy policy, final Collection<String> lines) {
+		if (lines.isEmpty())
+			return;
+
+		final Write write = new Write(FileUtil.getFile(to), new ArrayList<>(lines));
+
+		shutdownLock.readLock().lock();
+
+		try {
+
+			// Write right away when shutting down or called from the writer itself
+			if (!startThread() || Thread.currentThread() == thread) {
+				writeNow(Arrays.asList(write));
+
+				return;
+			}
+
+			accepted.incrementAndGet();
+
+			if (offer(write, policy))
+				return;
+
+			if (policy == OverflowPolicy.BLOCK)
+				writeNow(Arrays.asList(write));
+
+			else {
+				dropped.incrementAndGet();
+				droppedUnreported.incrementAndGet();
+			}
+
+			markWritten(1);
+
+		} finally {
+			shutdownLock.readLock().unlock();
+		}
+	}
+
+	/*
+	 * Add the write to the buffer, only waiting for space off the main thread, returning false if full
+	 */
+	private static boolean offer(final Write write, final OverflowPolicy policy) {
+		if (policy != OverflowPolicy.BLOCK || Bukkit.isPrimaryThread())
+			return buffer.offer(write);
+
+		try {
+			return buffer.offer(write, FLUSH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+		} catch (final InterruptedException ex) {
+			Thread.currentThread().interrupt();
+
+			return false;
+		}
+	}
+
+	/**
+	 * Block until all lines written so far are in their files,
+	 * waiting up to 10 seconds
+	 */
+	public static void flush() {
+		final long target = accepted.get();
+		final long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+
+		synchronized (buffer) {
+			while (written.get() < target && isRunning()) {
+				final long remaining = deadline - System.currentTimeMillis();
+
+				if (remaining <= 0)
+					break;
+
+				try {
+					buffer.wait(remaining);
+
+				} catch (final InterruptedException ex) {
+					Thread.currentThread().interrupt();
+
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Write all pending lines and stop the writer thread, called automatically
+	 * when the plugin disables. Writes after this are done right away.
+	 */
+	public static void shutdown() {
+		flush();
+
+		final Thread thread;
+
+		// Wait for writes being added, later ones see we are stopped and write right away
+		shutdownLock.writeLock().lock();
+
+		try {
+			synchronized (LogWriter.class) {
+				thread = LogWriter.thread;
+
+				LogWriter.thread = null;
+				shutdownFor = SimplePlugin.hasInstance() ? SimplePlugin.getInstance() : null;
+			}
+
+		} finally {
+			shutdownLock.writeLock().unlock();
+		}
+
+		if (thread != null) {
+			thread.interrupt();
+
+			try {
+				thread.join(FLUSH_TIMEOUT_MILLIS);
+
+			} catch (final InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		// Write what was added while stopping
+		final List<Write> remaining = new ArrayList<>();
+		buffer.drainTo(remaining);
+
+		writeNow(remaining);
+		markWritten(remaining.size());
+	}
+
+	/**
+	 * Return how many writes were dropped because the buffer was full
+	 *
+	 * @return
+	 */
+	public static long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Return how many writes wait in the buffer
+	 *
+	 * @return
+	 */
+	public static int getPending() {
+		return buffer.size();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Writer thread
+	// ------------------------------------------------------------------------------------------------------------
+
+	/*
+	 * Start the writer thread if the plugin is enabled, returning false if we should write right away
+	 */
+	private static synchronized boolean startThread() {
+		if (thread != null)
+			return true;
+
+		if (!SimplePlugin.hasInstance() || !SimplePlugin.getInstance().isEnabled() || SimplePlugin.getInstance() == shutdownFor)
+			return false;
+
+		thread = new Thread(LogWriter::run, "Foundation Log Writer");
+		thread.setDaemon(true);
+		thread.start();
+
+		return true;
+	}
+
+	private static synchronized boolean isRunning() {
+		return thread != null && thread.isAlive();
+	}
+
+	/*
+	 * Take batches from the buffer and write them until stopped
+	 */
+	private static void run() {
+		final List<Write> batch = new ArrayList<>(BATCH_SIZE);
+
+		while (!Thread.currentThread().isInterrupted())
+			try {
+				final Write first = buffer.poll(1, TimeUnit.SECONDS);
+
+				if (first == null)
+					continue;
+
+				batch.add(first);
+				buffer.drainTo(batch, BATCH_SIZE - 1);
+
+				writeNow(batch);
+				markWritten(batch.size());
+
+				batch.clear();
+
+			} catch (final InterruptedException ex) {
+				break;
+
+			} catch (final Throwable t) {
+				// Never let the writer die, do not use Common.error since that would log here again
+				t.printStackTrace();
+
+				markWritten(batch.size());
+				batch.clear();
+			}
+	}
+
+	/*
+	 * Count the writes as done and wake up threads flushing
+	 */
+	private static void markWritten(final int amount) {
+		if (amount == 0)
+			return;
+
+		written.addAndGet(amount);
+
+		synchronized (buffer) {
+			buffer.notifyAll();
+		}
+	}
+
+	/*
+	 * Write the batch, opening each file once
+	 */
+	private static void writeNow(final List<Write> batch) {
+		synchronized (fileLock) {
+			writeFiles(batch);
+		}
+	}
+
+	/*
+	 * Write the batch while holding the file lock
+	 */
+	private static void writeFiles(final List<Write> batch) {
+		final Map<File, List<String>> byFile = new LinkedHashMap<>();
+
+		for (final Write write : batch)
+			byFile.computeIfAbsent(write.file, file -> new ArrayList<>()).addAll(write.lines);
+
+		long droppedLines = droppedUnreported.getAndSet(0);
+
+		for (final Map.Entry<File, List<String>> entry : byFile.entrySet()) {
+			final File file = entry.getKey();
+
+			try {
+				rotate(file);
+
+				if (file.getParentFile() != null)
+					file.getParentFile().mkdirs();
+
+				try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8))) {
+					for (final String line : entry.getValue()) {
+						writer.write(line);
+						writer.newLine();
+					}
+
+					if (droppedLines > 0) {
+						writer.write("[" + TimeUtil.getFormattedDate() + "] " + droppedLines + " log writes were dropped because logging could not keep up");
+						writer.newLine();
+
+						droppedLines = 0;
+					}
+				}
+
+			} catch (final IOException ex) {
+				System.out.println("Failed to write to " + file);
+
+				ex.printStackTrace();
+			}
+		}
+	}
+
+	/*
+	 * Compress the log into name.1.gz when it is too large, shifting older archives
+	 */
+	private static void rotate(final File file) throws IOException {
+		if (maxFileSize <= 0 || !file.exists() || file.length() < maxFileSize)
+			return;
+
+		final String path = file.getPath();
+
+		if (maxArchives > 0) {
+			new File(path + "." + maxArchives + ".gz").delete();
+
+			for (int i = maxArchives - 1; i >= 1; i--) {
+				final File older = new File(path + "." + i + ".gz");
+
+				if (older.exists())
+					older.renameTo(new File(path + "." + (i + 1) + ".gz"));
+			}
+
+			try (InputStream in = new FileInputStream(file); OutputStream out = new GZIPOutputStream(new FileOutputStream(path + ".1.gz"))) {
+				final byte[] bytes = new byte[8192];
+				int read;
+
+				while ((read = in.read(bytes)) != -1)
+					out.write(bytes, 0, read);
+			}
+		}
+
+		if (!file.delete())
+			throw new IOException("Could not remove rotated log " + file);
+	}
+
+	/**
+	 * What to do when logging faster than we can write
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * Drop the lines, noting how many were dropped in the log later
+		 */
+		DROP,
+
+		/**
+		 * Never drop the lines, wait up to 10 seconds for space in the buffer
+		 * and then write them on the calling thread. The main thread does
+		 * not wait and writes them right away.
+		 */
+		BLOCK
+	}
+
+	/**
+	 * Lines to append to a file
+	 */
+	private static final class Write {
+
+		private final File file;
+		private final List<String> lines;
+
+		private Write(final File file, final List<String> lines) {
+			this.file = file;
+			this.lines = lines;
+		}
+	}
+}
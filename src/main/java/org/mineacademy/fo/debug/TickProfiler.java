@@ -0,0 +1,507 @@
+package org.mineacademy.fo.debug;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+import org.mineacademy.fo.MathUtil;
+import org.mineacademy.fo.exception.FoException;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * An opt-in profiler measuring how much time our scheduled tasks and
+ * event listeners take, by task class and by listener and event.
+ *
+ * Tasks scheduled through Common#runLater and Common#runTimer methods and listeners
+ * registered through Common#registerEvents, SimplePlugin#registerEvents or
+ * SimpleListener#register are always wrapped and measured while the profiler is enabled,
+ * so tasks and listeners registered before enabling it are measured too.
+ *
+ * Measurements are kept per second for the last minute in fixed arrays, so
+ * recording never allocates and the profiler can stay enabled on live servers.
+ * {@link BukkitRunnable}s are scheduled wrapped and then told their task, see
+ * {@link #schedule(Runnable, Function)}, unless the server keeps it in a field we do not know.
+ */
+public final class TickProfiler {
+
+	/**
+	 * How many seconds the report covers
+	 */
+	private static final int WINDOW_SECONDS = 60;
+
+	/**
+	 * How many different tasks and listeners we track, others are recorded together
+	 */
+	private static final int MAX_ENTRIES = 1024;
+
+	/**
+	 * Measured tasks and listeners by their name
+	 */
+	private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Entries over {@link #MAX_ENTRIES} are recorded here
+	 */
+	private static final Entry OTHER_ENTRY = new Entry("(other)");
+
+	/**
+	 * The field BukkitRunnable keeps its task in, or null if unknown and BukkitRunnables are not measured
+	 */
+	private static final Field runnableTaskField = findRunnableTaskField();
+
+	/**
+	 * Is the profiler measuring wrapped tasks and listeners?
+	 */
+	@Getter
+	private static volatile boolean enabled = false;
+
+	/**
+	 * When the profiler was last enabled or reset
+	 */
+	private static volatile long enabledSince = System.currentTimeMillis();
+
+	private TickProfiler() {
+	}
+
+	/**
+	 * Enable or disable the profiler, wrapped tasks and listeners
+	 * are only measured while enabled
+	 *
+	 * @param enabled
+	 */
+	public static void setEnabled(final boolean enabled) {
+		if (enabled && !TickProfiler.enabled)
+			enabledSince = System.currentTimeMillis();
+
+		TickProfiler.enabled = enabled;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Wrapping
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Return the task wrapped so that its runs are measured while enabled
+	 *
+	 * A {@link BukkitRunnable} is returned as it is if we cannot tell it its task
+	 * or it is scheduled already, otherwise schedule the result using {@link #schedule(Runnable, Function)}
+	 *
+	 * @param task
+	 * @param async
+	 * @return
+	 */
+	public static Runnable wrap(final Runnable task, final boolean async) {
+		if (task == null || task instanceof ProfiledTask)
+			return task;
+
+		if (task instanceof BukkitRunnable && (runnableTaskField == null || isScheduled((BukkitRunnable) task)))
+			return task;
+
+		return new ProfiledTask(task, getEntry((async ? "async task " : "task ") + getName(task.getClass())));
+	}
+
+	/**
+	 * Schedule the task returned from {@link #wrap(Runnable, boolean)}, telling a wrapped
+	 * {@link BukkitRunnable} its task so that its cancel() works as if scheduled directly
+	 *
+	 * @param task
+	 * @param scheduler the function scheduling the given runnable in Bukkit
+	 * @return
+	 */
+	public static BukkitTask schedule(final Runnable task, final Function<Runnable, BukkitTask> scheduler) {
+		if (!(task instanceof ProfiledTask) || !(((ProfiledTask) task).task instanceof BukkitRunnable))
+			return scheduler.apply(task);
+
+		// Async tasks may start before we return, they wait for this lock in run()
+		synchronized (task) {
+			final BukkitTask scheduled = scheduler.apply(task);
+
+			if (scheduled != null)
+				setRunnableTask((BukkitRunnable) ((ProfiledTask) task).task, scheduled);
+
+			return scheduled;
+		}
+	}
+
+	/**
+	 * Return the task wrapped so that its runs are measured while enabled
+	 *
+	 * @param <T>
+	 * @param task
+	 * @return
+	 */
+	public static <T> Consumer<T> wrap(final Consumer<T> task) {
+		if (task == null)
+			return task;
+
+		final Entry entry = getEntry("task " + getName(task.getClass()));
+
+		return value -> {
+			if (!enabled) {
+				task.accept(value);
+
+				return;
+			}
+
+			final long start = System.nanoTime();
+
+			try {
+				task.accept(value);
+
+			} finally {
+				entry.record(System.nanoTime() - start);
+			}
+		};
+	}
+
+	/**
+	 * Return the executor wrapped so that handling events is measured while enabled
+	 *
+	 * @param executor
+	 * @param listener
+	 * @param eventClass
+	 * @param priority
+	 * @return
+	 */
+	public static EventExecutor wrap(final EventExecutor executor, final Listener listener, final Class<? extends Event> eventClass, final EventPriority priority) {
+		return new ProfiledExecutor(executor, getEntry("listener " + getName(listener.getClass()) + " -> " + eventClass.getSimpleName() + " (" + priority + ")"));
+	}
+
+	/**
+	 * Register all event handlers in the listener, measuring
+	 * each of them while the profiler is enabled
+	 *
+	 * @param listener
+	 * @param plugin
+	 */
+	public static void registerEvents(@NonNull final Listener listener, @NonNull final Plugin plugin) {
+
+		// Register each handler separately to put our executor in front of it
+		for (final Map.Entry<Class<? extends Event>, Set<RegisteredListener>> entry : plugin.getPluginLoader().createRegisteredListeners(listener, plugin).entrySet())
+			for (final RegisteredListener registered : entry.getValue()) {
+				final EventExecutor executor = wrap((ignored, event) -> registered.callEvent(event), listener, entry.getKey(), registered.getPriority());
+
+				Bukkit.getPluginManager().registerEvent(entry.getKey(), listener, registered.getPriority(), executor, plugin, registered.isIgnoringCancelled());
+			}
+	}
+
+	/**
+	 * Return true if {@link BukkitRunnable}s are measured on this server
+	 *
+	 * @return
+	 */
+	public static boolean isMeasuringBukkitRunnables() {
+		return runnableTaskField != null;
+	}
+
+	/*
+	 * Find the field BukkitRunnable keeps its task in, the task on new versions and its ID on old ones
+	 */
+	private static Field findRunnableTaskField() {
+		for (final Field field : BukkitRunnable.class.getDeclaredFields())
+			if ((field.getName().equals("task") && field.getType() == BukkitTask.class) || (field.getName().equals("taskId") && field.getType() == int.class)) {
+				field.setAccessible(true);
+
+				return field;
+			}
+
+		return null;
+	}
+
+	/*
+	 * Return true if the runnable was scheduled already
+	 */
+	private static boolean isScheduled(final BukkitRunnable runnable) {
+		try {
+			synchronized (runnable) {
+				return runnableTaskField.getType() == int.class ? runnableTaskField.getInt(runnable) != -1 : runnableTaskField.get(runnable) != null;
+			}
+
+		} catch (final ReflectiveOperationException ex) {
+			throw new FoException(ex, "Failed to read the task of " + runnable);
+		}
+	}
+
+	/*
+	 * Tell the runnable the task it was scheduled as
+	 */
+	private static void setRunnableTask(final BukkitRunnable runnable, final BukkitTask task) {
+		try {
+			synchronized (runnable) {
+				if (runnableTaskField.getType() == int.class)
+					runnableTaskField.setInt(runnable, task.getTaskId());
+				else
+					runnableTaskField.set(runnable, task);
+			}
+
+		} catch (final ReflectiveOperationException ex) {
+			throw new FoException(ex, "Failed to set the task of " + runnable);
+		}
+	}
+
+	/*
+	 * Return the entry for the given name, registering it if new
+	 */
+	private static Entry getEntry(final String name) {
+		final Entry entry = entries.get(name);
+
+		if (entry != null)
+			return entry;
+
+		return entries.size() < MAX_ENTRIES ? entries.computeIfAbsent(name, Entry::new) : OTHER_ENTRY;
+	}
+
+	/*
+	 * Return a readable class name, without the numbers of lambdas and anonymous classes
+	 */
+	private static String getName(final Class<?> clazz) {
+		final String name = clazz.getName();
+		final int lambda = name.indexOf("$$Lambda");
+
+		return (lambda != -1 ? name.substring(0, lambda) + " (lambda)" : name).substring(name.lastIndexOf('.') + 1);
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Reporting
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Return the given amount of tasks and listeners that took the most
+	 * time during the last minute, those taking the most first
+	 *
+	 * @param limit
+	 * @return
+	 */
+	public static List<String> getReport(final int limit) {
+		final long now = System.currentTimeMillis();
+		final long nowSecond = now / 1000;
+
+		final List<Summary> summaries = new ArrayList<>();
+
+		for (final Entry entry : entries.values()) {
+			final Summary summary = entry.summarize(nowSecond);
+
+			if (summary.calls > 0)
+				summaries.add(summary);
+		}
+
+		final Summary other = OTHER_ENTRY.summarize(nowSecond);
+
+		if (other.calls > 0)
+			summaries.add(other);
+
+		summaries.sort((first, second) -> Long.compare(second.totalNanos, first.totalNanos));
+
+		// Average per tick over the part of the window the profiler was running
+		final int seconds = MathUtil.range((int) ((now - enabledSince) / 1000), 1, WINDOW_SECONDS);
+		final List<String> lines = new ArrayList<>();
+
+		for (int i = 0; i < Math.min(limit, summaries.size()); i++) {
+			final Summary summary = summaries.get(i);
+
+			lines.add("#" + (i + 1) + " " + summary.name + ": "
+					+ MathUtil.formatTwoDigits(summary.totalNanos / 1_000_000D / (seconds * 20)) + " ms/tick, "
+					+ MathUtil.formatTwoDigits(summary.totalNanos / 1_000_000D) + " ms total, "
+					+ summary.calls + " calls, max " + MathUtil.formatTwoDigits(summary.maxNanos / 1_000_000D) + " ms");
+		}
+
+		return lines;
+	}
+
+	/**
+	 * Forget all measurements
+	 */
+	public static void reset() {
+		for (final Entry entry : entries.values())
+			entry.reset();
+
+		OTHER_ENTRY.reset();
+		enabledSince = System.currentTimeMillis();
+	}
+
+	/**
+	 * Represents a measured task or listener, keeping one slot per second of the window.
+	 *
+	 * Slots are reused after a minute, a measurement racing with reusing
+	 * its slot may be lost which is fine for profiling.
+	 */
+	private static final class Entry {
+
+		/**
+		 * The task or listener name
+		 */
+		private final String name;
+
+		/**
+		 * The second each slot belongs to
+		 */
+		private final AtomicLongArray seconds = new AtomicLongArray(WINDOW_SECONDS);
+
+		/**
+		 * How many runs in each slot
+		 */
+		private final AtomicLongArray calls = new AtomicLongArray(WINDOW_SECONDS);
+
+		/**
+		 * The sum of runs in each slot
+		 */
+		private final AtomicLongArray totalNanos = new AtomicLongArray(WINDOW_SECONDS);
+
+		/**
+		 * The longest run in each slot
+		 */
+		private final AtomicLongArray maxNanos = new AtomicLongArray(WINDOW_SECONDS);
+
+		private Entry(final String name) {
+			this.name = name;
+		}
+
+		/*
+		 * Record a run
+		 */
+		private void record(final long nanos) {
+			final long second = System.currentTimeMillis() / 1000;
+			final int slot = (int) (second % WINDOW_SECONDS);
+			final long slotSecond = seconds.get(slot);
+
+			if (slotSecond != second && seconds.compareAndSet(slot, slotSecond, second)) {
+				calls.set(slot, 0);
+				totalNanos.set(slot, 0);
+				maxNanos.set(slot, 0);
+			}
+
+			calls.incrementAndGet(slot);
+			totalNanos.addAndGet(slot, nanos);
+
+			long max;
+
+			while (nanos > (max = maxNanos.get(slot)) && !maxNanos.compareAndSet(slot, max, nanos))
+				;
+		}
+
+		/*
+		 * Sum the slots within the window
+		 */
+		private Summary summarize(final long nowSecond) {
+			final Summary summary = new Summary(name);
+
+			for (int slot = 0; slot < WINDOW_SECONDS; slot++)
+				if (nowSecond - seconds.get(slot) < WINDOW_SECONDS) {
+					summary.calls += calls.get(slot);
+					summary.totalNanos += totalNanos.get(slot);
+					summary.maxNanos = Math.max(summary.maxNanos, maxNanos.get(slot));
+				}
+
+			return summary;
+		}
+
+		/*
+		 * Forget all slots
+		 */
+		private void reset() {
+			for (int slot = 0; slot < WINDOW_SECONDS; slot++)
+				seconds.set(slot, 0);
+		}
+	}
+
+	/**
+	 * The sum of an entry over the window
+	 */
+	private static final class Summary {
+
+		private final String name;
+		private long calls, totalNanos, maxNanos;
+
+		private Summary(final String name) {
+			this.name = name;
+		}
+	}
+
+	/**
+	 * A task measuring its runs
+	 */
+	private static final class ProfiledTask implements Runnable {
+
+		private final Runnable task;
+		private final Entry entry;
+
+		private ProfiledTask(final Runnable task, final Entry entry) {
+			this.task = task;
+			this.entry = entry;
+		}
+
+		@Override
+		public void run() {
+
+			// Wait until the runnable knows its task, see schedule()
+			if (task instanceof BukkitRunnable)
+				synchronized (this) {
+				}
+
+			if (!enabled) {
+				task.run();
+
+				return;
+			}
+
+			final long start = System.nanoTime();
+
+			try {
+				task.run();
+
+			} finally {
+				entry.record(System.nanoTime() - start);
+			}
+		}
+	}
+
+	/**
+	 * An event executor measuring how long handling events takes
+	 */
+	private static final class ProfiledExecutor implements EventExecutor {
+
+		private final EventExecutor executor;
+		private final Entry entry;
+
+		private ProfiledExecutor(final EventExecutor executor, final Entry entry) {
+			this.executor = executor;
+			this.entry = entry;
+		}
+
+		@Override
+		public void execute(final Listener listener, final Event event) throws EventException {
+			if (!enabled) {
+				executor.execute(listener, event);
+
+				return;
+			}
+
+			final long start = System.nanoTime();
+
+			try {
+				executor.execute(listener, event);
+
+			} finally {
+				entry.record(System.nanoTime() - start);
+			}
+		}
+	}
+}
@@ -12,6 +12,7 @@ import org.mineacademy.fo.Common;
 import org.mineacademy.fo.PlayerUtil;
 import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.debug.LagCatcher;
+import org.mineacademy.fo.debug.TickProfiler;
 import org.mineacademy.fo.exception.EventHandledException;
 import org.mineacademy.fo.plugin.SimplePlugin;
 
@@ -45,6 +46,11 @@ public abstract class SimpleListener<T extends Event> implements Listener, Event
 	 */
 	private T event;
 
+	/**
+	 * Measures how long handling the event takes, created on first call
+	 */
+	private LagCatcher.Section section;
+
 	/**
 	 * Creates a new listener using the normal priority
 	 * and ignoring cancelled
@@ -67,9 +73,10 @@ public abstract class SimpleListener<T extends Event> implements Listener, Event
 
 	@Override
 	public final void execute(Listener listener, Event event) throws EventException {
-		final String logName = listener.getClass().getSimpleName() + " with event " + event.getEventName() + " at " + priority + "(ignore cancelled = " + ignoreCancelled + ")";
+		if (section == null)
+			section = LagCatcher.section(listener.getClass().getSimpleName() + " with event " + event.getEventName() + " at " + priority + "(ignore cancelled = " + ignoreCancelled + ")");
 
-		LagCatcher.start(logName);
+		section.start();
 
 		try {
 			this.event = (T) event;
@@ -89,7 +96,7 @@ public abstract class SimpleListener<T extends Event> implements Listener, Event
 				((Cancellable) event).setCancelled(true);
 
 		} finally {
-			LagCatcher.end(logName);
+			section.end();
 
 			this.event = null;
 		}
@@ -169,6 +176,6 @@ public abstract class SimpleListener<T extends Event> implements Listener, Event
 	 * A shortcut for registering this event in Bukkit
 	 */
 	public final void register() {
-		Bukkit.getPluginManager().registerEvent(eventClass, this, priority, this, SimplePlugin.getInstance(), ignoreCancelled);
+		Bukkit.getPluginManager().registerEvent(eventClass, this, priority, TickProfiler.wrap(this, this, eventClass, priority), SimplePlugin.getInstance(), ignoreCancelled);
 	}
 }
@@ -16,10 +16,10 @@ import org.bukkit.event.entity.ProjectileHitEvent;
 import org.bukkit.event.entity.ProjectileLaunchEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerItemHeldEvent;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.mineacademy.fo.Common;
 import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.event.RocketExplosionEvent;
+import org.mineacademy.fo.model.Ticker;
 import org.mineacademy.fo.remain.Remain;
 
 import lombok.Data;
@@ -171,18 +171,12 @@ public final class ToolsListener implements Listener {
 						shotRockets.put(copy.getUniqueId(), new ShotRocket(player, rocket));
 						rocket.onLaunch(copy, player);
 
-						Common.runTimer(1, new BukkitRunnable() {
+						Ticker.runTimer(1, handle -> {
+							if (!copy.isValid() || copy.isOnGround() || handle.getRuns() > 20 * 30 + 1 /*Remove after 30 seconds to reduce server strain*/)
+								handle.cancel();
 
-							private long elapsedTicks = 0;
-
-							@Override
-							public void run() {
-								if (!copy.isValid() || copy.isOnGround() || elapsedTicks++ > 20 * 30 /*Remove after 30 seconds to reduce server strain*/)
-									cancel();
-
-								else
-									rocket.onFlyTick(copy, player);
-							}
+							else
+								rocket.onFlyTick(copy, player);
 						});
 					});
 
@@ -0,0 +1,477 @@
+package org.mineacademy.fo.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.MathUtil;
+import org.mineacademy.fo.MinecraftVersion;
+import org.mineacademy.fo.MinecraftVersion.V;
+import org.mineacademy.fo.Valid;
+import org.mineacademy.fo.collection.expiringmap.NamedThreadFactory;
+import org.mineacademy.fo.plugin.SimplePlugin;
+import org.mineacademy.fo.region.Region;
+import org.mineacademy.fo.remain.Remain;
+
+import lombok.NonNull;
+
+/**
+ * Visits blocks in a cuboid without creating a {@link org.bukkit.block.Block}
+ * for each of them, for scanning or resetting large areas
+ *
+ * We go chunk by chunk, taking a few {@link ChunkSnapshot}s each tick on the
+ * main thread and reading them on worker threads, so scanning scales with cores
+ * instead of freezing the server. Blocks are given as coordinates packed into
+ * a long, see {@link #pack(int, int, int)}, and may be filtered by material.
+ *
+ * On Minecraft older than 1.13 snapshots cannot tell materials, so
+ * blocks are read on the main thread instead.
+ *
+ * Chunks not generated yet are skipped, other chunks not loaded are loaded
+ * on the main thread to read them. Minecraft older than 1.13.1 cannot tell
+ * if a chunk is generated, so scanning there may generate chunks.
+ *
+ * <pre>
+ * BlockScanner.of(region).filter(CompMaterial.CHEST.getMaterial()).collect().thenAccept(chests -> ...);
+ * </pre>
+ */
+public final class BlockScanner {
+
+	/**
+	 * The threads reading snapshots, shared by all scans
+	 */
+	private static volatile ExecutorService workers;
+
+	/**
+	 * Scans not finished yet, cancelled on {@link #shutdown()}
+	 */
+	private static final Set<CompletableFuture<?>> runningScans = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * The world to scan
+	 */
+	private final World world;
+
+	/**
+	 * The lowest and highest block coordinates to scan, inclusive
+	 */
+	private final int minX, minY, minZ, maxX, maxY, maxZ;
+
+	/**
+	 * Which materials we visit, null to visit all
+	 */
+	private Predicate<Material> filter;
+
+	/**
+	 * How many chunk snapshots we take on the main thread each tick
+	 */
+	private int chunksPerTick = 4;
+
+	private BlockScanner(final World world, final int x1, final int y1, final int z1, final int x2, final int y2, final int z2) {
+		this.world = world;
+
+		this.minX = Math.min(x1, x2);
+		this.minY = MathUtil.atLeast(Math.min(y1, y2), Remain.getMinHeight(world));
+		this.minZ = Math.min(z1, z2);
+		this.maxX = Math.max(x1, x2);
+		this.maxY = Math.min(Math.max(y1, y2), world.getMaxHeight() - 1);
+		this.maxZ = Math.max(z1, z2);
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Creating
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Scan blocks within the region
+	 *
+	 * @param region
+	 * @return
+	 */
+	public static BlockScanner of(@NonNull final Region region) {
+		Valid.checkBoolean(region.isWhole(), "Cannot scan a non-complete region: " + region);
+
+		return new BlockScanner(region.getWorld(), region.getMinX(), region.getMinY(), region.getMinZ(), region.getMaxX(), region.getMaxY(), region.getMaxZ());
+	}
+
+	/**
+	 * Scan blocks within the two cuboid bounds
+	 *
+	 * @param primary
+	 * @param secondary
+	 * @return
+	 */
+	public static BlockScanner of(@NonNull final Location primary, @NonNull final Location secondary) {
+		Valid.checkBoolean(primary.getWorld() != null && primary.getWorld().equals(secondary.getWorld()), "Points must be in one world! Primary: " + primary + " != secondary: " + secondary);
+
+		return new BlockScanner(primary.getWorld(), primary.getBlockX(), primary.getBlockY(), primary.getBlockZ(), secondary.getBlockX(), secondary.getBlockY(), secondary.getBlockZ());
+	}
+
+	/**
+	 * Only visit blocks of the given materials
+	 *
+	 * @param materials
+	 * @return
+	 */
+	public BlockScanner filter(@NonNull final Material... materials) {
+		final Set<Material> set = EnumSet.noneOf(Material.class);
+		set.addAll(Arrays.asList(materials));
+
+		return filter(set::contains);
+	}
+
+	/**
+	 * Only visit blocks whose material matches, the filter is called from worker threads
+	 *
+	 * @param filter
+	 * @return
+	 */
+	public BlockScanner filter(@NonNull final Predicate<Material> filter) {
+		this.filter = filter;
+
+		return this;
+	}
+
+	/**
+	 * Set how many chunk snapshots we take on the main thread each tick, 4 by default
+	 *
+	 * @param chunksPerTick
+	 * @return
+	 */
+	public BlockScanner chunksPerTick(final int chunksPerTick) {
+		this.chunksPerTick = MathUtil.atLeast(chunksPerTick, 1);
+
+		return this;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Scanning
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Return the packed coordinates of all matching blocks, completed on a worker
+	 * thread when done. Blocks are in no particular order.
+	 *
+	 * @return
+	 */
+	public CompletableFuture<long[]> collect() {
+		final List<ChunkResult> results = new ArrayList<>();
+
+		final CompletableFuture<Long> scan = scan(chunk -> {
+			final ChunkResult result = new ChunkResult();
+
+			synchronized (results) {
+				results.add(result);
+			}
+
+			return result;
+		});
+
+		return scan.thenApply(count -> {
+			final long[] all = new long[count.intValue()];
+			int index = 0;
+
+			synchronized (results) {
+				for (final ChunkResult result : results) {
+					System.arraycopy(result.blocks, 0, all, index, result.size);
+
+					index += result.size;
+				}
+			}
+
+			return all;
+		});
+	}
+
+	/**
+	 * Give each matching block to the visitor. The visitor is called from several
+	 * worker threads at once, so it must be thread-safe. The future completes with
+	 * how many blocks were visited, cancel it to stop scanning.
+	 *
+	 * @param visitor
+	 * @return
+	 */
+	public CompletableFuture<Long> scan(@NonNull final Visitor visitor) {
+		return scan(chunk -> visitor);
+	}
+
+	/*
+	 * Scan using a visitor for each chunk
+	 */
+	private CompletableFuture<Long> scan(final VisitorFactory visitors) {
+		final CompletableFuture<Long> future = new CompletableFuture<>();
+		final AtomicLong visited = new AtomicLong();
+
+		// Nothing can be scheduled
+		if (!SimplePlugin.hasInstance() || !SimplePlugin.getInstance().isEnabled()) {
+			future.cancel(false);
+
+			return future;
+		}
+
+		final int minChunkX = minX >> 4, maxChunkX = maxX >> 4;
+		final int minChunkZ = minZ >> 4, maxChunkZ = maxZ >> 4;
+		final int chunkCount = (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1);
+
+		final AtomicInteger remaining = new AtomicInteger(chunkCount);
+		final boolean snapshots = MinecraftVersion.atLeast(V.v1_13);
+
+		final BukkitTask[] task = new BukkitTask[1];
+		final int[] next = { 0 };
+
+		runningScans.add(future);
+		future.whenComplete((result, error) -> runningScans.remove(future));
+
+		task[0] = Common.runTimer(1, () -> {
+			if (future.isDone()) {
+				task[0].cancel();
+
+				return;
+			}
+
+			try {
+				for (int taken = 0; taken < chunksPerTick && next[0] < chunkCount; taken++, next[0]++) {
+					final int chunkX = minChunkX + next[0] % (maxChunkX - minChunkX + 1);
+					final int chunkZ = minChunkZ + next[0] / (maxChunkX - minChunkX + 1);
+
+					// Do not generate new chunks just to scan them
+					if (!Remain.isChunkGenerated(world, chunkX, chunkZ)) {
+						if (remaining.decrementAndGet() == 0)
+							future.complete(visited.get());
+
+						continue;
+					}
+
+					final Visitor visitor = visitors.create(next[0]);
+
+					final Runnable read;
+
+					if (snapshots) {
+						final ChunkSnapshot snapshot = world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false);
+
+						read = () -> visited.addAndGet(readSnapshot(snapshot, chunkX, chunkZ, visitor));
+
+					} else {
+						visited.addAndGet(readLegacy(chunkX, chunkZ, visitor));
+
+						read = () -> {
+						};
+					}
+
+					getWorkers().execute(() -> {
+						try {
+							if (!future.isDone())
+								read.run();
+
+							if (remaining.decrementAndGet() == 0)
+								future.complete(visited.get());
+
+						} catch (final Throwable t) {
+							future.completeExceptionally(t);
+						}
+					});
+				}
+
+			} catch (final Throwable t) {
+
+				// The same chunk would fail again each tick, give up
+				future.completeExceptionally(t);
+			}
+
+			if (future.isDone() || next[0] >= chunkCount)
+				task[0].cancel();
+		});
+
+		return future;
+	}
+
+	/*
+	 * Visit matching blocks in the snapshot within our bounds
+	 */
+	private long readSnapshot(final ChunkSnapshot snapshot, final int chunkX, final int chunkZ, final Visitor visitor) {
+		final int fromX = Math.max(minX, chunkX << 4), toX = Math.min(maxX, (chunkX << 4) + 15);
+		final int fromZ = Math.max(minZ, chunkZ << 4), toZ = Math.min(maxZ, (chunkZ << 4) + 15);
+
+		long count = 0;
+
+		for (int x = fromX; x <= toX; x++)
+			for (int z = fromZ; z <= toZ; z++)
+				for (int y = minY; y <= maxY; y++) {
+					final Material material = snapshot.getBlockType(x & 15, y, z & 15);
+
+					if (filter == null || filter.test(material)) {
+						visitor.visit(pack(x, y, z), material);
+
+						count++;
+					}
+				}
+
+		return count;
+	}
+
+	/*
+	 * Visit matching blocks reading them from the world on the main thread
+	 */
+	private long readLegacy(final int chunkX, final int chunkZ, final Visitor visitor) {
+		final int fromX = Math.max(minX, chunkX << 4), toX = Math.min(maxX, (chunkX << 4) + 15);
+		final int fromZ = Math.max(minZ, chunkZ << 4), toZ = Math.min(maxZ, (chunkZ << 4) + 15);
+
+		long count = 0;
+
+		for (int x = fromX; x <= toX; x++)
+			for (int z = fromZ; z <= toZ; z++)
+				for (int y = minY; y <= maxY; y++) {
+					final Material material = world.getBlockAt(x, y, z).getType();
+
+					if (filter == null || filter.test(material)) {
+						visitor.visit(pack(x, y, z), material);
+
+						count++;
+					}
+				}
+
+		return count;
+	}
+
+	/**
+	 * Cancel running scans and stop the worker threads, called automatically when the plugin is disabled
+	 */
+	public static void shutdown() {
+		for (final CompletableFuture<?> scan : runningScans)
+			scan.cancel(false);
+
+		synchronized (BlockScanner.class) {
+			if (workers != null) {
+				workers.shutdownNow();
+
+				workers = null;
+			}
+		}
+	}
+
+	/*
+	 * Return the worker threads, starting them if needed
+	 */
+	private static ExecutorService getWorkers() {
+		if (workers == null)
+			synchronized (BlockScanner.class) {
+				if (workers == null)
+					workers = Executors.newFixedThreadPool(MathUtil.atLeast(Runtime.getRuntime().availableProcessors() - 1, 1), new NamedThreadFactory("Foundation Block Scanner %d"));
+			}
+
+		return workers;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Packing coordinates
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Pack block coordinates into a long, x and z take 26 bits
+	 * and y takes 12 bits, same as Minecraft does
+	 *
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @return
+	 */
+	public static long pack(final int x, final int y, final int z) {
+		return (x & 0x3FFFFFFL) << 38 | (z & 0x3FFFFFFL) << 12 | y & 0xFFFL;
+	}
+
+	/**
+	 * Return the x coordinate of packed coordinates
+	 *
+	 * @param packed
+	 * @return
+	 */
+	public static int unpackX(final long packed) {
+		return (int) (packed >> 38);
+	}
+
+	/**
+	 * Return the y coordinate of packed coordinates
+	 *
+	 * @param packed
+	 * @return
+	 */
+	public static int unpackY(final long packed) {
+		return (int) (packed << 52 >> 52);
+	}
+
+	/**
+	 * Return the z coordinate of packed coordinates
+	 *
+	 * @param packed
+	 * @return
+	 */
+	public static int unpackZ(final long packed) {
+		return (int) (packed << 26 >> 38);
+	}
+
+	/**
+	 * Return the location of packed coordinates in the world
+	 *
+	 * @param world
+	 * @param packed
+	 * @return
+	 */
+	public static Location toLocation(final World world, final long packed) {
+		return new Location(world, unpackX(packed), unpackY(packed), unpackZ(packed));
+	}
+
+	/**
+	 * Receives blocks found by the scanner
+	 */
+	@FunctionalInterface
+	public interface Visitor {
+
+		/**
+		 * Called for each matching block, from worker threads
+		 *
+		 * @param packed the coordinates, see {@link BlockScanner#pack(int, int, int)}
+		 * @param material
+		 */
+		void visit(long packed, Material material);
+	}
+
+	/*
+	 * Creates the visitor for each chunk
+	 */
+	@FunctionalInterface
+	private interface VisitorFactory {
+		Visitor create(int chunkIndex);
+	}
+
+	/**
+	 * Blocks found in one chunk, only written by one thread
+	 */
+	private static final class ChunkResult implements Visitor {
+
+		private long[] blocks = new long[64];
+		private int size;
+
+		@Override
+		public void visit(final long packed, final Material material) {
+			if (size == blocks.length)
+				blocks = Arrays.copyOf(blocks, size * 2);
+
+			blocks[size++] = packed;
+		}
+	}
+}
@@ -1,10 +1,7 @@
 package org.mineacademy.fo.model;
 
-import org.bukkit.Bukkit;
-import org.bukkit.scheduler.BukkitTask;
 import org.mineacademy.fo.Common;
 import org.mineacademy.fo.Valid;
-import org.mineacademy.fo.plugin.SimplePlugin;
 import org.mineacademy.fo.settings.YamlConfig.TimeHelper;
 
 import lombok.AccessLevel;
@@ -12,6 +9,8 @@ import lombok.Getter;
 
 /**
  * Represents a runnable timer task that counts down to 0 and stops
+ *
+ * Countdowns run on the shared {@link Ticker} instead of each taking a Bukkit task.
  */
 public abstract class Countdown implements Runnable {
 
@@ -42,9 +41,9 @@ public abstract class Countdown implements Runnable {
 	private int secondsSinceStart = 0;
 
 	/**
-	 * The internal task from Bukkit associated with this countdown
+	 * The internal task from the {@link Ticker} associated with this countdown
 	 */
-	private int taskId = -1;
+	private Ticker.Handle task;
 
 	/**
 	 * Create new countdown from the given time
@@ -130,8 +129,7 @@ public abstract class Countdown implements Runnable {
 	public final void launch() {
 		Valid.checkBoolean(!isRunning(), "Task " + this + " already scheduled!");
 
-		final BukkitTask task = Bukkit.getScheduler().runTaskTimer(SimplePlugin.getInstance(), this, START_DELAY, TICK_PERIOD);
-		taskId = task.getTaskId();
+		task = Ticker.runTimer(START_DELAY, TICK_PERIOD, handle -> run());
 
 		onStart();
 	}
@@ -140,9 +138,10 @@ public abstract class Countdown implements Runnable {
 	 * Cancels this countdown, failing if it is not scheduled (use {@link #isRunning()})
 	 */
 	public final void cancel() {
-		Bukkit.getScheduler().cancelTask(getTaskId());
+		Valid.checkBoolean(task != null, "Task " + this + " not scheduled yet");
 
-		taskId = -1;
+		task.cancel();
+		task = null;
 		secondsSinceStart = 0;
 	}
 
@@ -152,22 +151,22 @@ public abstract class Countdown implements Runnable {
 	 * @return
 	 */
 	public final boolean isRunning() {
-		return taskId != -1;
+		return task != null && !task.isCancelled();
 	}
 
 	/**
-	 * Return the bukkit task or fails if not running
+	 * Return the id of the {@link Ticker} task or fails if not running
 	 *
 	 * @return
 	 */
 	public final int getTaskId() {
 		Valid.checkBoolean(isRunning(), "Task " + this + " not scheduled yet");
 
-		return taskId;
+		return task.getId();
 	}
 
 	@Override
 	public final String toString() {
-		return getClass().getSimpleName() + "{" + countdownSeconds + ", id=" + taskId + "}";
+		return getClass().getSimpleName() + "{" + countdownSeconds + ", id=" + (task != null ? task.getId() : -1) + "}";
 	}
 }
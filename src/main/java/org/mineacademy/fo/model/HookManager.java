@@ -108,6 +108,11 @@ import net.milkbowl.vault.permission.Permission;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class HookManager {
 
+	/**
+	 * Prints debug messages about sending messages to Discord
+	 */
+	private static final Debugger.Section DISCORD_DEBUG = Debugger.section("discord");
+
 	// ------------------------------------------------------------------------------------------------------------
 	// Store hook classes separately for below, avoiding no such method/field errors
 	// ------------------------------------------------------------------------------------------------------------
@@ -2618,14 +2623,14 @@ class DiscordSRVHook implements Listener {
 
 		// Channel not configured in DiscordSRV config.yml, ignore
 		if (textChannel == null) {
-			Debugger.debug("discord", "[MC->Discord] Could not find Discord channel '" + channel + "'. Available: " + String.join(", ", getChannels()) + ". Not sending: " + message);
+			DISCORD_DEBUG.debug(() -> "[MC->Discord] Could not find Discord channel '" + channel + "'. Available: " + String.join(", ", getChannels()) + ". Not sending: " + message);
 
-			LagCatcher.end("Minecraft to Discord", Debugger.isDebugged("discord") ? 0 : SimpleSettings.LAG_THRESHOLD_MILLIS, "Minecraft > Discord sending ended due to no channel. Took {time} ms");
+			LagCatcher.end("Minecraft to Discord", DISCORD_DEBUG.isEnabled() ? 0 : SimpleSettings.LAG_THRESHOLD_MILLIS, "Minecraft > Discord sending ended due to no channel. Took {time} ms");
 			return false;
 		}
 
 		if (sender instanceof Player) {
-			Debugger.debug("discord", "[MC->Discord] " + sender.getName() + " send message to '" + channel + "' channel. Message: '" + message + "'");
+			DISCORD_DEBUG.debug(() -> "[MC->Discord] " + sender.getName() + " send message to '" + channel + "' channel. Message: '" + message + "'");
 
 			final DiscordSRV instance = JavaPlugin.getPlugin(DiscordSRV.class);
 
@@ -2651,12 +2656,12 @@ class DiscordSRVHook implements Listener {
 			}
 
 		} else {
-			Debugger.debug("discord", "[MC->Discord] " + (sender == null ? "No given sender " : sender.getName() + " (generic)") + "sent message to '" + channel + "' channel. Message: '" + message + "'");
+			DISCORD_DEBUG.debug(() -> "[MC->Discord] " + (sender == null ? "No given sender " : sender.getName() + " (generic)") + "sent message to '" + channel + "' channel. Message: '" + message + "'");
 
 			DiscordUtil.sendMessage(textChannel, message);
 		}
 
-		LagCatcher.end("Minecraft to Discord", Debugger.isDebugged("discord") ? 0 : SimpleSettings.LAG_THRESHOLD_MILLIS, "Minecraft > Discord sending took {time} ms");
+		LagCatcher.end("Minecraft to Discord", DISCORD_DEBUG.isEnabled() ? 0 : SimpleSettings.LAG_THRESHOLD_MILLIS, "Minecraft > Discord sending took {time} ms");
 		return true;
 	}
 }
@@ -15,6 +15,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.mineacademy.fo.Common;
 import org.mineacademy.fo.collection.expiringmap.ExpiringMap;
+import org.mineacademy.fo.debug.CacheRegistry;
 import org.mineacademy.fo.plugin.SimplePlugin;
 
 import lombok.NonNull;
@@ -37,7 +38,7 @@ public final class JavaScriptExecutor {
 	 *
 	 * Player -> Map of scripts and their results
 	 */
-	private static final Map<UUID, Map<String, Object>> resultCache = ExpiringMap.builder().expiration(1, TimeUnit.SECONDS).build();
+	private static final Map<UUID, Map<String, Object>> resultCache = CacheRegistry.register("javascript results", ExpiringMap.builder().expiration(1, TimeUnit.SECONDS).build());
 
 	// Load the engine
 	static {
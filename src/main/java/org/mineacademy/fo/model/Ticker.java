@@ -0,0 +1,407 @@
+package org.mineacademy.fo.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.mineacademy.fo.Common;
+import org.mineacademy.fo.MathUtil;
+import org.mineacademy.fo.debug.LatencyHistogram;
+import org.mineacademy.fo.debug.TickProfiler;
+import org.mineacademy.fo.plugin.SimplePlugin;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+
+/**
+ * A single timer running many lightweight tasks on the main thread, so that
+ * per-entity and per-player tasks do not each take a slot in the Bukkit scheduler
+ *
+ * Tasks are kept in a hashed timing wheel: each tick we only look at tasks in
+ * the slot of the current tick, so scheduling and cancelling are cheap no matter
+ * how many tasks wait. Each task gets a {@link Handle} to cancel it.
+ *
+ * How long tasks take each tick is recorded, and we log a warning when they take
+ * longer than {@link #getBudgetMillis()} in one tick. A task throwing an error is cancelled.
+ *
+ * Like other tasks, all tasks are cancelled when the plugin is reloaded.
+ */
+public final class Ticker {
+
+	/**
+	 * How many slots the wheel has, must be a power of two
+	 */
+	private static final int WHEEL_SIZE = 512;
+
+	/**
+	 * How often we warn about going over the budget
+	 */
+	private static final long BUDGET_WARN_INTERVAL_MILLIS = 60_000;
+
+	/**
+	 * The slots of the wheel, tasks are in the slot of the tick they run next
+	 */
+	private static final List<Handle>[] wheel = newWheel();
+
+	/**
+	 * Tasks scheduled since the last tick, may be added from any thread
+	 */
+	private static final Queue<Handle> pending = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Used to give each task an id
+	 */
+	private static final AtomicInteger ids = new AtomicInteger();
+
+	/**
+	 * How long all tasks took in each tick
+	 */
+	@Getter
+	private static final LatencyHistogram tickCost = new LatencyHistogram();
+
+	/**
+	 * How many milliseconds the tasks may take in one tick before we warn
+	 */
+	@Getter
+	@Setter
+	private static volatile double budgetMillis = 5;
+
+	/**
+	 * How many ticks went over the budget
+	 */
+	@Getter
+	private static volatile long ticksOverBudget = 0;
+
+	/**
+	 * How many tasks are in the wheel
+	 */
+	@Getter
+	private static int scheduled = 0;
+
+	/**
+	 * A list to swap with the processed slot
+	 */
+	private static List<Handle> spare = new ArrayList<>();
+
+	/**
+	 * The current tick, counted since we started
+	 */
+	private static long currentTick = 0;
+
+	/**
+	 * The Bukkit task id running the wheel, or -1 if not running
+	 */
+	private static volatile int taskId = -1;
+
+	/**
+	 * When we last warned about going over the budget
+	 */
+	private static long lastBudgetWarning = 0;
+
+	private Ticker() {
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Scheduling
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Run the task once after the given amount of ticks
+	 *
+	 * @param delayTicks
+	 * @param task
+	 * @return the handle to cancel the task
+	 */
+	public static Handle runLater(final int delayTicks, @NonNull final Runnable task) {
+		return schedule(delayTicks, 0, TickProfiler.wrap(task, false));
+	}
+
+	/**
+	 * Run the task every given amount of ticks, starting after one period.
+	 * The task gets its handle to cancel itself.
+	 *
+	 * @param periodTicks
+	 * @param task
+	 * @return the handle to cancel the task
+	 */
+	public static Handle runTimer(final int periodTicks, @NonNull final Consumer<Handle> task) {
+		return runTimer(periodTicks, periodTicks, task);
+	}
+
+	/**
+	 * Run the task every given amount of ticks, starting after the given delay.
+	 * The task gets its handle to cancel itself.
+	 *
+	 * @param delayTicks
+	 * @param periodTicks
+	 * @param task
+	 * @return the handle to cancel the task
+	 */
+	public static Handle runTimer(final int delayTicks, final int periodTicks, @NonNull final Consumer<Handle> task) {
+		return schedule(delayTicks, MathUtil.atLeast(periodTicks, 1), TickProfiler.wrap(task));
+	}
+
+	/*
+	 * Queue the task for the wheel, starting it if not running
+	 */
+	private static Handle schedule(final int delayTicks, final int periodTicks, final Object task) {
+		final Handle handle = new Handle(ids.incrementAndGet(), task, MathUtil.atLeast(delayTicks, 1), periodTicks);
+
+		if (!start())
+			handle.cancelled = true;
+		else
+			pending.add(handle);
+
+		return handle;
+	}
+
+	/*
+	 * Start the wheel task if it is not running, returning false when the plugin is disabled.
+	 * When our task was cancelled, such as on reload, forget all tasks like Bukkit does.
+	 */
+	private static synchronized boolean start() {
+		if (!SimplePlugin.hasInstance() || !SimplePlugin.getInstance().isEnabled())
+			return false;
+
+		final BukkitScheduler scheduler = Bukkit.getScheduler();
+
+		if (taskId != -1 && (scheduler.isQueued(taskId) || scheduler.isCurrentlyRunning(taskId)))
+			return true;
+
+		if (taskId != -1)
+			clear();
+
+		taskId = scheduler.runTaskTimer(SimplePlugin.getInstance(), Ticker::tick, 1, 1).getTaskId();
+
+		return true;
+	}
+
+	/**
+	 * Stop the wheel and cancel all tasks, called automatically
+	 * when the plugin is reloaded or disabled
+	 */
+	public static synchronized void reset() {
+		if (taskId != -1) {
+			Bukkit.getScheduler().cancelTask(taskId);
+
+			taskId = -1;
+		}
+
+		clear();
+	}
+
+	/*
+	 * Cancel and forget all tasks
+	 */
+	private static void clear() {
+		for (final List<Handle> slot : wheel) {
+			for (final Handle handle : slot)
+				handle.cancelled = true;
+
+			slot.clear();
+		}
+
+		Handle handle;
+
+		while ((handle = pending.poll()) != null)
+			handle.cancelled = true;
+
+		scheduled = 0;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Ticking
+	// ------------------------------------------------------------------------------------------------------------
+
+	/*
+	 * Run the tasks due this tick
+	 */
+	private static void tick() {
+		currentTick++;
+
+		// Put new tasks into the wheel
+		Handle added;
+
+		while ((added = pending.poll()) != null)
+			if (!added.cancelled) {
+				added.dueTick = currentTick + added.delayTicks - 1;
+
+				insert(added);
+			}
+
+		final int index = (int) (currentTick & (WHEEL_SIZE - 1));
+		final List<Handle> slot = wheel[index];
+
+		if (slot.isEmpty())
+			return;
+
+		// Swap the slot so tasks rescheduled into it wait for the next round
+		wheel[index] = spare;
+
+		final long start = System.nanoTime();
+		int ran = 0;
+
+		for (final Handle handle : slot) {
+			scheduled--;
+
+			if (handle.cancelled)
+				continue;
+
+			// Due in a later round
+			if (handle.dueTick > currentTick) {
+				insert(handle);
+
+				continue;
+			}
+
+			run(handle);
+			ran++;
+
+			if (handle.periodTicks > 0 && !handle.cancelled) {
+				handle.dueTick = currentTick + handle.periodTicks;
+
+				insert(handle);
+
+			} else
+				handle.cancelled = true;
+		}
+
+		slot.clear();
+		spare = slot;
+
+		if (ran > 0)
+			recordCost(System.nanoTime() - start, ran);
+	}
+
+	/*
+	 * Put the task into the slot of its due tick
+	 */
+	private static void insert(final Handle handle) {
+		wheel[(int) (handle.dueTick & (WHEEL_SIZE - 1))].add(handle);
+
+		scheduled++;
+	}
+
+	/*
+	 * Run the task, cancelling it if it throws an error
+	 */
+	@SuppressWarnings("unchecked")
+	private static void run(final Handle handle) {
+		try {
+			handle.runs++;
+
+			if (handle.task instanceof Runnable)
+				((Runnable) handle.task).run();
+			else
+				((Consumer<Handle>) handle.task).accept(handle);
+
+		} catch (final Throwable t) {
+			handle.cancelled = true;
+
+			Common.error(t, "Error running ticker task " + handle.task.getClass().getName() + ", the task has been cancelled.");
+		}
+	}
+
+	/*
+	 * Record how long the tasks took this tick, warning when over the budget
+	 */
+	private static void recordCost(final long nanos, final int ran) {
+		tickCost.record(nanos);
+
+		final double millis = nanos / 1_000_000D;
+
+		if (millis <= budgetMillis)
+			return;
+
+		ticksOverBudget++;
+
+		final long now = System.currentTimeMillis();
+
+		if (now - lastBudgetWarning > BUDGET_WARN_INTERVAL_MILLIS) {
+			lastBudgetWarning = now;
+
+			Common.log("&eTicker tasks took " + MathUtil.formatTwoDigits(millis) + " ms in one tick running " + ran + " tasks, over the budget of " + MathUtil.formatTwoDigits(budgetMillis) + " ms. "
+					+ scheduled + " tasks scheduled, " + ticksOverBudget + " ticks over budget so far, per tick " + tickCost + ".");
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Handle>[] newWheel() {
+		final List<Handle>[] wheel = new List[WHEEL_SIZE];
+
+		for (int i = 0; i < WHEEL_SIZE; i++)
+			wheel[i] = new ArrayList<>();
+
+		return wheel;
+	}
+
+	/**
+	 * A task scheduled in the ticker, use it to cancel the task
+	 */
+	public static final class Handle {
+
+		/**
+		 * The unique task id
+		 */
+		@Getter
+		private final int id;
+
+		/**
+		 * The task, a Runnable or a Consumer taking this handle
+		 */
+		private final Object task;
+
+		/**
+		 * Ticks to wait before the first run
+		 */
+		private final int delayTicks;
+
+		/**
+		 * Ticks between runs, or 0 to run once
+		 */
+		private final int periodTicks;
+
+		/**
+		 * The tick of the next run
+		 */
+		private long dueTick;
+
+		/**
+		 * How many times the task ran
+		 */
+		@Getter
+		private int runs;
+
+		/**
+		 * Is the task cancelled or done?
+		 */
+		@Getter
+		private volatile boolean cancelled;
+
+		private Handle(final int id, final Object task, final int delayTicks, final int periodTicks) {
+			this.id = id;
+			this.task = task;
+			this.delayTicks = delayTicks;
+			this.periodTicks = periodTicks;
+		}
+
+		/**
+		 * Cancel the task, it will not run again. The task is removed
+		 * from the wheel when its slot comes next.
+		 */
+		public void cancel() {
+			cancelled = true;
+		}
+
+		@Override
+		public String toString() {
+			return "Ticker.Handle{id=" + id + ", runs=" + runs + (cancelled ? ", cancelled" : "") + "}";
+		}
+	}
+}
@@ -21,6 +21,7 @@ import org.mineacademy.fo.MinecraftVersion;
 import org.mineacademy.fo.TimeUtil;
 import org.mineacademy.fo.collection.StrictMap;
 import org.mineacademy.fo.collection.expiringmap.ExpiringMap;
+import org.mineacademy.fo.debug.CacheRegistry;
 import org.mineacademy.fo.model.Variable.VariableScope;
 import org.mineacademy.fo.remain.Remain;
 import org.mineacademy.fo.settings.SimpleSettings;
@@ -62,12 +63,12 @@ public final class Variables {
 	/**
 	 * Player, Their Cached Variables
 	 */
-	private static final StrictMap<String, Map<String, String>> cache = new StrictMap<>();
+	private static final StrictMap<String, Map<String, String>> cache = CacheRegistry.register("variables", new StrictMap<>());
 
 	/**
 	 * Player, Original Message, Translated Message
 	 */
-	private static final Map<String, Map<String, String>> customCache = makeNewFastCache();
+	private static final Map<String, Map<String, String>> customCache = CacheRegistry.register("variables per player", makeNewFastCache());
 
 	// ------------------------------------------------------------------------------------------------------------
 	// Custom variables
@@ -39,7 +39,11 @@ import org.mineacademy.fo.bungee.SimpleBungee;
 import org.mineacademy.fo.collection.StrictList;
 import org.mineacademy.fo.command.SimpleCommand;
 import org.mineacademy.fo.command.SimpleCommandGroup;
+import org.mineacademy.fo.database.SimpleFlatDatabase;
+import org.mineacademy.fo.debug.CacheRegistry;
 import org.mineacademy.fo.debug.Debugger;
+import org.mineacademy.fo.debug.LogWriter;
+import org.mineacademy.fo.debug.TickProfiler;
 import org.mineacademy.fo.event.SimpleListener;
 import org.mineacademy.fo.exception.FoException;
 import org.mineacademy.fo.menu.Menu;
@@ -48,11 +52,13 @@ import org.mineacademy.fo.menu.tool.Rocket;
 import org.mineacademy.fo.menu.tool.Tool;
 import org.mineacademy.fo.menu.tool.ToolsListener;
 import org.mineacademy.fo.metrics.Metrics;
+import org.mineacademy.fo.model.BlockScanner;
 import org.mineacademy.fo.model.DiscordListener;
 import org.mineacademy.fo.model.EnchantmentListener;
 import org.mineacademy.fo.model.HookManager;
 import org.mineacademy.fo.model.SimpleEnchantment;
 import org.mineacademy.fo.model.SimpleScoreboard;
+import org.mineacademy.fo.model.Ticker;
 import org.mineacademy.fo.remain.CompMetadata;
 import org.mineacademy.fo.remain.Remain;
 import org.mineacademy.fo.settings.SimpleLocalization;
@@ -61,6 +67,7 @@ import org.mineacademy.fo.settings.YamlConfig;
 import org.mineacademy.fo.settings.YamlStaticConfig;
 import org.mineacademy.fo.update.SpigotUpdater;
 import org.mineacademy.fo.visual.BlockVisualizer;
+import org.mineacademy.fo.visual.VisualizedRegion;
 
 import lombok.Getter;
 
@@ -69,6 +76,11 @@ import lombok.Getter;
  */
 public abstract class SimplePlugin extends JavaPlugin implements Listener {
 
+	/**
+	 * Prints debug messages about registering BungeeCord
+	 */
+	private static final Debugger.Section BUNGEE_DEBUG = Debugger.section("bungee");
+
 	// ----------------------------------------------------------------------------------------
 	// Static
 	// ----------------------------------------------------------------------------------------
@@ -321,6 +333,9 @@ public abstract class SimplePlugin extends JavaPlugin implements Listener {
 			// Set the logging and tell prefix
 			Common.setTellPrefix(SimpleSettings.PLUGIN_PREFIX);
 
+			// Watch our caches for leaks
+			startCacheChecks();
+
 			// Finish off by starting metrics (currently bStats)
 			final int pluginId = getMetricsPluginId();
 
@@ -344,7 +359,7 @@ public abstract class SimplePlugin extends JavaPlugin implements Listener {
 			messenger.registerOutgoingPluginChannel(this, bungee.getChannel());
 
 			reloadables.registerEvents(bungee.getListener());
-			Debugger.debug("bungee", "Registered BungeeCord listener for " + bungee.getChannel());
+			BUNGEE_DEBUG.debug(() -> "Registered BungeeCord listener for " + bungee.getChannel());
 		}
 	}
 
@@ -634,6 +649,9 @@ public abstract class SimplePlugin extends JavaPlugin implements Listener {
 			Common.log("&cPlugin might not shut down property. Got " + t.getClass().getSimpleName() + ": " + t.getMessage());
 		}
 
+		// Write saves still queued in databases the plugin did not close
+		SimpleFlatDatabase.closeAll();
+
 		unregisterReloadables();
 
 		try {
@@ -659,6 +677,12 @@ public abstract class SimplePlugin extends JavaPlugin implements Listener {
 			t.printStackTrace();
 		}
 
+		// Stop block scanner threads
+		BlockScanner.shutdown();
+
+		// Write pending debug and error logs
+		LogWriter.shutdown();
+
 		Objects.requireNonNull(instance, "Instance of " + getName() + " already nulled!");
 		instance = null;
 	}
@@ -755,6 +779,7 @@ public abstract class SimplePlugin extends JavaPlugin implements Listener {
 			startingReloadables = false;
 
 			registerBungeeCord();
+			startCacheChecks();
 
 		} catch (final Throwable t) {
 			Common.throwError(t, "Error reloading " + getName() + " " + getVersion());
@@ -767,11 +792,20 @@ public abstract class SimplePlugin extends JavaPlugin implements Listener {
 		}
 	}
 
+	/*
+	 * Periodically check our caches for unbounded growth, the task is cancelled on reload
+	 */
+	private final void startCacheChecks() {
+		if (SimpleSettings.CACHE_CHECK_MINUTES != -1)
+			CacheRegistry.scheduleChecks(SimpleSettings.CACHE_CHECK_MINUTES * 60, SimpleSettings.LOG_CACHE_SIZES);
+	}
+
 	private final void unregisterReloadables() {
 		SimpleSettings.resetSettingsCall();
 		SimpleLocalization.resetLocalizationCall();
 
 		BlockVisualizer.stopAll();
+		VisualizedRegion.stopAll();
 
 		if (getMainCommand() != null && getMainCommand().isRegistered())
 			getMainCommand().unregister();
@@ -785,6 +819,7 @@ public abstract class SimplePlugin extends JavaPlugin implements Listener {
 		getServer().getMessenger().unregisterOutgoingPluginChannel(this);
 
 		getServer().getScheduler().cancelTasks(this);
+		Ticker.reset();
 	}
 
 	// ----------------------------------------------------------------------------------------
@@ -814,7 +849,7 @@ public abstract class SimplePlugin extends JavaPlugin implements Listener {
 		if (startingReloadables)
 			reloadables.registerEvents(listener);
 		else
-			getServer().getPluginManager().registerEvents(listener, this);
+			TickProfiler.registerEvents(listener, this);
 	}
 
 	/**
@@ -1,6 +1,6 @@
 package org.mineacademy.fo.region;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -15,6 +15,8 @@ import org.mineacademy.fo.BlockUtil;
 import org.mineacademy.fo.Common;
 import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.collection.SerializedMap;
+import org.mineacademy.fo.exception.FoException;
+import org.mineacademy.fo.model.BlockScanner;
 import org.mineacademy.fo.model.ConfigSerializable;
 
 import lombok.Getter;
@@ -23,6 +25,10 @@ import lombok.Setter;
 
 /**
  * Represents a cuboid region
+ *
+ * The block bounds and the world name are computed when a corner is set, so
+ * checking if something is within the region does not allocate. When you change
+ * a corner location directly, set it again so the bounds are updated.
  */
 @Getter
 public class Region implements ConfigSerializable {
@@ -44,6 +50,23 @@ public class Region implements ConfigSerializable {
 	 */
 	private Location secondary;
 
+	/**
+	 * The name of the world both corners are in, interned, or null
+	 * if the region is not whole or the corners are in different worlds
+	 */
+	@Nullable
+	private String worldName;
+
+	/**
+	 * The lowest block coordinates within the region
+	 */
+	private int minX, minY, minZ;
+
+	/**
+	 * The highest block coordinates within the region
+	 */
+	private int maxX, maxY, maxZ;
+
 	/**
 	 * Create a new region
 	 *
@@ -75,33 +98,51 @@ public class Region implements ConfigSerializable {
 
 			this.secondary = secondary;
 		}
+
+		updateBounds();
 	}
 
 	/*
-	 * Change primary/secondary around to make secondary always the lowest point
+	 * Compute the block bounds and the world from the corners
 	 */
-	private Location[] getCorrectedPoints() {
-		if (primary == null || secondary == null)
-			return null;
+	private void updateBounds() {
+		if (primary == null || secondary == null || primary.getWorld() == null || secondary.getWorld() == null) {
+			worldName = null;
 
-		Valid.checkBoolean(primary.getWorld().getName().equals(secondary.getWorld().getName()), "Points must be in one world! Primary: " + primary + " != secondary: " + secondary);
+			return;
+		}
+
+		final String primaryWorld = primary.getWorld().getName();
+
+		worldName = primaryWorld.equals(secondary.getWorld().getName()) ? primaryWorld.intern() : null;
 
-		final int x1 = primary.getBlockX(), x2 = secondary.getBlockX(),
-				y1 = primary.getBlockY(), y2 = secondary.getBlockY(),
-				z1 = primary.getBlockZ(), z2 = secondary.getBlockZ();
+		minX = Math.min(primary.getBlockX(), secondary.getBlockX());
+		minY = Math.min(primary.getBlockY(), secondary.getBlockY());
+		minZ = Math.min(primary.getBlockZ(), secondary.getBlockZ());
 
-		final Location primary = this.primary.clone();
-		final Location secondary = this.secondary.clone();
+		maxX = Math.max(primary.getBlockX(), secondary.getBlockX());
+		maxY = Math.max(primary.getBlockY(), secondary.getBlockY());
+		maxZ = Math.max(primary.getBlockZ(), secondary.getBlockZ());
+	}
+
+	/*
+	 * Fail if the region is not whole or its corners are in different worlds
+	 */
+	private void checkBounds(final String operation) {
+		if (!isWhole())
+			throw new FoException("Cannot perform " + operation + " on a non-complete region: " + toString());
 
-		primary.setX(Math.min(x1, x2));
-		primary.setY(Math.min(y1, y2));
-		primary.setZ(Math.min(z1, z2));
+		if (worldName == null)
+			throw new FoException("Points must be in one world! Primary: " + primary + " != secondary: " + secondary);
+	}
 
-		secondary.setX(Math.max(x1, x2));
-		secondary.setY(Math.max(y1, y2));
-		secondary.setZ(Math.max(z1, z2));
+	/*
+	 * Return the lowest and highest corner of the region
+	 */
+	private Location[] getCorrectedPoints() {
+		final World world = primary.getWorld();
 
-		return new Location[] { primary, secondary };
+		return new Location[] { new Location(world, minX, minY, minZ), new Location(world, maxX, maxY, maxZ) };
 	}
 
 	/**
@@ -110,30 +151,37 @@ public class Region implements ConfigSerializable {
 	 * @return
 	 */
 	public final Location getCenter() {
-		Valid.checkBoolean(isWhole(), "Cannot perform getCenter on a non-complete region: " + toString());
+		checkBounds("getCenter");
 
-		final Location[] centered = getCorrectedPoints();
-		final Location primary = centered[0];
-		final Location secondary = centered[1];
-
-		return new Location(primary.getWorld(),
-				(primary.getX() + secondary.getX()) / 2,
-				(primary.getY() + secondary.getY()) / 2,
-				(primary.getZ() + secondary.getZ()) / 2);
+		return new Location(primary.getWorld(), (minX + maxX) / 2D, (minY + maxY) / 2D, (minZ + maxZ) / 2D);
 	}
 
 	/**
-	 * Count all blocks within this region
+	 * Count all blocks within this region, this may freeze the server for large regions,
+	 * see {@link #scanBlocks()}
 	 *
 	 * @return
 	 */
 	public final List<Block> getBlocks() {
-		Valid.checkBoolean(isWhole(), "Cannot perform getBlocks on a non-complete region: " + toString());
+		checkBounds("getBlocks");
+
 		final Location[] centered = getCorrectedPoints();
 
 		return BlockUtil.getBlocks(centered[0], centered[1]);
 	}
 
+	/**
+	 * Return a scanner visiting blocks within this region off the main thread,
+	 * use it instead of {@link #getBlocks()} for large regions
+	 *
+	 * @return
+	 */
+	public final BlockScanner scanBlocks() {
+		checkBounds("scanBlocks");
+
+		return BlockScanner.of(this);
+	}
+
 	/**
 	 * Return locations representing the bounding box of a cuboid region,
 	 * used when rendering particle effects
@@ -152,23 +200,18 @@ public class Region implements ConfigSerializable {
 	 * @return
 	 */
 	public final List<Entity> getEntities() {
-		Valid.checkBoolean(isWhole(), "Cannot perform getEntities on a non-complete region: " + toString());
+		checkBounds("getEntities");
 
-		final List<Entity> found = new LinkedList<>();
+		final List<Entity> found = new ArrayList<>();
+		final World world = getWorld();
 
-		final Location[] centered = getCorrectedPoints();
-		final Location primary = centered[0];
-		final Location secondary = centered[1];
-
-		final int xMin = (int) primary.getX() >> 4;
-		final int xMax = (int) secondary.getX() >> 4;
-		final int zMin = (int) primary.getZ() >> 4;
-		final int zMax = (int) secondary.getZ() >> 4;
-
-		for (int cx = xMin; cx <= xMax; ++cx)
-			for (int cz = zMin; cz <= zMax; ++cz)
-				for (final Entity entity : getWorld().getChunkAt(cx, cz).getEntities())
-					if (entity.isValid() && entity.getLocation() != null && isWithin(entity.getLocation()))
+		// Reuse one location instead of getting a new one for each entity
+		final Location location = new Location(world, 0, 0, 0);
+
+		for (int cx = minX >> 4; cx <= maxX >> 4; ++cx)
+			for (int cz = minZ >> 4; cz <= maxZ >> 4; ++cz)
+				for (final Entity entity : world.getChunkAt(cx, cz).getEntities())
+					if (entity.isValid() && isWithin(entity.getLocation(location)))
 						found.add(entity);
 
 		return found;
@@ -183,14 +226,10 @@ public class Region implements ConfigSerializable {
 		if (!isWhole())
 			return null;
 
-		if (primary != null && secondary == null)
-			return Bukkit.getWorld(primary.getWorld().getName());
+		if (worldName == null)
+			throw new FoException("Worlds of this region not the same: " + primary.getWorld() + " != " + secondary.getWorld());
 
-		if (secondary != null && primary == null)
-			return Bukkit.getWorld(secondary.getWorld().getName());
-
-		Valid.checkBoolean(primary.getWorld().getName().equals(secondary.getWorld().getName()), "Worlds of this region not the same: " + primary.getWorld() + " != " + secondary.getWorld());
-		return Bukkit.getWorld(primary.getWorld().getName());
+		return Bukkit.getWorld(worldName);
 	}
 
 	/**
@@ -200,22 +239,28 @@ public class Region implements ConfigSerializable {
 	 * @return
 	 */
 	public final boolean isWithin(@NonNull final Location location) {
-		Valid.checkBoolean(isWhole(), "Cannot perform isWithin on a non-complete region: " + toString());
+		return isWithin(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+	}
 
-		if (!location.getWorld().getName().equals(primary.getWorld().getName()))
-			return false;
+	/**
+	 * Return true if the given block coordinates in the given world are within this region
+	 *
+	 * @param world
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @return
+	 */
+	public final boolean isWithin(final World world, final int x, final int y, final int z) {
+		checkBounds("isWithin");
 
-		final Location[] centered = getCorrectedPoints();
-		final Location primary = centered[0];
-		final Location secondary = centered[1];
+		if (world == null || x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ)
+			return false;
 
-		final int x = (int) location.getX();
-		final int y = (int) location.getY();
-		final int z = (int) location.getZ();
+		// Interned so that this is usually an identity check
+		final String name = world.getName();
 
-		return x >= primary.getX() && x <= secondary.getX()
-				&& y >= primary.getY() && y <= secondary.getY()
-				&& z >= primary.getZ() && z <= secondary.getZ();
+		return name == worldName || worldName.equals(name);
 	}
 
 	/**
@@ -234,6 +279,8 @@ public class Region implements ConfigSerializable {
 	 */
 	public final void setPrimary(final Location primary) {
 		this.primary = primary;
+
+		updateBounds();
 	}
 
 	/**
@@ -243,6 +290,8 @@ public class Region implements ConfigSerializable {
 	 */
 	public final void setSecondary(final Location secondary) {
 		this.secondary = secondary;
+
+		updateBounds();
 	}
 
 	/**
@@ -258,6 +307,8 @@ public class Region implements ConfigSerializable {
 
 		if (secondary != null)
 			this.secondary = secondary;
+
+		updateBounds();
 	}
 
 	@Override
@@ -0,0 +1,556 @@
+package org.mineacademy.fo.region;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.mineacademy.fo.Valid;
+
+import lombok.NonNull;
+
+/**
+ * An index finding which regions contain a point or intersect a box without
+ * checking every region, for plugins with many regions checked on each move
+ *
+ * Each world has a grid of chunk-sized cells keeping the regions touching them,
+ * so a point query only checks the regions in one cell. Regions spanning more than
+ * {@link #MAX_CELLS} cells are kept aside and always checked.
+ *
+ * The index keeps the bounds regions had when added. When you change the
+ * corners of an indexed region, call {@link #update(Region)}.
+ *
+ * The index is not thread-safe, use it from the main thread.
+ *
+ * @param <T> the region type
+ */
+public final class RegionIndex<T extends Region> {
+
+	/**
+	 * Cells are 16x16 blocks, the size of a chunk
+	 */
+	private static final int CELL_SHIFT = 4;
+
+	/**
+	 * Regions spanning more cells are not put into the grid but always checked
+	 */
+	public static final int MAX_CELLS = 1024;
+
+	/**
+	 * Indexed regions with their bounds when added
+	 */
+	private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+
+	/**
+	 * The grid of each world by its name
+	 */
+	private final Map<String, WorldGrid<T>> worlds = new HashMap<>();
+
+	/**
+	 * Increased on each box query to visit each region once
+	 */
+	private int queryId = 0;
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Modifying
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Add the region to the index, the region must be whole.
+	 * Adding an indexed region updates it.
+	 *
+	 * @param region
+	 */
+	public void add(@NonNull final T region) {
+		Valid.checkBoolean(region.isWhole() && region.getWorldName() != null, "Cannot index a non-complete region: " + region);
+
+		remove(region);
+
+		final Entry<T> entry = new Entry<>(region);
+		final WorldGrid<T> grid = worlds.computeIfAbsent(entry.worldName, name -> new WorldGrid<>());
+
+		entries.put(region, entry);
+		grid.add(entry);
+	}
+
+	/**
+	 * Remove the region from the index
+	 *
+	 * @param region
+	 * @return true if the region was indexed
+	 */
+	public boolean remove(@NonNull final T region) {
+		final Entry<T> entry = entries.remove(region);
+
+		if (entry == null)
+			return false;
+
+		final WorldGrid<T> grid = worlds.get(entry.worldName);
+
+		grid.remove(entry);
+
+		if (grid.isEmpty())
+			worlds.remove(entry.worldName);
+
+		return true;
+	}
+
+	/**
+	 * Update the region after its corners changed, removing
+	 * it if it is no longer whole
+	 *
+	 * @param region
+	 */
+	public void update(@NonNull final T region) {
+		if (region.isWhole() && region.getWorldName() != null)
+			add(region);
+		else
+			remove(region);
+	}
+
+	/**
+	 * Return true if the region is indexed
+	 *
+	 * @param region
+	 * @return
+	 */
+	public boolean contains(final T region) {
+		return entries.containsKey(region);
+	}
+
+	/**
+	 * Return how many regions are indexed
+	 *
+	 * @return
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Remove all regions
+	 */
+	public void clear() {
+		entries.clear();
+		worlds.clear();
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Point queries
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Return the regions containing the location
+	 *
+	 * @param location
+	 * @return
+	 */
+	public List<T> getRegionsAt(@NonNull final Location location) {
+		return getRegionsAt(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+	}
+
+	/**
+	 * Return the regions containing the block coordinates in the world
+	 *
+	 * @param world
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @return
+	 */
+	public List<T> getRegionsAt(final World world, final int x, final int y, final int z) {
+		final List<T> found = new ArrayList<>();
+
+		forEachAt(world, x, y, z, found::add);
+
+		return found;
+	}
+
+	/**
+	 * Return the first region found containing the location, or null
+	 *
+	 * @param location
+	 * @return
+	 */
+	public T findAt(@NonNull final Location location) {
+		return findAt(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+	}
+
+	/**
+	 * Return the first region found containing the block coordinates
+	 * in the world, or null. This does not allocate.
+	 *
+	 * @param world
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @return
+	 */
+	public T findAt(final World world, final int x, final int y, final int z) {
+		final WorldGrid<T> grid = world == null ? null : worlds.get(world.getName());
+
+		if (grid == null)
+			return null;
+
+		final Bucket<T> bucket = grid.cells.get(pack(x >> CELL_SHIFT, z >> CELL_SHIFT));
+
+		if (bucket != null)
+			for (int i = 0; i < bucket.size; i++)
+				if (bucket.entries[i].contains(x, y, z))
+					return bucket.entries[i].region;
+
+		for (int i = 0; i < grid.large.size; i++)
+			if (grid.large.entries[i].contains(x, y, z))
+				return grid.large.entries[i].region;
+
+		return null;
+	}
+
+	/**
+	 * Give each region containing the block coordinates in the world
+	 * to the consumer. This does not allocate.
+	 *
+	 * @param world
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @param consumer
+	 */
+	public void forEachAt(final World world, final int x, final int y, final int z, @NonNull final Consumer<T> consumer) {
+		final WorldGrid<T> grid = world == null ? null : worlds.get(world.getName());
+
+		if (grid == null)
+			return;
+
+		final Bucket<T> bucket = grid.cells.get(pack(x >> CELL_SHIFT, z >> CELL_SHIFT));
+
+		if (bucket != null)
+			for (int i = 0; i < bucket.size; i++)
+				if (bucket.entries[i].contains(x, y, z))
+					consumer.accept(bucket.entries[i].region);
+
+		for (int i = 0; i < grid.large.size; i++)
+			if (grid.large.entries[i].contains(x, y, z))
+				consumer.accept(grid.large.entries[i].region);
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Box queries
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Return the indexed regions intersecting the given region,
+	 * which does not need to be indexed
+	 *
+	 * @param region
+	 * @return
+	 */
+	public List<T> getIntersecting(@NonNull final Region region) {
+		Valid.checkBoolean(region.isWhole() && region.getWorldName() != null, "Cannot query a non-complete region: " + region);
+
+		return getIntersecting(region.getWorldName(), region.getMinX(), region.getMinY(), region.getMinZ(), region.getMaxX(), region.getMaxY(), region.getMaxZ());
+	}
+
+	/**
+	 * Return the regions intersecting the box between the given block
+	 * coordinates in the world, both inclusive
+	 *
+	 * @param world
+	 * @param minX
+	 * @param minY
+	 * @param minZ
+	 * @param maxX
+	 * @param maxY
+	 * @param maxZ
+	 * @return
+	 */
+	public List<T> getIntersecting(@NonNull final World world, final int minX, final int minY, final int minZ, final int maxX, final int maxY, final int maxZ) {
+		return getIntersecting(world.getName(), Math.min(minX, maxX), Math.min(minY, maxY), Math.min(minZ, maxZ), Math.max(minX, maxX), Math.max(minY, maxY), Math.max(minZ, maxZ));
+	}
+
+	private List<T> getIntersecting(final String worldName, final int minX, final int minY, final int minZ, final int maxX, final int maxY, final int maxZ) {
+		final List<T> found = new ArrayList<>();
+		final WorldGrid<T> grid = worlds.get(worldName);
+
+		if (grid == null)
+			return found;
+
+		final int query = ++queryId;
+		final long cells = ((long) (maxX >> CELL_SHIFT) - (minX >> CELL_SHIFT) + 1) * ((long) (maxZ >> CELL_SHIFT) - (minZ >> CELL_SHIFT) + 1);
+
+		// Checking every region is cheaper than visiting many empty cells
+		if (cells > grid.cells.size()) {
+			for (final Bucket<T> bucket : grid.cells.values)
+				if (bucket != null)
+					collect(bucket, query, minX, minY, minZ, maxX, maxY, maxZ, found);
+
+		} else
+			for (int cx = minX >> CELL_SHIFT; cx <= maxX >> CELL_SHIFT; cx++)
+				for (int cz = minZ >> CELL_SHIFT; cz <= maxZ >> CELL_SHIFT; cz++) {
+					final Bucket<T> bucket = grid.cells.get(pack(cx, cz));
+
+					if (bucket != null)
+						collect(bucket, query, minX, minY, minZ, maxX, maxY, maxZ, found);
+				}
+
+		collect(grid.large, query, minX, minY, minZ, maxX, maxY, maxZ, found);
+
+		return found;
+	}
+
+	/*
+	 * Add regions in the bucket intersecting the box, each once per query
+	 */
+	private void collect(final Bucket<T> bucket, final int query, final int minX, final int minY, final int minZ, final int maxX, final int maxY, final int maxZ, final List<T> found) {
+		for (int i = 0; i < bucket.size; i++) {
+			final Entry<T> entry = bucket.entries[i];
+
+			if (entry.queryId != query && entry.intersects(minX, minY, minZ, maxX, maxY, maxZ)) {
+				entry.queryId = query;
+
+				found.add(entry.region);
+			}
+		}
+	}
+
+	/*
+	 * Pack cell coordinates into one key
+	 */
+	private static long pack(final int cellX, final int cellZ) {
+		return (long) cellX << 32 | cellZ & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * An indexed region with its bounds when it was added
+	 */
+	private static final class Entry<T extends Region> {
+
+		private final T region;
+		private final String worldName;
+		private final int minX, minY, minZ, maxX, maxY, maxZ;
+
+		/**
+		 * The last box query that found this region
+		 */
+		private int queryId;
+
+		private Entry(final T region) {
+			this.region = region;
+			this.worldName = region.getWorldName();
+			this.minX = region.getMinX();
+			this.minY = region.getMinY();
+			this.minZ = region.getMinZ();
+			this.maxX = region.getMaxX();
+			this.maxY = region.getMaxY();
+			this.maxZ = region.getMaxZ();
+		}
+
+		private boolean contains(final int x, final int y, final int z) {
+			return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+		}
+
+		private boolean intersects(final int minX, final int minY, final int minZ, final int maxX, final int maxY, final int maxZ) {
+			return this.minX <= maxX && this.maxX >= minX && this.minY <= maxY && this.maxY >= minY && this.minZ <= maxZ && this.maxZ >= minZ;
+		}
+
+		private long countCells() {
+			return ((long) (maxX >> CELL_SHIFT) - (minX >> CELL_SHIFT) + 1) * ((long) (maxZ >> CELL_SHIFT) - (minZ >> CELL_SHIFT) + 1);
+		}
+	}
+
+	/**
+	 * The cells of one world
+	 */
+	private static final class WorldGrid<T extends Region> {
+
+		/**
+		 * Regions in each cell
+		 */
+		private final CellMap<T> cells = new CellMap<>();
+
+		/**
+		 * Regions spanning too many cells
+		 */
+		private final Bucket<T> large = new Bucket<>();
+
+		private void add(final Entry<T> entry) {
+			if (entry.countCells() > MAX_CELLS) {
+				large.add(entry);
+
+				return;
+			}
+
+			for (int cx = entry.minX >> CELL_SHIFT; cx <= entry.maxX >> CELL_SHIFT; cx++)
+				for (int cz = entry.minZ >> CELL_SHIFT; cz <= entry.maxZ >> CELL_SHIFT; cz++)
+					cells.getOrCreate(pack(cx, cz)).add(entry);
+		}
+
+		private void remove(final Entry<T> entry) {
+			if (entry.countCells() > MAX_CELLS) {
+				large.remove(entry);
+
+				return;
+			}
+
+			for (int cx = entry.minX >> CELL_SHIFT; cx <= entry.maxX >> CELL_SHIFT; cx++)
+				for (int cz = entry.minZ >> CELL_SHIFT; cz <= entry.maxZ >> CELL_SHIFT; cz++) {
+					final long key = pack(cx, cz);
+					final Bucket<T> bucket = cells.get(key);
+
+					if (bucket != null) {
+						bucket.remove(entry);
+
+						if (bucket.size == 0)
+							cells.remove(key);
+					}
+				}
+		}
+
+		private boolean isEmpty() {
+			return cells.size() == 0 && large.size == 0;
+		}
+	}
+
+	/**
+	 * A small array of regions
+	 */
+	private static final class Bucket<T extends Region> {
+
+		@SuppressWarnings("unchecked")
+		private Entry<T>[] entries = new Entry[2];
+		private int size;
+
+		private void add(final Entry<T> entry) {
+			if (size == entries.length)
+				entries = Arrays.copyOf(entries, size * 2);
+
+			entries[size++] = entry;
+		}
+
+		private void remove(final Entry<T> entry) {
+			for (int i = 0; i < size; i++)
+				if (entries[i] == entry) {
+					entries[i] = entries[--size];
+					entries[size] = null;
+
+					return;
+				}
+		}
+	}
+
+	/**
+	 * An open addressing hash map from packed cell coordinates to buckets,
+	 * so that looking up cells does not box the keys
+	 */
+	private static final class CellMap<T extends Region> {
+
+		private long[] keys = new long[16];
+		private Bucket<T>[] values = newValues(16);
+		private int size;
+
+		private Bucket<T> get(final long key) {
+			final int mask = keys.length - 1;
+
+			for (int i = hash(key) & mask;; i = i + 1 & mask) {
+				final Bucket<T> value = values[i];
+
+				if (value == null)
+					return null;
+
+				if (keys[i] == key)
+					return value;
+			}
+		}
+
+		private Bucket<T> getOrCreate(final long key) {
+			final Bucket<T> existing = get(key);
+
+			if (existing != null)
+				return existing;
+
+			if ((size + 1) * 4 > keys.length * 3)
+				resize();
+
+			final Bucket<T> bucket = new Bucket<>();
+			final int mask = keys.length - 1;
+			int i = hash(key) & mask;
+
+			while (values[i] != null)
+				i = i + 1 & mask;
+
+			keys[i] = key;
+			values[i] = bucket;
+			size++;
+
+			return bucket;
+		}
+
+		private void remove(final long key) {
+			final int mask = keys.length - 1;
+			int i = hash(key) & mask;
+
+			while (values[i] != null && keys[i] != key)
+				i = i + 1 & mask;
+
+			if (values[i] == null)
+				return;
+
+			values[i] = null;
+			size--;
+
+			// Move following entries back so lookups do not stop at the gap
+			for (int next = i + 1 & mask; values[next] != null; next = next + 1 & mask) {
+				final int ideal = hash(keys[next]) & mask;
+
+				if (next > i ? ideal <= i || ideal > next : ideal <= i && ideal > next) {
+					keys[i] = keys[next];
+					values[i] = values[next];
+					values[next] = null;
+
+					i = next;
+				}
+			}
+		}
+
+		private int size() {
+			return size;
+		}
+
+		private void resize() {
+			final long[] oldKeys = keys;
+			final Bucket<T>[] oldValues = values;
+
+			keys = new long[oldKeys.length * 2];
+			values = newValues(oldKeys.length * 2);
+
+			final int mask = keys.length - 1;
+
+			for (int j = 0; j < oldKeys.length; j++)
+				if (oldValues[j] != null) {
+					int i = hash(oldKeys[j]) & mask;
+
+					while (values[i] != null)
+						i = i + 1 & mask;
+
+					keys[i] = oldKeys[j];
+					values[i] = oldValues[j];
+				}
+		}
+
+		private static int hash(final long key) {
+			final long mixed = key * 0x9E3779B97F4A7C15L;
+
+			return (int) (mixed ^ mixed >>> 32);
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <T extends Region> Bucket<T>[] newValues(final int length) {
+			return new Bucket[length];
+		}
+	}
+}
@@ -26,6 +26,7 @@ import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.collection.SerializedMap;
 import org.mineacademy.fo.collection.StrictMap;
 import org.mineacademy.fo.constants.FoConstants;
+import org.mineacademy.fo.debug.CacheRegistry;
 import org.mineacademy.fo.model.ConfigSerializable;
 import org.mineacademy.fo.plugin.SimplePlugin;
 import org.mineacademy.fo.remain.nbt.NBTCompound;
@@ -378,8 +379,8 @@ public final class CompMetadata {
 		@Getter
 		private static final MetadataFile instance = new MetadataFile();
 
-		private final StrictMap<UUID, List<String>> entityMetadataMap = new StrictMap<>();
-		private final StrictMap<Location, BlockCache> blockMetadataMap = new StrictMap<>();
+		private final StrictMap<UUID, List<String>> entityMetadataMap = CacheRegistry.register("entity metadata", new StrictMap<>());
+		private final StrictMap<Location, BlockCache> blockMetadataMap = CacheRegistry.register("block metadata", new StrictMap<>());
 
 		private MetadataFile() {
 			super("Metadata");
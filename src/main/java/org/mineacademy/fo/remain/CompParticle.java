@@ -207,4 +207,37 @@ public enum CompParticle {
 				p.send(player, location, extra != null ? extra.floatValue() : 0F);
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Spawns the particle at many points only visible for the given player,
+	 * looking up the particle once for all of them
+	 *
+	 * @param player
+	 * @param points the x, y and z coordinates of each point after each other
+	 * @param count how many points to spawn
+	 */
+	public final void spawnFor(final Player player, final double[] points, final int count) {
+		if (Remain.hasParticleAPI()) {
+			final org.bukkit.Particle particle = ReflectionUtil.lookupEnumSilent(org.bukkit.Particle.class, toString());
+
+			if (particle != null)
+				for (int i = 0; i < count * 3; i += 3)
+					player.spawnParticle(particle, points[i], points[i + 1], points[i + 2], 1, 0D, 0D, 0D, 0D);
+
+		} else {
+			final ParticleInternals p = ReflectionUtil.lookupEnumSilent(ParticleInternals.class, toString());
+
+			if (p != null) {
+				final Location location = new Location(player.getWorld(), 0, 0, 0);
+
+				for (int i = 0; i < count * 3; i += 3) {
+					location.setX(points[i]);
+					location.setY(points[i + 1]);
+					location.setZ(points[i + 2]);
+
+					p.send(player, location, 0F);
+				}
+			}
+		}
+	}
+}
@@ -129,6 +129,16 @@ public final class Remain {
 	 */
 	private static Method sendPacket;
 
+	/**
+	 * The World.getMinHeight method, null before Minecraft 1.17
+	 */
+	private static Method getMinHeightMethod;
+
+	/**
+	 * The World.isChunkGenerated method, null before Minecraft 1.13.1
+	 */
+	private static Method isChunkGeneratedMethod;
+
 	// ----------------------------------------------------------------------------------------------------
 	// Flags below
 	// ----------------------------------------------------------------------------------------------------
@@ -261,6 +271,9 @@ public final class Remain {
 			getHealthMethod = LivingEntity.class.getMethod("getHealth");
 			isGetHealthDouble = getHealthMethod.getReturnType() == double.class;
 
+			getMinHeightMethod = ReflectionUtil.getMethod(World.class, "getMinHeight");
+			isChunkGeneratedMethod = ReflectionUtil.getMethod(World.class, "isChunkGenerated", int.class, int.class);
+
 			hasExtendedPlayerTitleAPI = MinecraftVersion.atLeast(V.v1_11);
 
 			try {
@@ -1855,6 +1868,29 @@ public final class Remain {
 		}
 	}
 
+	/**
+	 * Return the lowest block height in the world, below 0 since Minecraft 1.17
+	 *
+	 * @param world
+	 * @return
+	 */
+	public static int getMinHeight(final World world) {
+		return getMinHeightMethod != null ? (int) ReflectionUtil.invoke(getMinHeightMethod, world) : 0;
+	}
+
+	/**
+	 * Return true if the chunk has been generated, always true
+	 * on Minecraft older than 1.13.1 where we cannot tell
+	 *
+	 * @param world
+	 * @param chunkX
+	 * @param chunkZ
+	 * @return
+	 */
+	public static boolean isChunkGenerated(final World world, final int chunkX, final int chunkZ) {
+		return isChunkGeneratedMethod == null || (boolean) ReflectionUtil.invoke(isChunkGeneratedMethod, world, chunkX, chunkZ);
+	}
+
 	// ----------------------------------------------------------------------------------------------------
 	// Getters for various server functions
 	// ----------------------------------------------------------------------------------------------------
@@ -19,6 +19,8 @@ import org.mineacademy.fo.Common;
 import org.mineacademy.fo.MinecraftVersion;
 import org.mineacademy.fo.MinecraftVersion.V;
 import org.mineacademy.fo.Valid;
+import org.mineacademy.fo.debug.CacheRegistry;
+import org.mineacademy.fo.model.Ticker;
 import org.mineacademy.fo.plugin.SimplePlugin;
 import org.mineacademy.fo.remain.CompBarColor;
 import org.mineacademy.fo.remain.CompBarStyle;
@@ -49,12 +51,12 @@ public class BossBarInternals implements Listener {
 	/**
 	 * The player currently viewing the boss bar
 	 */
-	private static HashMap<UUID, EnderDragonEntity> players = new HashMap<>();
+	private static HashMap<UUID, EnderDragonEntity> players = CacheRegistry.register("boss bars", new HashMap<>());
 
 	/**
 	 * Currently running timers (for temporary boss bars)
 	 */
-	private static HashMap<UUID, Integer> timers = new HashMap<>();
+	private static HashMap<UUID, Ticker.Handle> timers = new HashMap<>();
 
 	/**
 	 * The singleton instance
@@ -118,8 +120,8 @@ public class BossBarInternals implements Listener {
 
 			players.clear();
 
-			for (final int timerID : timers.values())
-				Bukkit.getScheduler().cancelTask(timerID);
+			for (final Ticker.Handle timer : timers.values())
+				timer.cancel();
 			timers.clear();
 		}
 	}
@@ -257,7 +259,7 @@ public class BossBarInternals implements Listener {
 
 		cancelTimer(player);
 
-		timers.put(player.getUniqueId(), Common.runTimer(20, 20, () -> {
+		timers.put(player.getUniqueId(), Ticker.runTimer(20, handle -> {
 			final EnderDragonEntity drag = getDragon(player, "");
 			drag.health -= dragonHealthMinus;
 
@@ -266,7 +268,7 @@ public class BossBarInternals implements Listener {
 				cancelTimer(player);
 			} else
 				sendDragon(drag, player);
-		}).getTaskId());
+		}));
 
 		sendDragon(dragon, player);
 	}
@@ -302,10 +304,10 @@ public class BossBarInternals implements Listener {
 	}
 
 	private static void cancelTimer(final Player player) {
-		final Integer timerID = timers.remove(player.getUniqueId());
+		final Ticker.Handle timer = timers.remove(player.getUniqueId());
 
-		if (timerID != null)
-			Bukkit.getScheduler().cancelTask(timerID);
+		if (timer != null)
+			timer.cancel();
 	}
 
 	private static void sendDragon(final EnderDragonEntity dragon, final Player player) {
@@ -6,8 +6,10 @@ import org.mineacademy.fo.Common;
 import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.collection.StrictList;
 import org.mineacademy.fo.constants.FoConstants;
+import org.mineacademy.fo.debug.CacheRegistry;
 import org.mineacademy.fo.debug.Debugger;
 import org.mineacademy.fo.debug.LagCatcher;
+import org.mineacademy.fo.debug.TickProfiler;
 import org.mineacademy.fo.exception.FoException;
 import org.mineacademy.fo.plugin.SimplePlugin;
 import org.mineacademy.fo.update.SpigotUpdater;
@@ -114,6 +116,30 @@ public abstract class SimpleSettings extends YamlStaticConfig {
 	 */
 	public static Integer LAG_THRESHOLD_MILLIS = 100;
 
+	/**
+	 * Measure how long our tasks and listeners take, see {@link TickProfiler}.
+	 * Use /{label} profile to see the report.
+	 *
+	 * Profile_Ticks: false
+	 */
+	public static Boolean PROFILE_TICKS = false;
+
+	/**
+	 * How often to check our caches for unbounded growth in minutes,
+	 * see {@link CacheRegistry}. Set to -1 to disable.
+	 *
+	 * Cache_Check_Minutes: 5
+	 */
+	public static Integer CACHE_CHECK_MINUTES = 5;
+
+	/**
+	 * Log how many entries our caches hold on each check.
+	 * Use /{label} caches to see the full report.
+	 *
+	 * Log_Cache_Sizes: false
+	 */
+	public static Boolean LOG_CACHE_SIZES = false;
+
 	/**
 	 * When processing regular expressions, limit executing to the specified time.
 	 * This prevents server freeze/crash on malformed regex (loops).
@@ -215,9 +241,25 @@ public abstract class SimpleSettings extends YamlStaticConfig {
 				Common.log("&eLog_Lag_Over_Milis is 0, all performance is logged. Set to -1 to disable.");
 		}
 
+		if (isSetDefault("Profile_Ticks")) {
+			PROFILE_TICKS = getBoolean("Profile_Ticks");
+
+			TickProfiler.setEnabled(PROFILE_TICKS);
+		}
+
+		if (isSetDefault("Cache_Check_Minutes")) {
+			CACHE_CHECK_MINUTES = getInteger("Cache_Check_Minutes");
+			Valid.checkBoolean(CACHE_CHECK_MINUTES == -1 || CACHE_CHECK_MINUTES > 0, "Cache_Check_Minutes must be either -1 to disable or greater than 0!");
+		}
+
+		if (isSetDefault("Log_Cache_Sizes"))
+			LOG_CACHE_SIZES = getBoolean("Log_Cache_Sizes");
+
 		if (isSetDefault("Debug"))
 			DEBUG_SECTIONS = new StrictList<>(getStringList("Debug"));
 
+		Debugger.reloadSections(DEBUG_SECTIONS.getSource());
+
 		if (isSetDefault("Regex_Timeout_Milis"))
 			REGEX_TIMEOUT = getInteger("Regex_Timeout_Milis");
 
@@ -63,6 +63,11 @@ import lombok.Setter;
  */
 public class YamlConfig implements ConfigSerializable {
 
+	/**
+	 * Prints debug messages about loading configuration files
+	 */
+	private static final Debugger.Section CONFIG_DEBUG = Debugger.section("config");
+
 	// ------------------------------------------------------------------------------------------------------------
 	// Only allow one instance of file to be loaded for safety.
 	// ------------------------------------------------------------------------------------------------------------
@@ -154,12 +159,12 @@ public class YamlConfig implements ConfigSerializable {
 	protected static final ConfigInstance findInstance(final String fileName) {
 		for (final ConfigInstance instance : loadedFiles.keySet())
 			if (instance.equals(fileName)) {
-				Debugger.debug("config", "> Reusing instance of " + fileName + " = " + instance.getFile());
+				CONFIG_DEBUG.debug(() -> "> Reusing instance of " + fileName + " = " + instance.getFile());
 
 				return instance;
 			}
 
-		Debugger.debug("config", "> Creating new instance for " + fileName);
+		CONFIG_DEBUG.debug(() -> "> Creating new instance for " + fileName);
 		return null;
 	}
 
@@ -442,7 +447,7 @@ public class YamlConfig implements ConfigSerializable {
 		instance.save(header != null ? header : file.equals(FoConstants.File.DATA) ? FoConstants.Header.DATA_FILE : FoConstants.Header.UPDATED_FILE);
 		rewriteVariablesIn(instance.getFile());
 
-		Debugger.debug("config", "&eSaved updated file: " + file + " (# Comments removed)");
+		CONFIG_DEBUG.debug(() -> "&eSaved updated file: " + file + " (# Comments removed)");
 	}
 
 	/** Called automatically when the file is saved */
@@ -11,6 +11,7 @@ import org.mineacademy.fo.MinecraftVersion;
 import org.mineacademy.fo.MinecraftVersion.V;
 import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.collection.StrictMap;
+import org.mineacademy.fo.debug.CacheRegistry;
 import org.mineacademy.fo.remain.CompMaterial;
 import org.mineacademy.fo.remain.CompProperty;
 import org.mineacademy.fo.remain.Remain;
@@ -27,7 +28,7 @@ public class BlockVisualizer {
 	/**
 	 * Stores a map of currently visualized blocks
 	 */
-	private final StrictMap<Location, Object /*old MC compatibility*/> visualizedBlocks = new StrictMap<>();
+	private final StrictMap<Location, Object /*old MC compatibility*/> visualizedBlocks = CacheRegistry.register("visualized blocks", new StrictMap<>());
 
 	/**
 	 * Starts visualizing the block at the given location
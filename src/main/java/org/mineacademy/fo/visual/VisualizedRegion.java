@@ -1,17 +1,20 @@
 package org.mineacademy.fo.visual;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
 import org.mineacademy.fo.BlockUtil;
 import org.mineacademy.fo.Common;
 import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.collection.SerializedMap;
+import org.mineacademy.fo.debug.CacheRegistry;
+import org.mineacademy.fo.model.Ticker;
 import org.mineacademy.fo.region.Region;
 import org.mineacademy.fo.remain.CompParticle;
 
@@ -19,18 +22,57 @@ import lombok.Setter;
 
 /**
  * A simply way to visualize two locations in the world
+ *
+ * All visualized regions are rendered by one shared task. The outline points are
+ * cached until a corner is set again, and each viewer only gets particles near
+ * them and within the server view distance.
  */
 public final class VisualizedRegion extends Region {
 
+	/**
+	 * How often we send particles
+	 */
+	private static final int RENDER_PERIOD_TICKS = 23;
+
+	/**
+	 * The squared distance within which viewers see particles
+	 */
+	private static final double MAX_DISTANCE_SQUARED = 100 * 100;
+
+	/**
+	 * All regions being visualized
+	 */
+	private static final Set<VisualizedRegion> visualized = CacheRegistry.register("visualized regions", new HashSet<>());
+
+	/**
+	 * The x, y and z coordinates of points sent to one viewer, reused
+	 */
+	private static double[] viewerPoints = new double[0];
+
+	/**
+	 * A location reused to get where the viewer is
+	 */
+	private static final Location viewerLocation = new Location(null, 0, 0, 0);
+
+	/**
+	 * The task rendering all regions, or null if none
+	 */
+	private static Ticker.Handle renderer;
+
 	/**
 	 * A list of players who can see the particles
 	 */
 	private final List<Player> viewers = new ArrayList<>();
 
 	/**
-	 * The task responsible for sending particles
+	 * The x, y and z coordinates of outline points after each other
 	 */
-	private BukkitTask task;
+	private double[] outline;
+
+	/**
+	 * The corners the outline was computed from
+	 */
+	private Location outlinePrimary, outlineSecondary;
 
 	/**
 	 * The particle that is being sent out
@@ -90,8 +132,7 @@ public final class VisualizedRegion extends Region {
 
 		viewers.add(player);
 
-		if (task == null)
-			startVisualizing();
+		startVisualizing();
 	}
 
 	/**
@@ -104,7 +145,7 @@ public final class VisualizedRegion extends Region {
 
 		viewers.remove(player);
 
-		if (viewers.isEmpty() && task != null)
+		if (viewers.isEmpty() && visualized.contains(this))
 			stopVisualizing();
 	}
 
@@ -119,42 +160,147 @@ public final class VisualizedRegion extends Region {
 	}
 
 	/*
-	 * Starts visualizing this region if it is whole
+	 * Starts visualizing this region if it is whole, starting the shared renderer if it stopped
 	 */
 	private void startVisualizing() {
-		Valid.checkBoolean(task == null, "Already visualizing region " + this + "!");
 		Valid.checkBoolean(isWhole(), "Cannot visualize incomplete region " + this + "!");
 
-		task = Common.runTimer(23, new BukkitRunnable() {
-			@Override
-			public void run() {
-				if (viewers.isEmpty()) {
-					stopVisualizing();
+		visualized.add(this);
+
+		if (renderer == null || renderer.isCancelled())
+			renderer = Ticker.runTimer(RENDER_PERIOD_TICKS, VisualizedRegion::renderAll);
+	}
+
+	/*
+	 * Stops the region from being visualized
+	 */
+	private void stopVisualizing() {
+		Valid.checkBoolean(visualized.remove(this), "Region " + this + " not visualized");
+
+		viewers.clear();
+
+		if (visualized.isEmpty() && renderer != null) {
+			renderer.cancel();
+			renderer = null;
+		}
+	}
+
+	/*
+	 * Send particles of all visualized regions to their viewers
+	 */
+	private static void renderAll(final Ticker.Handle handle) {
+		final int viewDistance = Bukkit.getViewDistance();
+
+		for (final Iterator<VisualizedRegion> iterator = visualized.iterator(); iterator.hasNext();) {
+			final VisualizedRegion region = iterator.next();
+
+			// Forget players who left so we do not keep them or render for nobody
+			region.viewers.removeIf(viewer -> !viewer.isOnline());
+
+			if (region.viewers.isEmpty() || !region.isWhole()) {
+				region.viewers.clear();
+				iterator.remove();
+
+				continue;
+			}
+
+			region.render(viewDistance);
+		}
+
+		if (visualized.isEmpty()) {
+			handle.cancel();
+
+			renderer = null;
+		}
+	}
+
+	/*
+	 * Send each viewer the outline points near them in one batch
+	 */
+	private void render(final int viewDistance) {
+		final double[] points = getOutline();
+
+		if (viewerPoints.length < points.length)
+			viewerPoints = new double[points.length];
+
+		for (final Player viewer : viewers) {
+			if (!viewer.getWorld().getName().equals(getWorldName()))
+				continue;
+
+			final Location location = viewer.getLocation(viewerLocation);
+			final double x = location.getX(), y = location.getY(), z = location.getZ();
+
+			// Skip the whole region when its box is too far away
+			final double boxX = Math.max(getMinX() - x, Math.max(0, x - getMaxX() - 1));
+			final double boxY = Math.max(getMinY() - y, Math.max(0, y - getMaxY() - 1));
+			final double boxZ = Math.max(getMinZ() - z, Math.max(0, z - getMaxZ() - 1));
 
-					return;
-				}
+			if (boxX * boxX + boxY * boxY + boxZ * boxZ >= MAX_DISTANCE_SQUARED)
+				continue;
 
-				final Set<Location> blocks = BlockUtil.getBoundingBox(getPrimary(), getSecondary());
+			final int chunkX = location.getBlockX() >> 4;
+			final int chunkZ = location.getBlockZ() >> 4;
+			int count = 0;
 
-				for (final Location location : blocks)
-					for (final Player viewer : viewers)
-						if (viewer.getLocation().distance(location) < 100)
-							particle.spawnFor(viewer, location);
+			for (int i = 0; i < points.length; i += 3) {
+				final double pointX = points[i], pointY = points[i + 1], pointZ = points[i + 2];
 
+				if (Math.abs(((int) Math.floor(pointX) >> 4) - chunkX) > viewDistance || Math.abs(((int) Math.floor(pointZ) >> 4) - chunkZ) > viewDistance)
+					continue;
+
+				final double distanceX = pointX - x, distanceY = pointY - y, distanceZ = pointZ - z;
+
+				if (distanceX * distanceX + distanceY * distanceY + distanceZ * distanceZ >= MAX_DISTANCE_SQUARED)
+					continue;
+
+				viewerPoints[count * 3] = pointX;
+				viewerPoints[count * 3 + 1] = pointY;
+				viewerPoints[count * 3 + 2] = pointZ;
+
+				count++;
 			}
-		});
+
+			if (count > 0)
+				particle.spawnFor(viewer, viewerPoints, count);
+		}
 	}
 
 	/*
-	 * Stops the region from being visualized
+	 * Return the outline points, computing them again when a corner was set
 	 */
-	private void stopVisualizing() {
-		Valid.checkNotNull(task, "Region " + this + " not visualized");
+	private double[] getOutline() {
+		if (outline == null || outlinePrimary != getPrimary() || outlineSecondary != getSecondary()) {
+			final Set<Location> box = BlockUtil.getBoundingBox(getPrimary(), getSecondary());
+			final double[] points = new double[box.size() * 3];
+			int index = 0;
 
-		task.cancel();
-		task = null;
+			for (final Location point : box) {
+				points[index++] = point.getX();
+				points[index++] = point.getY();
+				points[index++] = point.getZ();
+			}
 
-		viewers.clear();
+			outline = points;
+			outlinePrimary = getPrimary();
+			outlineSecondary = getSecondary();
+		}
+
+		return outline;
+	}
+
+	/**
+	 * Stop visualizing all regions, called automatically when the plugin is reloaded or disabled
+	 */
+	public static void stopAll() {
+		for (final VisualizedRegion region : visualized)
+			region.viewers.clear();
+
+		visualized.clear();
+
+		if (renderer != null) {
+			renderer.cancel();
+			renderer = null;
+		}
 	}
 
 	/**